@@ -0,0 +1,74 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the keyword ciphers over input sizes from 16 B to 64 MB, with a
+ * short and a long key.
+ * 
+ * Run with the gc profiler to also see the allocation rate:
+ * 
+ * <pre>
+ * mvn -P jmh package
+ * java -jar target/benchmarks.jar CipherBenchmark -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class CipherBenchmark {
+
+	@Param({ "16", "1024", "65536", "1048576", "67108864" })
+	private int size;
+
+	@Param({ "4", "64" })
+	private int keyLength;
+
+	private String plainText;
+	private String key;
+	private String vigenereText;
+	private String playfairText;
+
+	@Setup
+	public void setUp() throws Throwable {
+		plainText = Ciphers.text(size, 1);
+		key = Ciphers.text(keyLength, 2);
+		vigenereText = (String) Ciphers.VIGENERE_ENCRYPTION.invokeExact(plainText, key);
+		playfairText = (String) Ciphers.PLAYFAIR_ENCRYPTION.invokeExact(plainText, key);
+	}
+
+	@Benchmark
+	public String vigenereEncryption() throws Throwable {
+		return (String) Ciphers.VIGENERE_ENCRYPTION.invokeExact(plainText, key);
+	}
+
+	@Benchmark
+	public String vigenereDecryption() throws Throwable {
+		return (String) Ciphers.VIGENERE_DECRYPTION.invokeExact(vigenereText, key);
+	}
+
+	@Benchmark
+	public String playfairEncryption() throws Throwable {
+		return (String) Ciphers.PLAYFAIR_ENCRYPTION.invokeExact(plainText, key);
+	}
+
+	@Benchmark
+	public String playfairDecryption() throws Throwable {
+		return (String) Ciphers.PLAYFAIR_DECRYPTION.invokeExact(playfairText, key);
+	}
+}
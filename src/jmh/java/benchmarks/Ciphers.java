@@ -0,0 +1,70 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Random;
+
+/**
+ * Handles on the public String methods of CryptoManager, plus the inputs the
+ * benchmarks share.
+ * 
+ * JMH will not generate code for a benchmark in the default package, and a
+ * named package cannot refer to a class in the default package, so the cipher
+ * methods are looked up once by name. Each handle is a static final constant,
+ * which the JIT inlines through like a direct call.
+ */
+final class Ciphers {
+
+	static final MethodHandle IS_STRING_IN_BOUNDS = find("isStringInBounds", boolean.class);
+	static final MethodHandle CAESAR_ENCRYPTION = find("caesarEncryption", String.class, int.class);
+	static final MethodHandle CAESAR_DECRYPTION = find("caesarDecryption", String.class, int.class);
+	static final MethodHandle VIGENERE_ENCRYPTION = find("vigenereEncryption", String.class, String.class);
+	static final MethodHandle VIGENERE_DECRYPTION = find("vigenereDecryption", String.class, String.class);
+	static final MethodHandle PLAYFAIR_ENCRYPTION = find("playfairEncryption", String.class, String.class);
+	static final MethodHandle PLAYFAIR_DECRYPTION = find("playfairDecryption", String.class, String.class);
+
+	// Every character the ciphers accept, from ' ' to '_'
+	private static final int LOWER_RANGE = ' ';
+	private static final int RANGE = 64;
+
+	private Ciphers() {
+	}
+
+	/**
+	 * Builds a reproducible in-bounds text.
+	 * 
+	 * @param length The number of characters.
+	 * @param seed   The random seed.
+	 * 
+	 * @return The text.
+	 */
+	static String text(int length, long seed) {
+		Random random = new Random(seed);
+		char[] text = new char[length];
+		for (int i = 0; i < length; i++) {
+			text[i] = (char) (LOWER_RANGE + random.nextInt(RANGE));
+		}
+		return new String(text);
+	}
+
+	/**
+	 * Looks up a public static method of CryptoManager.
+	 * 
+	 * @param name       The method name.
+	 * @param returnType The return type.
+	 * @param keyType    The type of the key parameter, if there is one; the first
+	 *                   parameter is always the text.
+	 * 
+	 * @return The method handle.
+	 */
+	private static MethodHandle find(String name, Class<?> returnType, Class<?>... keyType) {
+		try {
+			Class<?> manager = Class.forName("CryptoManager");
+			MethodType type = MethodType.methodType(returnType, String.class, keyType);
+			return MethodHandles.publicLookup().findStatic(manager, name, type);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+}
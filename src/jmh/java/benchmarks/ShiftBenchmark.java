@@ -0,0 +1,58 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the Caesar cipher and of the bounds check over input sizes from
+ * 16 B to 64 MB. These take no keyword, so unlike {@link CipherBenchmark} there
+ * is no key length parameter.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ShiftBenchmark {
+
+	private static final int KEY = 7;
+
+	@Param({ "16", "1024", "65536", "1048576", "67108864" })
+	private int size;
+
+	private String plainText;
+	private String caesarText;
+
+	@Setup
+	public void setUp() throws Throwable {
+		plainText = Ciphers.text(size, 1);
+		caesarText = (String) Ciphers.CAESAR_ENCRYPTION.invokeExact(plainText, KEY);
+	}
+
+	@Benchmark
+	public boolean isStringInBounds() throws Throwable {
+		return (boolean) Ciphers.IS_STRING_IN_BOUNDS.invokeExact(plainText);
+	}
+
+	@Benchmark
+	public String caesarEncryption() throws Throwable {
+		return (String) Ciphers.CAESAR_ENCRYPTION.invokeExact(plainText, KEY);
+	}
+
+	@Benchmark
+	public String caesarDecryption() throws Throwable {
+		return (String) Ciphers.CAESAR_DECRYPTION.invokeExact(caesarText, KEY);
+	}
+}
@@ -0,0 +1,144 @@
+import java.util.Arrays;
+
+/**
+ * The input alphabet of a key: the characters the ciphers work on, each with an
+ * index, and optionally the other case of each letter folded onto it. Its
+ * purpose is case-folding input, so that the GUI and other callers can pass
+ * lower-case text and keys as they are.
+ * 
+ * Everything is precomputed into one dense table from character to index, so a
+ * cipher loop finds the index of an input character with a single array load; a
+ * folded character simply has the same entry as the character it folds to, and
+ * a character outside the alphabet has -1. Input therefore never needs an
+ * upper-casing pass or a copy before it is encrypted.
+ * 
+ * The ciphers work on the 64 characters from {@link CryptoManager#LOWER_RANGE}
+ * to {@link CryptoManager#UPPER_RANGE}, and their tables, the Playfair square
+ * and the packed form all assume those 6-bit indexes, so there are exactly two
+ * alphabets: {@link #DEFAULT}, and {@link #CASE_FOLDING}, which accepts
+ * lower-case input as well. Other characters, orderings and square sizes are
+ * not supported; the output is always in the cipher characters.
+ * 
+ * Instances are immutable and can be shared freely between threads.
+ */
+public final class Alphabet {
+
+	/** The cipher characters, exactly as given. */
+	public static final Alphabet DEFAULT = cipherRange(false);
+
+	/** The cipher characters, with lower-case letters read as upper case. */
+	public static final Alphabet CASE_FOLDING = cipherRange(true);
+
+	private final char[] symbols;
+	// indexes[c] is the index of character c, or -1; covers every mapped character
+	private final short[] indexes;
+	private final boolean caseFolding;
+
+	/**
+	 * Compiles an alphabet.
+	 * 
+	 * @param symbols     The characters in index order.
+	 * @param caseFolding true to map the other case of each letter to it.
+	 */
+	private Alphabet(char[] symbols, boolean caseFolding) {
+		this.symbols = symbols;
+		this.caseFolding = caseFolding;
+
+		int max = 0;
+		for (char symbol : symbols) {
+			max = Math.max(max, symbol);
+			if (caseFolding) {
+				max = Math.max(max, Math.max(Character.toLowerCase(symbol), Character.toUpperCase(symbol)));
+			}
+		}
+		indexes = new short[max + 1];
+		Arrays.fill(indexes, (short) -1);
+		for (int i = 0; i < symbols.length; i++) {
+			indexes[symbols[i]] = (short) i;
+		}
+
+		// Fold only onto characters the alphabet does not already hold itself
+		if (caseFolding) {
+			for (int i = 0; i < symbols.length; i++) {
+				fold(Character.toLowerCase(symbols[i]), i);
+				fold(Character.toUpperCase(symbols[i]), i);
+			}
+		}
+	}
+
+	/**
+	 * Compiles the cipher characters.
+	 * 
+	 * @param caseFolding true to map the other case of each letter to it.
+	 * 
+	 * @return The alphabet.
+	 */
+	private static Alphabet cipherRange(boolean caseFolding) {
+		char[] symbols = new char[CryptoManager.RANGE];
+		for (int i = 0; i < symbols.length; i++) {
+			symbols[i] = (char) (CryptoManager.LOWER_RANGE + i);
+		}
+		return new Alphabet(symbols, caseFolding);
+	}
+
+	/**
+	 * Returns the number of characters.
+	 * 
+	 * @return The alphabet size.
+	 */
+	public int size() {
+		return symbols.length;
+	}
+
+	/**
+	 * Returns the index of a character, after folding.
+	 * 
+	 * @param c The character.
+	 * 
+	 * @return The index, or -1 if the character is not in the alphabet.
+	 */
+	public int indexOf(char c) {
+		return c < indexes.length ? indexes[c] : -1;
+	}
+
+	/**
+	 * Returns the character at an index.
+	 * 
+	 * @param index The index, from 0 to size() - 1.
+	 * 
+	 * @return The character.
+	 */
+	public char charAt(int index) {
+		return symbols[index];
+	}
+
+	/**
+	 * Tells whether the other case of each letter is folded onto it.
+	 * 
+	 * @return true if case is folded.
+	 */
+	public boolean isCaseFolding() {
+		return caseFolding;
+	}
+
+	/**
+	 * Returns the index table, for the cipher loops.
+	 * 
+	 * @return The table; not to be modified.
+	 */
+	short[] indexes() {
+		return indexes;
+	}
+
+	/**
+	 * Folds a character onto an index unless it is in the alphabet already.
+	 * 
+	 * @param c     The character.
+	 * @param index The index of the character it folds to.
+	 */
+	private void fold(char c, int index) {
+		if (indexes[c] < 0) {
+			indexes[c] = (short) index;
+		}
+	}
+}
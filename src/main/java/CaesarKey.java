@@ -0,0 +1,129 @@
+/**
+ * A compiled Caesar key.
+ * 
+ * Shifting is table driven: a shared 64x64 table holds every character of the
+ * alphabet under every possible shift, so encrypting a character is a single
+ * array load with no modulo. A compiled key only points at the two rows it
+ * needs, which makes it cheap to build and free to share between threads.
+ */
+public final class CaesarKey {
+
+	// SHIFT_TABLE[s][i] is the character at index i shifted by s
+	private static final char[][] SHIFT_TABLE = new char[CryptoManager.RANGE][CryptoManager.RANGE];
+	// One shared key per shift, so int-keyed calls do not allocate
+	private static final CaesarKey[] KEYS = new CaesarKey[CryptoManager.RANGE];
+	private static final CaesarKey[] FOLDING_KEYS = new CaesarKey[CryptoManager.RANGE];
+
+	static {
+		for (int s = 0; s < CryptoManager.RANGE; s++) {
+			for (int i = 0; i < CryptoManager.RANGE; i++) {
+				SHIFT_TABLE[s][i] = CryptoManager.shiftCharacter((char) (CryptoManager.LOWER_RANGE + i), s);
+			}
+		}
+		for (int s = 0; s < CryptoManager.RANGE; s++) {
+			KEYS[s] = new CaesarKey(s);
+			FOLDING_KEYS[s] = new CaesarKey(s, Alphabet.CASE_FOLDING);
+		}
+	}
+
+	private final int shift;
+	private final ShiftSchedule encryptSchedule;
+	private final ShiftSchedule decryptSchedule;
+
+	/**
+	 * Compiles a Caesar key.
+	 * 
+	 * @param key The integer shift value (any int, negative shifts go left).
+	 */
+	public CaesarKey(int key) {
+		this(key, Alphabet.DEFAULT);
+	}
+
+	/**
+	 * Compiles a Caesar key that reads the text through an alphabet, so that, for
+	 * example, lower-case input folds to upper case.
+	 * 
+	 * @param key      The integer shift value (any int, negative shifts go left).
+	 * @param alphabet The alphabet.
+	 */
+	public CaesarKey(int key, Alphabet alphabet) {
+		long start = CryptoMetrics.start();
+		this.shift = normalize(key);
+		this.encryptSchedule = new ShiftSchedule(new int[] { shift }, CryptoMetrics.CAESAR, alphabet);
+		this.decryptSchedule = new ShiftSchedule(new int[] { normalize(-shift) }, CryptoMetrics.CAESAR, alphabet);
+		CryptoMetrics.CAESAR.recordKeyBuild(start);
+	}
+
+	/**
+	 * Returns the shared compiled key for a shift value.
+	 * 
+	 * @param key The integer shift value.
+	 * 
+	 * @return The compiled key.
+	 */
+	static CaesarKey of(int key) {
+		return KEYS[normalize(key)];
+	}
+
+	/**
+	 * Returns the shared compiled key for a shift value and alphabet.
+	 * 
+	 * @param key      The integer shift value.
+	 * @param alphabet The alphabet.
+	 * 
+	 * @return The compiled key.
+	 */
+	static CaesarKey of(int key, Alphabet alphabet) {
+		return (alphabet.isCaseFolding() ? FOLDING_KEYS : KEYS)[normalize(key)];
+	}
+
+	/**
+	 * Returns the substitution row for a shift value.
+	 * 
+	 * @param key The integer shift value.
+	 * 
+	 * @return A RANGE-entry table mapping a character index to its shifted
+	 *         character.
+	 */
+	static char[] row(int key) {
+		return SHIFT_TABLE[normalize(key)];
+	}
+
+	/**
+	 * Returns the shift this key applies when encrypting.
+	 * 
+	 * @return The shift, between 0 and RANGE - 1.
+	 */
+	public int getShift() {
+		return shift;
+	}
+
+	/**
+	 * Returns the encryption table, as a one-position key schedule.
+	 * 
+	 * @return The encryption schedule.
+	 */
+	ShiftSchedule encryptSchedule() {
+		return encryptSchedule;
+	}
+
+	/**
+	 * Returns the decryption table, as a one-position key schedule.
+	 * 
+	 * @return The decryption schedule.
+	 */
+	ShiftSchedule decryptSchedule() {
+		return decryptSchedule;
+	}
+
+	/**
+	 * Reduces any int shift to the range 0 to RANGE - 1.
+	 * 
+	 * @param key The integer shift value.
+	 * 
+	 * @return The equivalent non-negative shift.
+	 */
+	private static int normalize(int key) {
+		return Math.floorMod(key, CryptoManager.RANGE);
+	}
+}
@@ -0,0 +1,159 @@
+import java.io.Writer;
+
+/**
+ * A cipher that callers can use without knowing which one it is: a factory for
+ * compiled keys, plus encryption and decryption over char ranges, streams and
+ * live previews.
+ * 
+ * The built-in ciphers are registered in {@link CipherRegistry}; registering
+ * another implementation under the same name swaps it in for every caller.
+ * 
+ * @param <K> The compiled key type.
+ */
+public interface Cipher<K> {
+
+	/**
+	 * Returns the name the cipher is registered and shown under.
+	 * 
+	 * @return The name, such as "Vigenere".
+	 */
+	String getName();
+
+	/**
+	 * Compiles a key, as typed by the user.
+	 * 
+	 * @param key The keyword, or the shift value for Caesar.
+	 * 
+	 * @return The compiled key.
+	 * 
+	 * @throws IllegalArgumentException if the key cannot be used.
+	 */
+	K compile(String key);
+
+	/**
+	 * Compiles a key that reads the keyword and the text through an alphabet, so
+	 * that with {@link Alphabet#CASE_FOLDING} lower-case input is accepted without
+	 * upper-casing it first. By default only {@link Alphabet#DEFAULT} is supported.
+	 * 
+	 * @param key      The keyword, or the shift value for Caesar.
+	 * @param alphabet The alphabet.
+	 * 
+	 * @return The compiled key.
+	 * 
+	 * @throws IllegalArgumentException if the key or the alphabet cannot be used.
+	 */
+	default K compile(String key, Alphabet alphabet) {
+		if (alphabet != Alphabet.DEFAULT) {
+			throw new IllegalArgumentException(getName() + " does not support this alphabet");
+		}
+		return compile(key);
+	}
+
+	/**
+	 * Returns the most characters encryption can write for a given input length.
+	 * 
+	 * @param length The input length.
+	 * 
+	 * @return The output length (Playfair pads odd input).
+	 */
+	default int encryptedLength(int length) {
+		return length;
+	}
+
+	/**
+	 * Encrypts a range of characters.
+	 * 
+	 * @param src       The characters to be encrypted.
+	 * @param srcOffset The index of the first character to encrypt.
+	 * @param length    The number of characters to encrypt.
+	 * @param dst       The array receiving encryptedLength(length) characters.
+	 * @param dstOffset The index in dst where the first encrypted character goes.
+	 * @param key       The compiled key.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character.
+	 */
+	int encrypt(char[] src, int srcOffset, int length, char[] dst, int dstOffset, K key);
+
+	/**
+	 * Decrypts a range of characters.
+	 * 
+	 * @param src       The characters to be decrypted.
+	 * @param srcOffset The index of the first character to decrypt.
+	 * @param length    The number of characters to decrypt.
+	 * @param dst       The array receiving the decrypted characters.
+	 * @param dstOffset The index in dst where the first decrypted character goes.
+	 * @param key       The compiled key.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         character that cannot be decrypted.
+	 */
+	int decrypt(char[] src, int srcOffset, int length, char[] dst, int dstOffset, K key);
+
+	/**
+	 * Creates a writer that encrypts what is written through it.
+	 * 
+	 * @param out The writer receiving the ciphertext.
+	 * @param key The compiled key.
+	 * 
+	 * @return The encrypting writer.
+	 */
+	Writer encryptingWriter(Writer out, K key);
+
+	/**
+	 * Creates a writer that decrypts what is written through it.
+	 * 
+	 * @param out The writer receiving the plaintext.
+	 * @param key The compiled key.
+	 * 
+	 * @return The decrypting writer.
+	 */
+	Writer decryptingWriter(Writer out, K key);
+
+	/**
+	 * Creates an empty engine that keeps the encryption of an edited text up to
+	 * date.
+	 * 
+	 * @param key The compiled key.
+	 * 
+	 * @return The incremental engine.
+	 */
+	IncrementalCipher incrementalEncryption(K key);
+
+	/**
+	 * Encrypts a string.
+	 * 
+	 * @param text The string to be encrypted.
+	 * @param key  The compiled key.
+	 * 
+	 * @return The encrypted string, or the offset of the first out-of-bounds
+	 *         character.
+	 */
+	default CipherResult encrypt(String text, K key) {
+		char[] src = text.toCharArray();
+		char[] dst = new char[encryptedLength(src.length)];
+		int written = encrypt(src, 0, src.length, dst, 0, key);
+		return written >= 0 ? CipherResult.success(new String(dst, 0, written))
+				: CipherResult.outOfBounds(-written - 1);
+	}
+
+	/**
+	 * Decrypts a string.
+	 * 
+	 * @param text The string to be decrypted.
+	 * @param key  The compiled key.
+	 * 
+	 * @return The decrypted string, the odd length of a ciphertext that must be
+	 *         whole pairs, or the offset of the first out-of-bounds character.
+	 */
+	default CipherResult decrypt(String text, K key) {
+		char[] chars = text.toCharArray();
+		// A cipher that pads odd input only ever produces whole pairs
+		if (encryptedLength(chars.length) != chars.length) {
+			return CipherResult.oddLength(chars.length);
+		}
+		int written = decrypt(chars, 0, chars.length, chars, 0, key);
+		return written >= 0 ? CipherResult.success(new String(chars, 0, written))
+				: CipherResult.outOfBounds(-written - 1);
+	}
+}
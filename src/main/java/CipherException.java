@@ -0,0 +1,62 @@
+/**
+ * Thrown by the {@link CryptoManager.Validation#FAIL_FAST} methods when the
+ * input or the key cannot be used. It carries the same status and offset as the
+ * {@link CipherResult} that would otherwise have been returned.
+ */
+public class CipherException extends IllegalArgumentException {
+
+	private static final long serialVersionUID = 1L;
+
+	// The message for Playfair ciphertext that is not whole pairs
+	static final String ODD_LENGTH = "The selected string has an odd length, Try again.";
+
+	private final CipherResult.Status status;
+	private final int errorOffset;
+
+	/**
+	 * Creates an exception for a failed result.
+	 * 
+	 * @param result The failed result.
+	 */
+	CipherException(CipherResult result) {
+		super(message(result));
+		this.status = result.getStatus();
+		this.errorOffset = result.getErrorOffset();
+	}
+
+	/**
+	 * Describes a failed result in the words the String methods use.
+	 * 
+	 * @param result The failed result.
+	 * 
+	 * @return The message.
+	 */
+	private static String message(CipherResult result) {
+		switch (result.getStatus()) {
+		case ODD_LENGTH:
+			return ODD_LENGTH + " (" + result + ")";
+		case INVALID_KEY:
+			return "The selected key is not in bounds, Try again.";
+		default:
+			return CryptoManager.NOT_IN_BOUNDS + " (" + result + ")";
+		}
+	}
+
+	/**
+	 * Returns why the operation failed.
+	 * 
+	 * @return The status.
+	 */
+	public CipherResult.Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * Returns the offset of the character that made the operation fail.
+	 * 
+	 * @return The offset, or -1 for an invalid key.
+	 */
+	public int getErrorOffset() {
+		return errorOffset;
+	}
+}
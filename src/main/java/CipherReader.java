@@ -0,0 +1,207 @@
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A Reader that encrypts or decrypts the text read through it, so a text of any
+ * size can be processed with constant memory.
+ * 
+ * The Vigenere key position and an odd trailing Playfair character are carried
+ * across reads. At the end of the input a final odd Playfair character is
+ * padded with a space, exactly like {@link
+ * CryptoManager#playfairEncryption(String, String)}. Out-of-bounds input fails
+ * the read with a {@link java.io.CharConversionException}.
+ */
+public class CipherReader extends FilterReader {
+
+	private final StreamCipher cipher;
+	private final char[] buffer = new char[StreamCipher.BUFFER_SIZE + 2];
+	private int position; // Next processed character to hand out
+	private int limit; // End of the processed characters in buffer
+	private boolean eof;
+
+	/**
+	 * Creates a reader around the given stream state.
+	 * 
+	 * @param in     The reader supplying the input.
+	 * @param cipher The cipher state.
+	 */
+	private CipherReader(Reader in, StreamCipher cipher) {
+		super(in);
+		this.cipher = cipher;
+	}
+
+	/**
+	 * Creates a reader that Caesar-encrypts its input.
+	 * 
+	 * @param in  The reader supplying the plaintext.
+	 * @param key The integer shift value.
+	 * 
+	 * @return The encrypting reader.
+	 */
+	public static CipherReader caesarEncryption(Reader in, int key) {
+		return new CipherReader(in, new StreamCipher(CaesarKey.of(key).encryptSchedule()));
+	}
+
+	/**
+	 * Creates a reader that Caesar-decrypts its input.
+	 * 
+	 * @param in  The reader supplying the ciphertext.
+	 * @param key The integer shift value.
+	 * 
+	 * @return The decrypting reader.
+	 */
+	public static CipherReader caesarDecryption(Reader in, int key) {
+		return new CipherReader(in, new StreamCipher(CaesarKey.of(key).decryptSchedule()));
+	}
+
+	/**
+	 * Creates a reader that Caesar-encrypts its input with a precompiled key.
+	 * 
+	 * @param in  The reader supplying the plaintext.
+	 * @param key The compiled Caesar key.
+	 * 
+	 * @return The encrypting reader.
+	 */
+	public static CipherReader caesarEncryption(Reader in, CaesarKey key) {
+		return new CipherReader(in, new StreamCipher(key.encryptSchedule()));
+	}
+
+	/**
+	 * Creates a reader that Caesar-decrypts its input with a precompiled key.
+	 * 
+	 * @param in  The reader supplying the ciphertext.
+	 * @param key The compiled Caesar key.
+	 * 
+	 * @return The decrypting reader.
+	 */
+	public static CipherReader caesarDecryption(Reader in, CaesarKey key) {
+		return new CipherReader(in, new StreamCipher(key.decryptSchedule()));
+	}
+
+	/**
+	 * Creates a reader that Vigenere-encrypts its input.
+	 * 
+	 * @param in  The reader supplying the plaintext.
+	 * @param key The compiled Vigenere key.
+	 * 
+	 * @return The encrypting reader.
+	 */
+	public static CipherReader vigenereEncryption(Reader in, VigenereKey key) {
+		return new CipherReader(in, new StreamCipher(key.encryptSchedule()));
+	}
+
+	/**
+	 * Creates a reader that Vigenere-decrypts its input.
+	 * 
+	 * @param in  The reader supplying the ciphertext.
+	 * @param key The compiled Vigenere key.
+	 * 
+	 * @return The decrypting reader.
+	 */
+	public static CipherReader vigenereDecryption(Reader in, VigenereKey key) {
+		return new CipherReader(in, new StreamCipher(key.decryptSchedule()));
+	}
+
+	/**
+	 * Creates a reader that Playfair-encrypts its input.
+	 * 
+	 * @param in  The reader supplying the plaintext.
+	 * @param key The compiled Playfair key.
+	 * 
+	 * @return The encrypting reader.
+	 */
+	public static CipherReader playfairEncryption(Reader in, PlayfairKey key) {
+		return new CipherReader(in, new StreamCipher(key, true));
+	}
+
+	/**
+	 * Creates a reader that Playfair-decrypts its input.
+	 * 
+	 * @param in  The reader supplying the ciphertext.
+	 * @param key The compiled Playfair key.
+	 * 
+	 * @return The decrypting reader.
+	 */
+	public static CipherReader playfairDecryption(Reader in, PlayfairKey key) {
+		return new CipherReader(in, new StreamCipher(key, false));
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!fill()) {
+			return -1;
+		}
+		return buffer[position++];
+	}
+
+	@Override
+	public int read(char[] cbuf, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (!fill()) {
+			return -1;
+		}
+		int count = Math.min(len, limit - position);
+		System.arraycopy(buffer, position, cbuf, off, count);
+		position += count;
+		return count;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		// Skipped characters still have to pass through the cipher to keep its state
+		long skipped = 0;
+		while (skipped < n && fill()) {
+			int count = (int) Math.min(n - skipped, limit - position);
+			position += count;
+			skipped += count;
+		}
+		return skipped;
+	}
+
+	@Override
+	public boolean ready() throws IOException {
+		return position < limit || (!eof && in.ready());
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	@Override
+	public void mark(int readAheadLimit) throws IOException {
+		throw new IOException("mark() not supported");
+	}
+
+	@Override
+	public void reset() throws IOException {
+		throw new IOException("reset() not supported");
+	}
+
+	/**
+	 * Makes sure at least one processed character is waiting in the buffer.
+	 * 
+	 * @return false at the end of the text.
+	 * 
+	 * @throws IOException if reading fails or the input is out of bounds.
+	 */
+	private boolean fill() throws IOException {
+		while (position == limit) {
+			if (eof) {
+				return false;
+			}
+			position = 0;
+			int count = in.read(buffer, 0, StreamCipher.BUFFER_SIZE);
+			if (count < 0) {
+				eof = true;
+				limit = cipher.finish(buffer, 0);
+			} else {
+				limit = cipher.update(buffer, 0, count, buffer, 0);
+			}
+		}
+		return true;
+	}
+}
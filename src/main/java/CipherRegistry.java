@@ -0,0 +1,225 @@
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The ciphers available to the GUI and other callers, looked up by name.
+ * 
+ * Vigenere, Playfair and Caesar are registered at startup, in that order. Their
+ * Caesar and Vigenere loops run on the {@link ShiftEngine} picked at startup,
+ * which can be chosen with the crypto.engine system property. A caller that
+ * registers its own implementation under an existing name replaces it for
+ * everyone who looks it up afterwards.
+ */
+public final class CipherRegistry {
+
+	// Keyed by lower-case name, in registration order
+	private static final Map<String, Cipher<?>> CIPHERS = new LinkedHashMap<>();
+
+	static {
+		register(new VigenereCipher());
+		register(new PlayfairCipher());
+		register(new CaesarCipher());
+	}
+
+	private CipherRegistry() {
+	}
+
+	/**
+	 * Registers a cipher, replacing any cipher with the same name.
+	 * 
+	 * @param cipher The cipher.
+	 */
+	public static synchronized void register(Cipher<?> cipher) {
+		CIPHERS.put(cipher.getName().toLowerCase(Locale.ROOT), cipher);
+	}
+
+	/**
+	 * Looks a cipher up by name, ignoring case.
+	 * 
+	 * @param name The cipher name, such as "caesar".
+	 * 
+	 * @return The cipher.
+	 * 
+	 * @throws IllegalArgumentException if no cipher has that name.
+	 */
+	public static synchronized Cipher<?> get(String name) {
+		Cipher<?> cipher = CIPHERS.get(name.toLowerCase(Locale.ROOT));
+		if (cipher == null) {
+			throw new IllegalArgumentException("Unknown cipher: " + name);
+		}
+		return cipher;
+	}
+
+	/**
+	 * Returns every registered cipher, in registration order.
+	 * 
+	 * @return A snapshot of the ciphers.
+	 */
+	public static synchronized List<Cipher<?>> ciphers() {
+		return new ArrayList<>(CIPHERS.values());
+	}
+
+	/**
+	 * Returns the name of the engine running the Caesar and Vigenere loops.
+	 * 
+	 * @return "SCALAR", "TABLE" or "SWAR".
+	 */
+	public static String getEngine() {
+		return ShiftEngine.SELECTED.name();
+	}
+
+	/**
+	 * The Vigenere cipher; keys come from the shared key cache, and case-folding
+	 * keys from a cache of their own.
+	 */
+	private static final class VigenereCipher implements Cipher<VigenereKey> {
+
+		private final KeyCache<VigenereKey> foldingKeys = new KeyCache<>(
+				key -> new VigenereKey(key, Alphabet.CASE_FOLDING), KeyCache.DEFAULT_MAXIMUM_SIZE);
+
+		@Override
+		public String getName() {
+			return "Vigenere";
+		}
+
+		@Override
+		public VigenereKey compile(String key) {
+			return CryptoManager.vigenereKeyCache().get(key);
+		}
+
+		@Override
+		public VigenereKey compile(String key, Alphabet alphabet) {
+			return alphabet == Alphabet.DEFAULT ? compile(key) : foldingKeys.get(key);
+		}
+
+		@Override
+		public int encrypt(char[] src, int srcOffset, int length, char[] dst, int dstOffset, VigenereKey key) {
+			return CryptoManager.vigenereEncryption(src, srcOffset, length, dst, dstOffset, key);
+		}
+
+		@Override
+		public int decrypt(char[] src, int srcOffset, int length, char[] dst, int dstOffset, VigenereKey key) {
+			return CryptoManager.vigenereDecryption(src, srcOffset, length, dst, dstOffset, key);
+		}
+
+		@Override
+		public Writer encryptingWriter(Writer out, VigenereKey key) {
+			return CipherWriter.vigenereEncryption(out, key);
+		}
+
+		@Override
+		public Writer decryptingWriter(Writer out, VigenereKey key) {
+			return CipherWriter.vigenereDecryption(out, key);
+		}
+
+		@Override
+		public IncrementalCipher incrementalEncryption(VigenereKey key) {
+			return IncrementalCipher.vigenereEncryption(key);
+		}
+	}
+
+	/**
+	 * The Playfair cipher; keys come from the shared key cache, and case-folding
+	 * keys from a cache of their own.
+	 */
+	private static final class PlayfairCipher implements Cipher<PlayfairKey> {
+
+		private final KeyCache<PlayfairKey> foldingKeys = new KeyCache<>(
+				key -> new PlayfairKey(key, Alphabet.CASE_FOLDING), KeyCache.DEFAULT_MAXIMUM_SIZE);
+
+		@Override
+		public String getName() {
+			return "Playfair";
+		}
+
+		@Override
+		public PlayfairKey compile(String key) {
+			return CryptoManager.playfairKeyCache().get(key);
+		}
+
+		@Override
+		public PlayfairKey compile(String key, Alphabet alphabet) {
+			return alphabet == Alphabet.DEFAULT ? compile(key) : foldingKeys.get(key);
+		}
+
+		@Override
+		public int encryptedLength(int length) {
+			return length + (length & 1);
+		}
+
+		@Override
+		public int encrypt(char[] src, int srcOffset, int length, char[] dst, int dstOffset, PlayfairKey key) {
+			return CryptoManager.playfairEncryption(src, srcOffset, length, dst, dstOffset, key);
+		}
+
+		@Override
+		public int decrypt(char[] src, int srcOffset, int length, char[] dst, int dstOffset, PlayfairKey key) {
+			return CryptoManager.playfairDecryption(src, srcOffset, length, dst, dstOffset, key);
+		}
+
+		@Override
+		public Writer encryptingWriter(Writer out, PlayfairKey key) {
+			return CipherWriter.playfairEncryption(out, key);
+		}
+
+		@Override
+		public Writer decryptingWriter(Writer out, PlayfairKey key) {
+			return CipherWriter.playfairDecryption(out, key);
+		}
+
+		@Override
+		public IncrementalCipher incrementalEncryption(PlayfairKey key) {
+			return IncrementalCipher.playfairEncryption(key);
+		}
+	}
+
+	/**
+	 * The Caesar cipher; the key is the shift value.
+	 */
+	private static final class CaesarCipher implements Cipher<CaesarKey> {
+
+		@Override
+		public String getName() {
+			return "Caesar";
+		}
+
+		@Override
+		public CaesarKey compile(String key) {
+			return CaesarKey.of(Integer.parseInt(key.trim()));
+		}
+
+		@Override
+		public CaesarKey compile(String key, Alphabet alphabet) {
+			return CaesarKey.of(Integer.parseInt(key.trim()), alphabet);
+		}
+
+		@Override
+		public int encrypt(char[] src, int srcOffset, int length, char[] dst, int dstOffset, CaesarKey key) {
+			return CryptoManager.caesarEncryption(src, srcOffset, length, dst, dstOffset, key);
+		}
+
+		@Override
+		public int decrypt(char[] src, int srcOffset, int length, char[] dst, int dstOffset, CaesarKey key) {
+			return CryptoManager.caesarDecryption(src, srcOffset, length, dst, dstOffset, key);
+		}
+
+		@Override
+		public Writer encryptingWriter(Writer out, CaesarKey key) {
+			return CipherWriter.caesarEncryption(out, key);
+		}
+
+		@Override
+		public Writer decryptingWriter(Writer out, CaesarKey key) {
+			return CipherWriter.caesarDecryption(out, key);
+		}
+
+		@Override
+		public IncrementalCipher incrementalEncryption(CaesarKey key) {
+			return IncrementalCipher.caesarEncryption(key);
+		}
+	}
+}
@@ -0,0 +1,130 @@
+/**
+ * The outcome of one cipher operation: the resulting text, or why there is
+ * none.
+ * 
+ * Unlike the error message returned by the String methods of {@link
+ * CryptoManager}, a failure here cannot be mistaken for (or decrypted as)
+ * ciphertext: asking a failed result for its text throws.
+ */
+public final class CipherResult {
+
+	/**
+	 * Whether an operation succeeded, and if not, why.
+	 */
+	public enum Status {
+		/** The text was transformed. */
+		SUCCESS,
+		/** The input contains a character outside the allowable bounds. */
+		OUT_OF_BOUNDS,
+		/** Playfair ciphertext of odd length (it always comes in whole pairs). */
+		ODD_LENGTH,
+		/** The key is empty or contains a character outside the allowable bounds. */
+		INVALID_KEY
+	}
+
+	private final Status status;
+	private final String text;
+	private final int errorOffset;
+
+	/**
+	 * Creates a result.
+	 * 
+	 * @param status      The outcome.
+	 * @param text        The resulting text, or null on failure.
+	 * @param errorOffset The offset of the offending character, or -1.
+	 */
+	private CipherResult(Status status, String text, int errorOffset) {
+		this.status = status;
+		this.text = text;
+		this.errorOffset = errorOffset;
+	}
+
+	/**
+	 * Creates a successful result.
+	 * 
+	 * @param text The resulting text.
+	 * 
+	 * @return The result.
+	 */
+	static CipherResult success(String text) {
+		return new CipherResult(Status.SUCCESS, text, -1);
+	}
+
+	/**
+	 * Creates a failed result for an out-of-bounds character.
+	 * 
+	 * @param offset The offset of the first out-of-bounds character.
+	 * 
+	 * @return The result.
+	 */
+	static CipherResult outOfBounds(int offset) {
+		return new CipherResult(Status.OUT_OF_BOUNDS, null, offset);
+	}
+
+	/**
+	 * Creates a failed result for odd-length Playfair ciphertext.
+	 * 
+	 * @param length The length of the ciphertext; the last character has no
+	 *               partner.
+	 * 
+	 * @return The result.
+	 */
+	static CipherResult oddLength(int length) {
+		return new CipherResult(Status.ODD_LENGTH, null, length - 1);
+	}
+
+	/**
+	 * Creates a failed result for a key that cannot be used.
+	 * 
+	 * @return The result.
+	 */
+	static CipherResult invalidKey() {
+		return new CipherResult(Status.INVALID_KEY, null, -1);
+	}
+
+	/**
+	 * Returns the outcome of the operation.
+	 * 
+	 * @return The status.
+	 */
+	public Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * Checks if the operation succeeded.
+	 * 
+	 * @return true if the text was transformed.
+	 */
+	public boolean isSuccess() {
+		return status == Status.SUCCESS;
+	}
+
+	/**
+	 * Returns the resulting text.
+	 * 
+	 * @return The encrypted or decrypted text.
+	 * 
+	 * @throws IllegalStateException if the operation failed.
+	 */
+	public String getText() {
+		if (status != Status.SUCCESS) {
+			throw new IllegalStateException("No text: " + this);
+		}
+		return text;
+	}
+
+	/**
+	 * Returns the offset of the character that made the operation fail.
+	 * 
+	 * @return The offset, or -1 on success or for an invalid key.
+	 */
+	public int getErrorOffset() {
+		return errorOffset;
+	}
+
+	@Override
+	public String toString() {
+		return status == Status.SUCCESS ? text : status + " at offset " + errorOffset;
+	}
+}
@@ -0,0 +1,170 @@
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A Writer that encrypts or decrypts everything written to it before passing it
+ * on, so a text of any size can be processed with constant memory.
+ * 
+ * The Vigenere key position and an odd trailing Playfair character are carried
+ * across write calls. Closing the writer pads a final odd Playfair character
+ * with a space, exactly like {@link CryptoManager#playfairEncryption(String,
+ * String)}. Out-of-bounds input fails the write with a {@link
+ * java.io.CharConversionException}.
+ */
+public class CipherWriter extends FilterWriter {
+
+	private final StreamCipher cipher;
+	private final char[] buffer = new char[StreamCipher.BUFFER_SIZE + 1];
+
+	/**
+	 * Creates a writer around the given stream state.
+	 * 
+	 * @param out    The writer receiving the result.
+	 * @param cipher The cipher state.
+	 */
+	private CipherWriter(Writer out, StreamCipher cipher) {
+		super(out);
+		this.cipher = cipher;
+	}
+
+	/**
+	 * Creates a writer that Caesar-encrypts its input.
+	 * 
+	 * @param out The writer receiving the ciphertext.
+	 * @param key The integer shift value.
+	 * 
+	 * @return The encrypting writer.
+	 */
+	public static CipherWriter caesarEncryption(Writer out, int key) {
+		return new CipherWriter(out, new StreamCipher(CaesarKey.of(key).encryptSchedule()));
+	}
+
+	/**
+	 * Creates a writer that Caesar-decrypts its input.
+	 * 
+	 * @param out The writer receiving the plaintext.
+	 * @param key The integer shift value.
+	 * 
+	 * @return The decrypting writer.
+	 */
+	public static CipherWriter caesarDecryption(Writer out, int key) {
+		return new CipherWriter(out, new StreamCipher(CaesarKey.of(key).decryptSchedule()));
+	}
+
+	/**
+	 * Creates a writer that Caesar-encrypts its input with a precompiled key.
+	 * 
+	 * @param out The writer receiving the ciphertext.
+	 * @param key The compiled Caesar key.
+	 * 
+	 * @return The encrypting writer.
+	 */
+	public static CipherWriter caesarEncryption(Writer out, CaesarKey key) {
+		return new CipherWriter(out, new StreamCipher(key.encryptSchedule()));
+	}
+
+	/**
+	 * Creates a writer that Caesar-decrypts its input with a precompiled key.
+	 * 
+	 * @param out The writer receiving the plaintext.
+	 * @param key The compiled Caesar key.
+	 * 
+	 * @return The decrypting writer.
+	 */
+	public static CipherWriter caesarDecryption(Writer out, CaesarKey key) {
+		return new CipherWriter(out, new StreamCipher(key.decryptSchedule()));
+	}
+
+	/**
+	 * Creates a writer that Vigenere-encrypts its input.
+	 * 
+	 * @param out The writer receiving the ciphertext.
+	 * @param key The compiled Vigenere key.
+	 * 
+	 * @return The encrypting writer.
+	 */
+	public static CipherWriter vigenereEncryption(Writer out, VigenereKey key) {
+		return new CipherWriter(out, new StreamCipher(key.encryptSchedule()));
+	}
+
+	/**
+	 * Creates a writer that Vigenere-decrypts its input.
+	 * 
+	 * @param out The writer receiving the plaintext.
+	 * @param key The compiled Vigenere key.
+	 * 
+	 * @return The decrypting writer.
+	 */
+	public static CipherWriter vigenereDecryption(Writer out, VigenereKey key) {
+		return new CipherWriter(out, new StreamCipher(key.decryptSchedule()));
+	}
+
+	/**
+	 * Creates a writer that Playfair-encrypts its input.
+	 * 
+	 * @param out The writer receiving the ciphertext.
+	 * @param key The compiled Playfair key.
+	 * 
+	 * @return The encrypting writer.
+	 */
+	public static CipherWriter playfairEncryption(Writer out, PlayfairKey key) {
+		return new CipherWriter(out, new StreamCipher(key, true));
+	}
+
+	/**
+	 * Creates a writer that Playfair-decrypts its input.
+	 * 
+	 * @param out The writer receiving the plaintext.
+	 * @param key The compiled Playfair key.
+	 * 
+	 * @return The decrypting writer.
+	 */
+	public static CipherWriter playfairDecryption(Writer out, PlayfairKey key) {
+		return new CipherWriter(out, new StreamCipher(key, false));
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		buffer[0] = (char) c;
+		int written = cipher.update(buffer, 0, 1, buffer, 0);
+		out.write(buffer, 0, written);
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		while (len > 0) {
+			int chunk = Math.min(len, StreamCipher.BUFFER_SIZE);
+			int written = cipher.update(cbuf, off, chunk, buffer, 0);
+			out.write(buffer, 0, written);
+			off += chunk;
+			len -= chunk;
+		}
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		while (len > 0) {
+			int chunk = Math.min(len, StreamCipher.BUFFER_SIZE);
+			str.getChars(off, off + chunk, buffer, 0);
+			int written = cipher.update(buffer, 0, chunk, buffer, 0);
+			out.write(buffer, 0, written);
+			off += chunk;
+			len -= chunk;
+		}
+	}
+
+	/**
+	 * Writes the final padded Playfair pair, if any, then closes the underlying
+	 * writer.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			int written = cipher.finish(buffer, 0);
+			out.write(buffer, 0, written);
+		} finally {
+			super.close();
+		}
+	}
+}
@@ -0,0 +1,257 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Encrypts or decrypts many records that share one key, in parallel.
+ * 
+ * The key is compiled once per call and shared by every worker. Records are
+ * split across a work-stealing pool with a configurable parallelism level, and
+ * the results come back in the same order as the input. Each record gets its
+ * own {@link CipherResult}, so one bad record does not fail the batch and no
+ * caller has to compare against an error string.
+ */
+public class CryptoBatch implements AutoCloseable {
+
+	// Leaves are sized so each worker gets several pieces to steal from
+	private static final int PIECES_PER_WORKER = 8;
+
+	private final ForkJoinPool pool;
+
+	/**
+	 * Creates a batch processor using every available core.
+	 */
+	public CryptoBatch() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a batch processor.
+	 * 
+	 * @param parallelism The number of worker threads.
+	 */
+	public CryptoBatch(int parallelism) {
+		this.pool = new ForkJoinPool(parallelism);
+	}
+
+	/**
+	 * Returns the number of worker threads.
+	 * 
+	 * @return The parallelism level.
+	 */
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	/**
+	 * Encrypts records using the Caesar cipher.
+	 * 
+	 * @param texts The strings to be encrypted.
+	 * @param key   The integer shift value.
+	 * 
+	 * @return One result per record, in input order.
+	 */
+	public List<CipherResult> caesarEncryption(List<String> texts, int key) {
+		CaesarKey compiled = new CaesarKey(key);
+		return run(texts, false, (src, length, dst) -> CryptoManager.caesarEncryption(src, 0, length, dst, 0,
+				compiled));
+	}
+
+	/**
+	 * Decrypts records using the Caesar cipher.
+	 * 
+	 * @param texts The strings to be decrypted.
+	 * @param key   The integer shift value.
+	 * 
+	 * @return One result per record, in input order.
+	 */
+	public List<CipherResult> caesarDecryption(List<String> texts, int key) {
+		CaesarKey compiled = new CaesarKey(key);
+		return run(texts, false, (src, length, dst) -> CryptoManager.caesarDecryption(src, 0, length, dst, 0,
+				compiled));
+	}
+
+	/**
+	 * Encrypts records using the Vigenere cipher.
+	 * 
+	 * @param texts The strings to be encrypted.
+	 * @param key   The keyword used for the cipher.
+	 * 
+	 * @return One result per record, in input order.
+	 * 
+	 * @throws IllegalArgumentException if the key is empty or out of bounds.
+	 */
+	public List<CipherResult> vigenereEncryption(List<String> texts, String key) {
+		VigenereKey compiled = new VigenereKey(key);
+		return run(texts, false, (src, length, dst) -> CryptoManager.vigenereEncryption(src, 0, length, dst, 0,
+				compiled));
+	}
+
+	/**
+	 * Decrypts records using the Vigenere cipher.
+	 * 
+	 * @param texts The strings to be decrypted.
+	 * @param key   The keyword used for the cipher.
+	 * 
+	 * @return One result per record, in input order.
+	 * 
+	 * @throws IllegalArgumentException if the key is empty or out of bounds.
+	 */
+	public List<CipherResult> vigenereDecryption(List<String> texts, String key) {
+		VigenereKey compiled = new VigenereKey(key);
+		return run(texts, false, (src, length, dst) -> CryptoManager.vigenereDecryption(src, 0, length, dst, 0,
+				compiled));
+	}
+
+	/**
+	 * Re-encrypts Caesar or Vigenere records under a new key, one pass per record.
+	 * 
+	 * @param texts    The strings encrypted with the old key.
+	 * @param rotation The compiled change of key.
+	 * 
+	 * @return One result per record, in input order.
+	 */
+	public List<CipherResult> rekey(List<String> texts, KeyRotation rotation) {
+		return run(texts, false, (src, length, dst) -> CryptoManager.rekey(src, 0, length, dst, 0, rotation));
+	}
+
+	/**
+	 * Encrypts records using the Playfair cipher. Odd-length records are padded
+	 * with a space.
+	 * 
+	 * @param texts The strings to be encrypted.
+	 * @param key   The keyword used to construct the Playfair matrix.
+	 * 
+	 * @return One result per record, in input order.
+	 */
+	public List<CipherResult> playfairEncryption(List<String> texts, String key) {
+		PlayfairKey compiled = new PlayfairKey(key);
+		return run(texts, false, (src, length, dst) -> CryptoManager.playfairEncryption(src, 0, length, dst, 0,
+				compiled));
+	}
+
+	/**
+	 * Decrypts records using the Playfair cipher.
+	 * 
+	 * @param texts The strings to be decrypted.
+	 * @param key   The keyword used to construct the Playfair matrix.
+	 * 
+	 * @return One result per record, in input order.
+	 */
+	public List<CipherResult> playfairDecryption(List<String> texts, String key) {
+		PlayfairKey compiled = new PlayfairKey(key);
+		return run(texts, true, (src, length, dst) -> CryptoManager.playfairDecryption(src, 0, length, dst, 0,
+				compiled));
+	}
+
+	/**
+	 * Shuts down the worker threads.
+	 */
+	@Override
+	public void close() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Runs one operation over every record on the pool.
+	 * 
+	 * @param texts      The records.
+	 * @param wholePairs true if the input must be of even length (Playfair
+	 *                   decryption).
+	 * @param operation  The per-record transform.
+	 * 
+	 * @return One result per record, in input order.
+	 */
+	private List<CipherResult> run(List<String> texts, boolean wholePairs, Operation operation) {
+		String[] input = texts.toArray(new String[0]);
+		CipherResult[] results = new CipherResult[input.length];
+		int leafSize = Math.max(1, input.length / (pool.getParallelism() * PIECES_PER_WORKER));
+
+		pool.invoke(new BatchTask(input, results, 0, input.length, leafSize, wholePairs, operation));
+		return Arrays.asList(results);
+	}
+
+	/**
+	 * Transforms one record.
+	 * 
+	 * @param text       The record.
+	 * @param wholePairs true if the input must be of even length.
+	 * @param operation  The transform.
+	 * 
+	 * @return The result for that record.
+	 */
+	private static CipherResult apply(String text, boolean wholePairs, Operation operation) {
+		char[] src = text.toCharArray();
+		// Room for the Playfair padding character
+		char[] dst = new char[src.length + 1];
+
+		if (wholePairs && (src.length & 1) != 0) {
+			return CipherResult.oddLength(src.length);
+		}
+		int written = operation.apply(src, src.length, dst);
+		if (written >= 0) {
+			return CipherResult.success(new String(dst, 0, written));
+		}
+		// The transform stopped at the first bad character and reported its offset
+		return CipherResult.outOfBounds(-written - 1);
+	}
+
+	/**
+	 * A cipher applied to one record held in a char array.
+	 */
+	@FunctionalInterface
+	private interface Operation {
+
+		/**
+		 * Transforms the record.
+		 * 
+		 * @param src    The record.
+		 * @param length The record length.
+		 * @param dst    The array receiving the result (length + 1 long).
+		 * 
+		 * @return The number of characters written, or -(offset + 1) for the first
+		 *         out-of-bounds character.
+		 */
+		int apply(char[] src, int length, char[] dst);
+	}
+
+	/**
+	 * Splits a range of records until it is small enough to run directly.
+	 */
+	private static class BatchTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String[] input;
+		private final CipherResult[] results;
+		private final int from, to, leafSize;
+		private final boolean wholePairs;
+		private final Operation operation;
+
+		BatchTask(String[] input, CipherResult[] results, int from, int to, int leafSize, boolean wholePairs,
+				Operation operation) {
+			this.input = input;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+			this.leafSize = leafSize;
+			this.wholePairs = wholePairs;
+			this.operation = operation;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= leafSize) {
+				// Each record writes its own slot, so the output keeps input order
+				for (int i = from; i < to; i++) {
+					results[i] = apply(input[i], wholePairs, operation);
+				}
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new BatchTask(input, results, from, middle, leafSize, wholePairs, operation),
+					new BatchTask(input, results, middle, to, leafSize, wholePairs, operation));
+		}
+	}
+}
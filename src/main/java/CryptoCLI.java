@@ -0,0 +1,251 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Command-line driver for encrypting or decrypting files without a display.
+ * 
+ * <pre>
+ * java CryptoCLI encrypt|decrypt caesar|vigenere|playfair KEY INPUT OUTPUT [--threads N]
+ * </pre>
+ * 
+ * INPUT is a file or a directory. A directory is processed recursively into
+ * OUTPUT with the same relative paths, several files at a time; each file goes
+ * through {@link MappedFileCipher}, so large files are also split across cores.
+ * When every file is done the driver prints the throughput. Nothing here uses
+ * JavaFX, so it runs without it on the classpath.
+ */
+public final class CryptoCLI {
+
+	private static final String USAGE = "Usage: java CryptoCLI encrypt|decrypt caesar|vigenere|playfair KEY INPUT OUTPUT"
+			+ " [--threads N]";
+
+	private CryptoCLI() {
+	}
+
+	/**
+	 * Runs the driver and exits with its status.
+	 * 
+	 * @param args The command-line arguments.
+	 */
+	public static void main(String[] args) {
+		System.exit(run(args, System.out, System.err));
+	}
+
+	/**
+	 * Runs the driver.
+	 * 
+	 * @param args The command-line arguments.
+	 * @param out  Where the statistics are printed.
+	 * @param err  Where usage and per-file errors are printed.
+	 * 
+	 * @return The exit status: 0 on success, 1 if any file failed, 2 for bad
+	 *         arguments.
+	 */
+	static int run(String[] args, PrintStream out, PrintStream err) {
+		FileOperation operation;
+		Path input, output;
+		int threads = Runtime.getRuntime().availableProcessors();
+
+		try {
+			if (args.length != 5 && !(args.length == 7 && args[5].equals("--threads"))) {
+				throw new IllegalArgumentException(USAGE);
+			}
+			operation = operation(args[0], args[1], args[2]);
+			input = Paths.get(args[3]);
+			output = Paths.get(args[4]);
+			if (args.length == 7) {
+				threads = Integer.parseInt(args[6]);
+				if (threads <= 0) {
+					throw new IllegalArgumentException("The thread count must be positive: " + threads);
+				}
+			}
+		} catch (IllegalArgumentException e) {
+			err.println(e.getMessage());
+			return 2;
+		}
+
+		List<Path[]> jobs;
+		try {
+			if (overlaps(input, output)) {
+				err.println("The output must not be the input or lie inside it: " + output);
+				return 2;
+			}
+			jobs = jobs(input, output);
+		} catch (IOException e) {
+			err.println(input + ": " + e.getMessage());
+			return 1;
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		long start = System.nanoTime();
+		long bytes = 0;
+		int failed = 0;
+		try {
+			List<Future<Long>> results = new ArrayList<>();
+			for (Path[] job : jobs) {
+				results.add(executor.submit(() -> process(operation, job[0], job[1])));
+			}
+			for (int i = 0; i < results.size(); i++) {
+				try {
+					bytes += results.get(i).get();
+				} catch (ExecutionException e) {
+					err.println(jobs.get(i)[0] + ": " + e.getCause().getMessage());
+					failed++;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return 1;
+		} finally {
+			executor.shutdownNow();
+		}
+
+		double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+		int files = jobs.size() - failed;
+		out.printf("%d files, %d bytes in %.3f s: %.1f MB/s, %.1f files/s (%d threads)%n", files, bytes, seconds,
+				bytes / seconds / (1 << 20), files / seconds, threads);
+		if (failed > 0) {
+			out.printf("%d files failed%n", failed);
+			return 1;
+		}
+		return 0;
+	}
+
+	/**
+	 * Compiles the key and picks the file method for a mode and cipher.
+	 * 
+	 * @param mode   "encrypt" or "decrypt".
+	 * @param cipher "caesar", "vigenere" or "playfair".
+	 * @param key    The shift value or keyword.
+	 * 
+	 * @return The file operation.
+	 * 
+	 * @throws IllegalArgumentException for an unknown mode or cipher, or a bad
+	 *                                  key.
+	 */
+	private static FileOperation operation(String mode, String cipher, String key) {
+		boolean encrypt;
+		if (mode.equals("encrypt")) {
+			encrypt = true;
+		} else if (mode.equals("decrypt")) {
+			encrypt = false;
+		} else {
+			throw new IllegalArgumentException("Unknown mode: " + mode + "\n" + USAGE);
+		}
+
+		switch (cipher) {
+		case "caesar":
+			int shift = Integer.parseInt(key);
+			return encrypt ? (in, out) -> MappedFileCipher.caesarEncryption(in, out, shift)
+					: (in, out) -> MappedFileCipher.caesarDecryption(in, out, shift);
+		case "vigenere":
+			VigenereKey vigenere = new VigenereKey(key);
+			return encrypt ? (in, out) -> MappedFileCipher.vigenereEncryption(in, out, vigenere)
+					: (in, out) -> MappedFileCipher.vigenereDecryption(in, out, vigenere);
+		case "playfair":
+			PlayfairKey playfair = new PlayfairKey(key);
+			return encrypt ? (in, out) -> MappedFileCipher.playfairEncryption(in, out, playfair)
+					: (in, out) -> MappedFileCipher.playfairDecryption(in, out, playfair);
+		default:
+			throw new IllegalArgumentException("Unknown cipher: " + cipher + "\n" + USAGE);
+		}
+	}
+
+	/**
+	 * Checks whether writing the output would overwrite the input, or add files to
+	 * the directory being listed.
+	 * 
+	 * @param input  The input file or directory.
+	 * @param output The output file or directory, which need not exist yet.
+	 * 
+	 * @return true if the output is the input or inside it.
+	 * 
+	 * @throws IOException if the input does not exist.
+	 */
+	private static boolean overlaps(Path input, Path output) throws IOException {
+		Path realInput = input.toRealPath();
+		// Resolve the deepest part of the output that exists, so links are followed
+		Path existing = output.toAbsolutePath().normalize();
+		Path rest = existing.getFileSystem().getPath("");
+		while (!Files.exists(existing)) {
+			rest = existing.getFileName().resolve(rest);
+			existing = existing.getParent();
+		}
+		Path realOutput = existing.toRealPath().resolve(rest);
+		return realOutput.startsWith(realInput);
+	}
+
+	/**
+	 * Lists the input and output file of every job.
+	 * 
+	 * @param input  The input file or directory.
+	 * @param output The output file or directory.
+	 * 
+	 * @return One {input, output} pair per regular file.
+	 * 
+	 * @throws IOException if the input cannot be listed.
+	 */
+	private static List<Path[]> jobs(Path input, Path output) throws IOException {
+		if (!Files.isDirectory(input)) {
+			List<Path[]> single = new ArrayList<>();
+			single.add(new Path[] { input, output });
+			return single;
+		}
+		try (Stream<Path> files = Files.walk(input)) {
+			return files.filter(Files::isRegularFile)
+					.map(file -> new Path[] { file, output.resolve(input.relativize(file)) })
+					.collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * Processes one file, creating the output directory if needed.
+	 * 
+	 * @param operation The file operation.
+	 * @param input     The input file.
+	 * @param output    The output file.
+	 * 
+	 * @return The number of input bytes.
+	 * 
+	 * @throws IOException if the file cannot be processed.
+	 */
+	private static long process(FileOperation operation, Path input, Path output) throws IOException {
+		Path parent = output.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		operation.apply(input, output);
+		return Files.size(input);
+	}
+
+	/**
+	 * One of the MappedFileCipher methods with its key bound.
+	 */
+	@FunctionalInterface
+	private interface FileOperation {
+
+		/**
+		 * Transforms a file.
+		 * 
+		 * @param input  The file to read.
+		 * @param output The file to write.
+		 * 
+		 * @return The number of bytes written.
+		 * 
+		 * @throws IOException if a file cannot be read or written, or the input is
+		 *                     out of bounds.
+		 */
+		long apply(Path input, Path output) throws IOException;
+	}
+}
@@ -1,3 +1,9 @@
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.Objects;
+
 /**
  * This is a utility class that encrypts and decrypts a phrase using three
  * different approaches.
@@ -10,17 +16,68 @@
  * 
  * The third approach is Caesar Cipher. It is a simple replacement cypher.
  * 
+ * Every cipher is offered over Strings and, for high-volume callers, over
+ * char[] and CharBuffer ranges. The buffer overloads write into a
+ * caller-supplied destination and allocate nothing; the String methods are thin
+ * wrappers around them. Caesar and Vigenere can also work in place on raw ASCII
+ * bytes (byte[] or heap/direct ByteBuffer).
+ * 
+ * Methods that take a Playfair or Vigenere key as a String look the compiled
+ * key up in a bounded {@link KeyCache}, so a hot key is only compiled once.
+ * 
+ * With -Dcrypto.metrics=true every char and byte transform is counted and timed
+ * in {@link CryptoMetrics}; otherwise the instrumentation compiles away.
+ * 
  * @author Huseyin Aygun
  * @version 8/3/2025
  */
 
 public class CryptoManager {
 
-	private static final char LOWER_RANGE = ' ';
-	private static final char UPPER_RANGE = '_';
-	private static final int RANGE = UPPER_RANGE - LOWER_RANGE + 1;
+	static final char LOWER_RANGE = ' ';
+	static final char UPPER_RANGE = '_';
+	static final int RANGE = UPPER_RANGE - LOWER_RANGE + 1;
 	// Use 64-character matrix (8X8) for Playfair cipher
 	private static final String ALPHABET64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 !\"#$%&'()*+,-./:;<=>?@[\\]^_\n";
+	static final String NOT_IN_BOUNDS = "The selected string is not in bounds, Try again.";
+
+	// Compiled keys for the String-key methods, so a repeated key is set up once
+	private static final KeyCache<PlayfairKey> PLAYFAIR_KEYS = new KeyCache<>(PlayfairKey::new,
+			KeyCache.DEFAULT_MAXIMUM_SIZE);
+	private static final KeyCache<VigenereKey> VIGENERE_KEYS = new KeyCache<>(VigenereKey::new,
+			KeyCache.DEFAULT_MAXIMUM_SIZE);
+
+	/**
+	 * What the {@link CipherResult} methods do when the input or key cannot be
+	 * used. Either way the input is checked in the same pass as the transform,
+	 * which stops at the first bad character.
+	 */
+	public enum Validation {
+		/** Return a failed result carrying the status and offset. */
+		REPORT,
+		/** Throw a {@link CipherException} carrying the status and offset. */
+		FAIL_FAST
+	}
+
+	/**
+	 * Returns the cache of compiled Playfair keys used by the String-key Playfair
+	 * methods, for its counters and maximum size.
+	 * 
+	 * @return The Playfair key cache.
+	 */
+	public static KeyCache<PlayfairKey> playfairKeyCache() {
+		return PLAYFAIR_KEYS;
+	}
+
+	/**
+	 * Returns the cache of compiled Vigenere keys used by the String-key Vigenere
+	 * methods, for its counters and maximum size.
+	 * 
+	 * @return The Vigenere key cache.
+	 */
+	public static KeyCache<VigenereKey> vigenereKeyCache() {
+		return VIGENERE_KEYS;
+	}
 
 	/**
 	 * Checks if the string is within the allowable bounds of the cipher system.
@@ -30,8 +87,12 @@ public class CryptoManager {
 	 * @return true if all characters are within the bounds, false otherwise.
 	 */
 	public static boolean isStringInBounds(String plainText) {
+		// A String has no word-wide view of its characters, so the eight-byte check
+		// of SwarShift would first need a copy or a packing step, each slower than
+		// this loop, which compiles to one unsigned compare per character
 		for (int i = 0; i < plainText.length(); i++) {
-			if (!(plainText.charAt(i) >= LOWER_RANGE && plainText.charAt(i) <= UPPER_RANGE)) {
+			char c = plainText.charAt(i);
+			if (c < LOWER_RANGE || c > UPPER_RANGE) {
 				return false;
 			}
 		}
@@ -48,25 +109,183 @@ public class CryptoManager {
 	 *         bounds.
 	 */
 	public static String caesarEncryption(String plainText, int key) {
-		if (!isStringInBounds(plainText)) {
-			return "The selected string is not in bounds, Try again.";
-		}
+		return shift(plainText, CaesarKey.of(key).encryptSchedule());
+	}
+
+	/**
+	 * Encrypts a string using the Caesar cipher with a precompiled key.
+	 * 
+	 * @param plainText The string to be encrypted.
+	 * @param key       The compiled Caesar key.
+	 * 
+	 * @return The encrypted string, or an error message if the string is out of
+	 *         bounds.
+	 */
+	public static String caesarEncryption(String plainText, CaesarKey key) {
+		return shift(plainText, key.encryptSchedule());
+	}
+
+	/**
+	 * Encrypts a string using the Caesar cipher.
+	 * 
+	 * Unlike the String overload, a failure is reported apart from the text, so it
+	 * can never be taken for ciphertext.
+	 * 
+	 * @param plainText  The string to be encrypted.
+	 * @param key        The integer shift value.
+	 * @param validation Whether a failure is returned or thrown.
+	 * 
+	 * @return The encrypted string, or a failed result with the offset of the first
+	 *         out-of-bounds character.
+	 * 
+	 * @throws CipherException on failure, in {@link Validation#FAIL_FAST} mode.
+	 */
+	public static CipherResult caesarEncryption(String plainText, int key, Validation validation) {
+		char[] text = plainText.toCharArray();
+		return result(text, shift(text, 0, text.length, text, 0, CaesarKey.of(key).encryptSchedule()), validation);
+	}
 
-		StringBuilder encryptedText = new StringBuilder();
+	/**
+	 * Encrypts a range of characters using the Caesar cipher.
+	 * 
+	 * The source and destination may be the same array to encrypt in place.
+	 * 
+	 * @param src       The characters to be encrypted.
+	 * @param srcOffset The index of the first character to encrypt.
+	 * @param length    The number of characters to encrypt.
+	 * @param dst       The array receiving the encrypted characters.
+	 * @param dstOffset The index in dst where the first encrypted character goes.
+	 * @param key       The integer shift value.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character. On failure dst holds the output up to that
+	 *         character.
+	 */
+	public static int caesarEncryption(char[] src, int srcOffset, int length, char[] dst, int dstOffset, int key) {
+		return shift(src, srcOffset, length, dst, dstOffset, CaesarKey.of(key).encryptSchedule());
+	}
 
-		// Ensure the key is positive and within RANGE
-		int normalizedKey = key % RANGE;
+	/**
+	 * Encrypts a range of characters using the Caesar cipher with a precompiled
+	 * key.
+	 * 
+	 * @param src       The characters to be encrypted.
+	 * @param srcOffset The index of the first character to encrypt.
+	 * @param length    The number of characters to encrypt.
+	 * @param dst       The array receiving the encrypted characters.
+	 * @param dstOffset The index in dst where the first encrypted character goes.
+	 * @param key       The compiled Caesar key.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character. On failure dst holds the output up to that
+	 *         character.
+	 */
+	public static int caesarEncryption(char[] src, int srcOffset, int length, char[] dst, int dstOffset,
+			CaesarKey key) {
+		return shift(src, srcOffset, length, dst, dstOffset, key.encryptSchedule());
+	}
 
-		for (int i = 0; i < plainText.length(); i++) {
-			char plainChar = plainText.charAt(i);
+	/**
+	 * Encrypts the remaining characters of a buffer using the Caesar cipher.
+	 * 
+	 * On success the positions of both buffers are advanced past the characters
+	 * read and written.
+	 * 
+	 * @param src The characters to be encrypted, from position to limit.
+	 * @param dst The buffer receiving the encrypted characters.
+	 * @param key The integer shift value.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character counted from the source position. On failure
+	 *         neither position moves and dst may hold part of the output.
+	 */
+	public static int caesarEncryption(CharBuffer src, CharBuffer dst, int key) {
+		return shift(src, dst, CaesarKey.of(key).encryptSchedule());
+	}
 
-			// Use the helper method for encryption (positive shift)
-			char encryptedChar = shiftCharacter(plainChar, normalizedKey);
+	/**
+	 * Encrypts the remaining characters of a buffer using the Caesar cipher with a
+	 * precompiled key.
+	 * 
+	 * @param src The characters to be encrypted, from position to limit.
+	 * @param dst The buffer receiving the encrypted characters.
+	 * @param key The compiled Caesar key.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character counted from the source position. On failure
+	 *         neither position moves and dst may hold part of the output.
+	 */
+	public static int caesarEncryption(CharBuffer src, CharBuffer dst, CaesarKey key) {
+		return shift(src, dst, key.encryptSchedule());
+	}
 
-			encryptedText.append(encryptedChar);
-		}
+	/**
+	 * Encrypts a range of ASCII bytes using the Caesar cipher, in place.
+	 * 
+	 * The allowed characters are all ASCII, so raw payloads can be encrypted
+	 * without decoding them to a String first.
+	 * 
+	 * @param text   The ASCII bytes to be encrypted.
+	 * @param offset The index of the first byte to encrypt.
+	 * @param length The number of bytes to encrypt.
+	 * @param key    The integer shift value.
+	 * 
+	 * @return The number of bytes encrypted, or -(offset + 1) for the first
+	 *         out-of-bounds byte counted from offset. On failure the bytes before
+	 *         it are already encrypted.
+	 */
+	public static int caesarEncryption(byte[] text, int offset, int length, int key) {
+		return shift(text, offset, length, CaesarKey.of(key).encryptSchedule());
+	}
+
+	/**
+	 * Encrypts a range of ASCII bytes using the Caesar cipher, in place, with a
+	 * precompiled key.
+	 * 
+	 * @param text   The ASCII bytes to be encrypted.
+	 * @param offset The index of the first byte to encrypt.
+	 * @param length The number of bytes to encrypt.
+	 * @param key    The compiled Caesar key.
+	 * 
+	 * @return The number of bytes encrypted, or -(offset + 1) for the first
+	 *         out-of-bounds byte counted from offset. On failure the bytes before
+	 *         it are already encrypted.
+	 */
+	public static int caesarEncryption(byte[] text, int offset, int length, CaesarKey key) {
+		return shift(text, offset, length, key.encryptSchedule());
+	}
+
+	/**
+	 * Encrypts the remaining ASCII bytes of a buffer using the Caesar cipher, in
+	 * place.
+	 * 
+	 * Heap and direct buffers are both supported; on success the position is
+	 * advanced to the limit.
+	 * 
+	 * @param text The ASCII bytes to be encrypted, from position to limit.
+	 * @param key  The integer shift value.
+	 * 
+	 * @return The number of bytes encrypted, or -(offset + 1) for the first
+	 *         out-of-bounds byte counted from the position. On failure the position
+	 *         does not move and the bytes before it are already encrypted.
+	 */
+	public static int caesarEncryption(ByteBuffer text, int key) {
+		return shift(text, CaesarKey.of(key).encryptSchedule());
+	}
 
-		return encryptedText.toString();
+	/**
+	 * Encrypts the remaining ASCII bytes of a buffer using the Caesar cipher, in
+	 * place, with a precompiled key.
+	 * 
+	 * @param text The ASCII bytes to be encrypted, from position to limit.
+	 * @param key  The compiled Caesar key.
+	 * 
+	 * @return The number of bytes encrypted, or -(offset + 1) for the first
+	 *         out-of-bounds byte counted from the position. On failure the position
+	 *         does not move and the bytes before it are already encrypted.
+	 */
+	public static int caesarEncryption(ByteBuffer text, CaesarKey key) {
+		return shift(text, key.encryptSchedule());
 	}
 
 	/**
@@ -79,25 +298,174 @@ public class CryptoManager {
 	 *         bounds.
 	 */
 	public static String caesarDecryption(String encryptedText, int key) {
-		if (!isStringInBounds(encryptedText)) {
-			return "The selected string is not in bounds, Try again.";
-		}
+		return shift(encryptedText, CaesarKey.of(key).decryptSchedule());
+	}
 
-		StringBuilder decryptedText = new StringBuilder();
+	/**
+	 * Decrypts a string using the Caesar cipher with a precompiled key.
+	 * 
+	 * @param encryptedText The string to be decrypted.
+	 * @param key           The compiled Caesar key.
+	 * 
+	 * @return The decrypted string, or an error message if the string is out of
+	 *         bounds.
+	 */
+	public static String caesarDecryption(String encryptedText, CaesarKey key) {
+		return shift(encryptedText, key.decryptSchedule());
+	}
 
-		// Ensure the key is positive and within RANGE
-		int normalizedKey = key % RANGE;
+	/**
+	 * Decrypts a string using the Caesar cipher.
+	 * 
+	 * Unlike the String overload, a failure is reported apart from the text, so it
+	 * can never be taken for plaintext.
+	 * 
+	 * @param encryptedText The string to be decrypted.
+	 * @param key           The integer shift value.
+	 * @param validation    Whether a failure is returned or thrown.
+	 * 
+	 * @return The decrypted string, or a failed result with the offset of the first
+	 *         out-of-bounds character.
+	 * 
+	 * @throws CipherException on failure, in {@link Validation#FAIL_FAST} mode.
+	 */
+	public static CipherResult caesarDecryption(String encryptedText, int key, Validation validation) {
+		char[] text = encryptedText.toCharArray();
+		return result(text, shift(text, 0, text.length, text, 0, CaesarKey.of(key).decryptSchedule()), validation);
+	}
 
-		for (int i = 0; i < encryptedText.length(); i++) {
-			char encryptedChar = encryptedText.charAt(i);
+	/**
+	 * Decrypts a range of characters using the Caesar cipher.
+	 * 
+	 * The source and destination may be the same array to decrypt in place.
+	 * 
+	 * @param src       The characters to be decrypted.
+	 * @param srcOffset The index of the first character to decrypt.
+	 * @param length    The number of characters to decrypt.
+	 * @param dst       The array receiving the decrypted characters.
+	 * @param dstOffset The index in dst where the first decrypted character goes.
+	 * @param key       The integer shift value.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character. On failure dst holds the output up to that
+	 *         character.
+	 */
+	public static int caesarDecryption(char[] src, int srcOffset, int length, char[] dst, int dstOffset, int key) {
+		return shift(src, srcOffset, length, dst, dstOffset, CaesarKey.of(key).decryptSchedule());
+	}
 
-			// Use the helper method for decryption (negative shift)
-			char decryptedChar = shiftCharacter(encryptedChar, -normalizedKey);
+	/**
+	 * Decrypts a range of characters using the Caesar cipher with a precompiled
+	 * key.
+	 * 
+	 * @param src       The characters to be decrypted.
+	 * @param srcOffset The index of the first character to decrypt.
+	 * @param length    The number of characters to decrypt.
+	 * @param dst       The array receiving the decrypted characters.
+	 * @param dstOffset The index in dst where the first decrypted character goes.
+	 * @param key       The compiled Caesar key.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character. On failure dst holds the output up to that
+	 *         character.
+	 */
+	public static int caesarDecryption(char[] src, int srcOffset, int length, char[] dst, int dstOffset,
+			CaesarKey key) {
+		return shift(src, srcOffset, length, dst, dstOffset, key.decryptSchedule());
+	}
 
-			decryptedText.append(decryptedChar);
-		}
+	/**
+	 * Decrypts the remaining characters of a buffer using the Caesar cipher.
+	 * 
+	 * @param src The characters to be decrypted, from position to limit.
+	 * @param dst The buffer receiving the decrypted characters.
+	 * @param key The integer shift value.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character counted from the source position. On failure
+	 *         neither position moves and dst may hold part of the output.
+	 */
+	public static int caesarDecryption(CharBuffer src, CharBuffer dst, int key) {
+		return shift(src, dst, CaesarKey.of(key).decryptSchedule());
+	}
 
-		return decryptedText.toString();
+	/**
+	 * Decrypts the remaining characters of a buffer using the Caesar cipher with a
+	 * precompiled key.
+	 * 
+	 * @param src The characters to be decrypted, from position to limit.
+	 * @param dst The buffer receiving the decrypted characters.
+	 * @param key The compiled Caesar key.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character counted from the source position. On failure
+	 *         neither position moves and dst may hold part of the output.
+	 */
+	public static int caesarDecryption(CharBuffer src, CharBuffer dst, CaesarKey key) {
+		return shift(src, dst, key.decryptSchedule());
+	}
+
+	/**
+	 * Decrypts a range of ASCII bytes using the Caesar cipher, in place.
+	 * 
+	 * @param text   The ASCII bytes to be decrypted.
+	 * @param offset The index of the first byte to decrypt.
+	 * @param length The number of bytes to decrypt.
+	 * @param key    The integer shift value.
+	 * 
+	 * @return The number of bytes decrypted, or -(offset + 1) for the first
+	 *         out-of-bounds byte counted from offset. On failure the bytes before
+	 *         it are already decrypted.
+	 */
+	public static int caesarDecryption(byte[] text, int offset, int length, int key) {
+		return shift(text, offset, length, CaesarKey.of(key).decryptSchedule());
+	}
+
+	/**
+	 * Decrypts a range of ASCII bytes using the Caesar cipher, in place, with a
+	 * precompiled key.
+	 * 
+	 * @param text   The ASCII bytes to be decrypted.
+	 * @param offset The index of the first byte to decrypt.
+	 * @param length The number of bytes to decrypt.
+	 * @param key    The compiled Caesar key.
+	 * 
+	 * @return The number of bytes decrypted, or -(offset + 1) for the first
+	 *         out-of-bounds byte counted from offset. On failure the bytes before
+	 *         it are already decrypted.
+	 */
+	public static int caesarDecryption(byte[] text, int offset, int length, CaesarKey key) {
+		return shift(text, offset, length, key.decryptSchedule());
+	}
+
+	/**
+	 * Decrypts the remaining ASCII bytes of a buffer using the Caesar cipher, in
+	 * place.
+	 * 
+	 * @param text The ASCII bytes to be decrypted, from position to limit.
+	 * @param key  The integer shift value.
+	 * 
+	 * @return The number of bytes decrypted, or -(offset + 1) for the first
+	 *         out-of-bounds byte counted from the position. On failure the position
+	 *         does not move and the bytes before it are already decrypted.
+	 */
+	public static int caesarDecryption(ByteBuffer text, int key) {
+		return shift(text, CaesarKey.of(key).decryptSchedule());
+	}
+
+	/**
+	 * Decrypts the remaining ASCII bytes of a buffer using the Caesar cipher, in
+	 * place, with a precompiled key.
+	 * 
+	 * @param text The ASCII bytes to be decrypted, from position to limit.
+	 * @param key  The compiled Caesar key.
+	 * 
+	 * @return The number of bytes decrypted, or -(offset + 1) for the first
+	 *         out-of-bounds byte counted from the position. On failure the position
+	 *         does not move and the bytes before it are already decrypted.
+	 */
+	public static int caesarDecryption(ByteBuffer text, CaesarKey key) {
+		return shift(text, key.decryptSchedule());
 	}
 
 	/**
@@ -110,27 +478,179 @@ public class CryptoManager {
 	 *         bounds.
 	 */
 	public static String vigenereEncryption(String plainText, String key) {
-		if (!isStringInBounds(plainText) || !isStringInBounds(key) || key.length() == 0) {
-			return "The selected string is not in bounds, Try again.";
+		return shift(plainText, vigenereSchedule(key, true));
+	}
+
+	/**
+	 * Vigenere Encryption of a string with a precompiled key.
+	 * 
+	 * @param plainText The string to be encrypted.
+	 * @param key       The compiled Vigenere key.
+	 * 
+	 * @return The encrypted string, or an error message if the string is out of
+	 *         bounds.
+	 */
+	public static String vigenereEncryption(String plainText, VigenereKey key) {
+		return shift(plainText, key.encryptSchedule());
+	}
+
+	/**
+	 * Vigenere Encryption of a string.
+	 * 
+	 * Unlike the String overload, a failure is reported apart from the text, so it
+	 * can never be taken for ciphertext.
+	 * 
+	 * @param plainText  The string to be encrypted.
+	 * @param key        The keyword used for the cipher.
+	 * @param validation Whether a failure is returned or thrown.
+	 * 
+	 * @return The encrypted string, or a failed result with the offset of the first
+	 *         out-of-bounds character (none for an invalid key).
+	 * 
+	 * @throws CipherException on failure, in {@link Validation#FAIL_FAST} mode.
+	 */
+	public static CipherResult vigenereEncryption(String plainText, String key, Validation validation) {
+		ShiftSchedule schedule = vigenereSchedule(key, true);
+		if (schedule == null) {
+			return check(CipherResult.invalidKey(), validation);
 		}
+		char[] text = plainText.toCharArray();
+		return result(text, shift(text, 0, text.length, text, 0, schedule), validation);
+	}
 
-		StringBuilder encryptedText = new StringBuilder();
-		int keyLength = key.length();
+	/**
+	 * Vigenere Encryption of a range of characters.
+	 * 
+	 * The key is applied from its first character at srcOffset. The source and
+	 * destination may be the same array to encrypt in place.
+	 * 
+	 * @param src       The characters to be encrypted.
+	 * @param srcOffset The index of the first character to encrypt.
+	 * @param length    The number of characters to encrypt.
+	 * @param dst       The array receiving the encrypted characters.
+	 * @param dstOffset The index in dst where the first encrypted character goes.
+	 * @param key       The keyword used for the cipher.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character (-1 for an invalid key). On failure dst holds
+	 *         the output up to that character.
+	 */
+	public static int vigenereEncryption(char[] src, int srcOffset, int length, char[] dst, int dstOffset, String key) {
+		return shift(src, srcOffset, length, dst, dstOffset, vigenereSchedule(key, true));
+	}
 
-		for (int i = 0; i < plainText.length(); i++) {
-			char plainChar = plainText.charAt(i);
-			char keyChar = key.charAt(i % keyLength);
+	/**
+	 * Vigenere Encryption of a range of characters with a precompiled key.
+	 * 
+	 * @param src       The characters to be encrypted.
+	 * @param srcOffset The index of the first character to encrypt.
+	 * @param length    The number of characters to encrypt.
+	 * @param dst       The array receiving the encrypted characters.
+	 * @param dstOffset The index in dst where the first encrypted character goes.
+	 * @param key       The compiled Vigenere key.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character. On failure dst holds the output up to that
+	 *         character.
+	 */
+	public static int vigenereEncryption(char[] src, int srcOffset, int length, char[] dst, int dstOffset,
+			VigenereKey key) {
+		return shift(src, srcOffset, length, dst, dstOffset, key.encryptSchedule());
+	}
 
-			// Calculate the shift value from the key character (0-based)
-			int keyShift = keyChar - LOWER_RANGE;
+	/**
+	 * Vigenere Encryption of the remaining characters of a buffer.
+	 * 
+	 * @param src The characters to be encrypted, from position to limit.
+	 * @param dst The buffer receiving the encrypted characters.
+	 * @param key The keyword used for the cipher.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character counted from the source position (-1 for an
+	 *         invalid key). On failure neither position moves and dst may hold part
+	 *         of the output.
+	 */
+	public static int vigenereEncryption(CharBuffer src, CharBuffer dst, String key) {
+		return shift(src, dst, vigenereSchedule(key, true));
+	}
 
-			// Encrypt using the shift character helper
-			char encryptedChar = shiftCharacter(plainChar, keyShift);
+	/**
+	 * Vigenere Encryption of the remaining characters of a buffer with a
+	 * precompiled key.
+	 * 
+	 * @param src The characters to be encrypted, from position to limit.
+	 * @param dst The buffer receiving the encrypted characters.
+	 * @param key The compiled Vigenere key.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character counted from the source position. On failure
+	 *         neither position moves and dst may hold part of the output.
+	 */
+	public static int vigenereEncryption(CharBuffer src, CharBuffer dst, VigenereKey key) {
+		return shift(src, dst, key.encryptSchedule());
+	}
 
-			encryptedText.append(encryptedChar);
-		}
+	/**
+	 * Vigenere Encryption of a range of ASCII bytes, in place.
+	 * 
+	 * @param text   The ASCII bytes to be encrypted.
+	 * @param offset The index of the first byte to encrypt.
+	 * @param length The number of bytes to encrypt.
+	 * @param key    The keyword used for the cipher.
+	 * 
+	 * @return The number of bytes encrypted, or -(offset + 1) for the first
+	 *         out-of-bounds byte counted from offset (-1 for an invalid key). On
+	 *         failure the bytes before it are already encrypted.
+	 */
+	public static int vigenereEncryption(byte[] text, int offset, int length, String key) {
+		return shift(text, offset, length, vigenereSchedule(key, true));
+	}
+
+	/**
+	 * Vigenere Encryption of a range of ASCII bytes, in place, with a precompiled
+	 * key.
+	 * 
+	 * @param text   The ASCII bytes to be encrypted.
+	 * @param offset The index of the first byte to encrypt.
+	 * @param length The number of bytes to encrypt.
+	 * @param key    The compiled Vigenere key.
+	 * 
+	 * @return The number of bytes encrypted, or -(offset + 1) for the first
+	 *         out-of-bounds byte counted from offset. On failure the bytes before
+	 *         it are already encrypted.
+	 */
+	public static int vigenereEncryption(byte[] text, int offset, int length, VigenereKey key) {
+		return shift(text, offset, length, key.encryptSchedule());
+	}
+
+	/**
+	 * Vigenere Encryption of the remaining ASCII bytes of a buffer, in place.
+	 * 
+	 * @param text The ASCII bytes to be encrypted, from position to limit.
+	 * @param key  The keyword used for the cipher.
+	 * 
+	 * @return The number of bytes encrypted, or -(offset + 1) for the first
+	 *         out-of-bounds byte counted from the position (-1 for an invalid key).
+	 *         On failure the position does not move and the bytes before it are
+	 *         already encrypted.
+	 */
+	public static int vigenereEncryption(ByteBuffer text, String key) {
+		return shift(text, vigenereSchedule(key, true));
+	}
 
-		return encryptedText.toString();
+	/**
+	 * Vigenere Encryption of the remaining ASCII bytes of a buffer, in place, with
+	 * a precompiled key.
+	 * 
+	 * @param text The ASCII bytes to be encrypted, from position to limit.
+	 * @param key  The compiled Vigenere key.
+	 * 
+	 * @return The number of bytes encrypted, or -(offset + 1) for the first
+	 *         out-of-bounds byte counted from the position. On failure the position
+	 *         does not move and the bytes before it are already encrypted.
+	 */
+	public static int vigenereEncryption(ByteBuffer text, VigenereKey key) {
+		return shift(text, key.encryptSchedule());
 	}
 
 	/**
@@ -143,27 +663,247 @@ public class CryptoManager {
 	 *         bounds.
 	 */
 	public static String vigenereDecryption(String encryptedText, String key) {
-		if (!isStringInBounds(encryptedText) || !isStringInBounds(key) || key.length() == 0) {
-			return "The selected string is not in bounds, Try again.";
+		return shift(encryptedText, vigenereSchedule(key, false));
+	}
+
+	/**
+	 * Vigenere Decryption of a string with a precompiled key.
+	 * 
+	 * @param encryptedText The string to be decrypted.
+	 * @param key           The compiled Vigenere key.
+	 * 
+	 * @return The decrypted string, or an error message if the string is out of
+	 *         bounds.
+	 */
+	public static String vigenereDecryption(String encryptedText, VigenereKey key) {
+		return shift(encryptedText, key.decryptSchedule());
+	}
+
+	/**
+	 * Vigenere Decryption of a string.
+	 * 
+	 * Unlike the String overload, a failure is reported apart from the text, so it
+	 * can never be taken for plaintext.
+	 * 
+	 * @param encryptedText The string to be decrypted.
+	 * @param key           The keyword used for the cipher.
+	 * @param validation    Whether a failure is returned or thrown.
+	 * 
+	 * @return The decrypted string, or a failed result with the offset of the first
+	 *         out-of-bounds character (none for an invalid key).
+	 * 
+	 * @throws CipherException on failure, in {@link Validation#FAIL_FAST} mode.
+	 */
+	public static CipherResult vigenereDecryption(String encryptedText, String key, Validation validation) {
+		ShiftSchedule schedule = vigenereSchedule(key, false);
+		if (schedule == null) {
+			return check(CipherResult.invalidKey(), validation);
 		}
+		char[] text = encryptedText.toCharArray();
+		return result(text, shift(text, 0, text.length, text, 0, schedule), validation);
+	}
 
-		StringBuilder decryptedText = new StringBuilder();
-		int keyLength = key.length();
+	/**
+	 * Vigenere Decryption of a range of characters.
+	 * 
+	 * The key is applied from its first character at srcOffset. The source and
+	 * destination may be the same array to decrypt in place.
+	 * 
+	 * @param src       The characters to be decrypted.
+	 * @param srcOffset The index of the first character to decrypt.
+	 * @param length    The number of characters to decrypt.
+	 * @param dst       The array receiving the decrypted characters.
+	 * @param dstOffset The index in dst where the first decrypted character goes.
+	 * @param key       The keyword used for the cipher.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character (-1 for an invalid key). On failure dst holds
+	 *         the output up to that character.
+	 */
+	public static int vigenereDecryption(char[] src, int srcOffset, int length, char[] dst, int dstOffset, String key) {
+		return shift(src, srcOffset, length, dst, dstOffset, vigenereSchedule(key, false));
+	}
 
-		for (int i = 0; i < encryptedText.length(); i++) {
-			char encryptedChar = encryptedText.charAt(i);
-			char keyChar = key.charAt(i % keyLength);
+	/**
+	 * Vigenere Decryption of a range of characters with a precompiled key.
+	 * 
+	 * @param src       The characters to be decrypted.
+	 * @param srcOffset The index of the first character to decrypt.
+	 * @param length    The number of characters to decrypt.
+	 * @param dst       The array receiving the decrypted characters.
+	 * @param dstOffset The index in dst where the first decrypted character goes.
+	 * @param key       The compiled Vigenere key.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character. On failure dst holds the output up to that
+	 *         character.
+	 */
+	public static int vigenereDecryption(char[] src, int srcOffset, int length, char[] dst, int dstOffset,
+			VigenereKey key) {
+		return shift(src, srcOffset, length, dst, dstOffset, key.decryptSchedule());
+	}
 
-			// Calculate the shift value from the key character (0-based)
-			int keyShift = keyChar - LOWER_RANGE;
+	/**
+	 * Vigenere Decryption of the remaining characters of a buffer.
+	 * 
+	 * @param src The characters to be decrypted, from position to limit.
+	 * @param dst The buffer receiving the decrypted characters.
+	 * @param key The keyword used for the cipher.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character counted from the source position (-1 for an
+	 *         invalid key). On failure neither position moves and dst may hold part
+	 *         of the output.
+	 */
+	public static int vigenereDecryption(CharBuffer src, CharBuffer dst, String key) {
+		return shift(src, dst, vigenereSchedule(key, false));
+	}
 
-			// Decrypt using the shift character helper (negative shift)
-			char decryptedChar = shiftCharacter(encryptedChar, -keyShift);
+	/**
+	 * Vigenere Decryption of the remaining characters of a buffer with a
+	 * precompiled key.
+	 * 
+	 * @param src The characters to be decrypted, from position to limit.
+	 * @param dst The buffer receiving the decrypted characters.
+	 * @param key The compiled Vigenere key.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character counted from the source position. On failure
+	 *         neither position moves and dst may hold part of the output.
+	 */
+	public static int vigenereDecryption(CharBuffer src, CharBuffer dst, VigenereKey key) {
+		return shift(src, dst, key.decryptSchedule());
+	}
 
-			decryptedText.append(decryptedChar);
-		}
+	/**
+	 * Vigenere Decryption of a range of ASCII bytes, in place.
+	 * 
+	 * @param text   The ASCII bytes to be decrypted.
+	 * @param offset The index of the first byte to decrypt.
+	 * @param length The number of bytes to decrypt.
+	 * @param key    The keyword used for the cipher.
+	 * 
+	 * @return The number of bytes decrypted, or -(offset + 1) for the first
+	 *         out-of-bounds byte counted from offset (-1 for an invalid key). On
+	 *         failure the bytes before it are already decrypted.
+	 */
+	public static int vigenereDecryption(byte[] text, int offset, int length, String key) {
+		return shift(text, offset, length, vigenereSchedule(key, false));
+	}
+
+	/**
+	 * Vigenere Decryption of a range of ASCII bytes, in place, with a precompiled
+	 * key.
+	 * 
+	 * @param text   The ASCII bytes to be decrypted.
+	 * @param offset The index of the first byte to decrypt.
+	 * @param length The number of bytes to decrypt.
+	 * @param key    The compiled Vigenere key.
+	 * 
+	 * @return The number of bytes decrypted, or -(offset + 1) for the first
+	 *         out-of-bounds byte counted from offset. On failure the bytes before
+	 *         it are already decrypted.
+	 */
+	public static int vigenereDecryption(byte[] text, int offset, int length, VigenereKey key) {
+		return shift(text, offset, length, key.decryptSchedule());
+	}
+
+	/**
+	 * Vigenere Decryption of the remaining ASCII bytes of a buffer, in place.
+	 * 
+	 * @param text The ASCII bytes to be decrypted, from position to limit.
+	 * @param key  The keyword used for the cipher.
+	 * 
+	 * @return The number of bytes decrypted, or -(offset + 1) for the first
+	 *         out-of-bounds byte counted from the position (-1 for an invalid key).
+	 *         On failure the position does not move and the bytes before it are
+	 *         already decrypted.
+	 */
+	public static int vigenereDecryption(ByteBuffer text, String key) {
+		return shift(text, vigenereSchedule(key, false));
+	}
+
+	/**
+	 * Vigenere Decryption of the remaining ASCII bytes of a buffer, in place, with
+	 * a precompiled key.
+	 * 
+	 * @param text The ASCII bytes to be decrypted, from position to limit.
+	 * @param key  The compiled Vigenere key.
+	 * 
+	 * @return The number of bytes decrypted, or -(offset + 1) for the first
+	 *         out-of-bounds byte counted from the position. On failure the position
+	 *         does not move and the bytes before it are already decrypted.
+	 */
+	public static int vigenereDecryption(ByteBuffer text, VigenereKey key) {
+		return shift(text, key.decryptSchedule());
+	}
+
+	/**
+	 * Re-encrypts Caesar or Vigenere ciphertext under a new key in a single pass,
+	 * without producing the plaintext.
+	 * 
+	 * @param encryptedText The string encrypted with the old key.
+	 * @param rotation      The compiled change of key.
+	 * 
+	 * @return The string encrypted with the new key, or an error message if the
+	 *         string is out of bounds.
+	 */
+	public static String rekey(String encryptedText, KeyRotation rotation) {
+		return shift(encryptedText, rotation.schedule());
+	}
+
+	/**
+	 * Re-encrypts a range of Caesar or Vigenere ciphertext under a new key in a
+	 * single pass. The source and destination may be the same array.
+	 * 
+	 * @param src       The characters encrypted with the old key.
+	 * @param srcOffset The index of the first character.
+	 * @param length    The number of characters.
+	 * @param dst       The array receiving the characters encrypted with the new
+	 *                  key.
+	 * @param dstOffset The index in dst where the first character goes.
+	 * @param rotation  The compiled change of key.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character. On failure dst holds the output up to that
+	 *         character.
+	 */
+	public static int rekey(char[] src, int srcOffset, int length, char[] dst, int dstOffset,
+			KeyRotation rotation) {
+		return shift(src, srcOffset, length, dst, dstOffset, rotation.schedule());
+	}
+
+	/**
+	 * Re-encrypts a range of Caesar or Vigenere ciphertext held as ASCII bytes
+	 * under a new key, in place, in a single pass.
+	 * 
+	 * @param text     The ASCII bytes encrypted with the old key.
+	 * @param offset   The index of the first byte.
+	 * @param length   The number of bytes.
+	 * @param rotation The compiled change of key.
+	 * 
+	 * @return The number of bytes re-encrypted, or -(offset + 1) for the first
+	 *         out-of-bounds byte counted from offset. On failure the bytes before
+	 *         it are already re-encrypted.
+	 */
+	public static int rekey(byte[] text, int offset, int length, KeyRotation rotation) {
+		return shift(text, offset, length, rotation.schedule());
+	}
 
-		return decryptedText.toString();
+	/**
+	 * Re-encrypts the remaining ASCII bytes of a buffer under a new key, in place,
+	 * in a single pass.
+	 * 
+	 * @param text     The ASCII bytes encrypted with the old key, from position to
+	 *                 limit.
+	 * @param rotation The compiled change of key.
+	 * 
+	 * @return The number of bytes re-encrypted, or -(offset + 1) for the first
+	 *         out-of-bounds byte counted from the position. On failure the position
+	 *         does not move and the bytes before it are already re-encrypted.
+	 */
+	public static int rekey(ByteBuffer text, KeyRotation rotation) {
+		return shift(text, rotation.schedule());
 	}
 
 	/**
@@ -175,7 +915,7 @@ public class CryptoManager {
 	 *                    decrypt).
 	 * @return The shifted character.
 	 */
-	private static char shiftCharacter(char charToShift, int shiftAmount) {
+	static char shiftCharacter(char charToShift, int shiftAmount) {
 		// 1. Convert char to its 0-based index (0 to RANGE - 1)
 		int charIndex = charToShift - LOWER_RANGE;
 
@@ -190,73 +930,534 @@ public class CryptoManager {
 
 	/**
 	 * Playfair Encryption
-	 *
+	 * 
 	 * Encrypts the text using an 8x8 Playfair cipher matrix.
 	 * 
 	 * @param plainText The string to be encrypted.
 	 * @param key       The keyword used to construct the Playfair matrix.
 	 * 
-	 * @return The encrypted string, or an error message if the plainText contains
-	 *         out-of-bounds characters.
+	 * @return The encrypted string, or an error message if the plainText or key
+	 *         contains out-of-bounds characters.
 	 */
 	public static String playfairEncryption(String plainText, String key) {
-		if (!isStringInBounds(plainText)) {
-			return "The selected string is not in bounds, Try again.";
+		// The 8x8 matrix is built once per key and then cached
+		PlayfairKey compiled = playfairKey(key);
+		if (compiled == null) {
+			return NOT_IN_BOUNDS;
 		}
+		return playfairEncryption(plainText, compiled);
+	}
 
-		// Build the 8x8 Playfair matrix using the key + ALPHABET64
-		char[][] matrix = buildPlayfairMatrix(key);
+	/**
+	 * Playfair Encryption with a precompiled key.
+	 * 
+	 * Use this overload when the same key encrypts many strings: the matrix and
+	 * position table are built once, in the {@link PlayfairKey} constructor.
+	 * 
+	 * @param plainText The string to be encrypted.
+	 * @param key       The compiled Playfair key.
+	 * 
+	 * @return The encrypted string, or an error message if the plainText contains
+	 *         out-of-bounds characters.
+	 */
+	public static String playfairEncryption(String plainText, PlayfairKey key) {
+		char[] text = plainText.toCharArray();
 
-		// Ensure text length is even (pad with a space if needed)
-		String text = preparePlayfairText(plainText);
+		// Ensure text length is even (the last pair is padded with a space if needed)
+		char[] result = new char[text.length + (text.length & 1)];
 
-		StringBuilder result = new StringBuilder();
+		if (playfairEncryption(text, 0, text.length, result, 0, key) < 0) {
+			return NOT_IN_BOUNDS;
+		}
+		return new String(result);
+	}
 
-		// Process the text two characters at a time
-		for (int i = 0; i < text.length(); i += 2) {
-			char a = text.charAt(i);
-			char b = text.charAt(i + 1);
-			result.append(encryptPair(a, b, matrix));
+	/**
+	 * Playfair Encryption of a string. An odd-length string is padded with a space.
+	 * 
+	 * Unlike the String overload, a failure is reported apart from the text, so it
+	 * can never be taken for ciphertext.
+	 * 
+	 * @param plainText  The string to be encrypted.
+	 * @param key        The keyword used to construct the Playfair matrix.
+	 * @param validation Whether a failure is returned or thrown.
+	 * 
+	 * @return The encrypted string, or a failed result with the offset of the first
+	 *         out-of-bounds character (none for an invalid key).
+	 * 
+	 * @throws CipherException on failure, in {@link Validation#FAIL_FAST} mode.
+	 */
+	public static CipherResult playfairEncryption(String plainText, String key, Validation validation) {
+		PlayfairKey compiled = playfairKey(key);
+		if (compiled == null) {
+			return check(CipherResult.invalidKey(), validation);
+		}
+		char[] text = plainText.toCharArray();
+		char[] result = new char[text.length + (text.length & 1)];
+		return result(result, playfairEncryption(text, 0, text.length, result, 0, compiled), validation);
+	}
+
+	/**
+	 * Playfair Encryption of a range of characters.
+	 * 
+	 * An odd-length range is padded with a space, so length + 1 characters are
+	 * written in that case. We do NOT change the contents otherwise. The source and
+	 * destination may be the same array only if it has room for the padding.
+	 * 
+	 * @param src       The characters to be encrypted.
+	 * @param srcOffset The index of the first character to encrypt.
+	 * @param length    The number of characters to encrypt.
+	 * @param dst       The array receiving the encrypted characters.
+	 * @param dstOffset The index in dst where the first encrypted character goes.
+	 * @param key       The compiled Playfair key.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character. On failure dst holds the output up to that
+	 *         character.
+	 */
+	public static int playfairEncryption(char[] src, int srcOffset, int length, char[] dst, int dstOffset,
+			PlayfairKey key) {
+		int written = length + (length & 1);
+		Objects.checkFromIndexSize(srcOffset, length, src.length);
+		Objects.checkFromIndexSize(dstOffset, written, dst.length);
+		long start = CryptoMetrics.start();
+
+		// Process the text two characters at a time, checking bounds as we go
+		for (int i = 0; i < written; i += 2) {
+			char a = src[srcOffset + i];
+			char b = i + 1 < length ? src[srcOffset + i + 1] : ' '; // Padding with a space (safe, reversible)
+			if (key.indexOf(a) < 0) {
+				return CryptoMetrics.PLAYFAIR.record(start, length, -(i + 1));
+			}
+			if (key.indexOf(b) < 0) {
+				return CryptoMetrics.PLAYFAIR.record(start, length, -(i + 2));
+			}
+			int pair = encryptPair(a, b, key);
+			dst[dstOffset + i] = (char) (pair >>> 16);
+			dst[dstOffset + i + 1] = (char) pair;
 		}
+		return CryptoMetrics.PLAYFAIR.record(start, length, written);
+	}
 
-		return result.toString();
+	/**
+	 * Playfair Encryption of the remaining characters of a buffer.
+	 * 
+	 * An odd number of characters is padded with a space, as for the String form.
+	 * 
+	 * @param src The characters to be encrypted, from position to limit.
+	 * @param dst The buffer receiving the encrypted characters.
+	 * @param key The compiled Playfair key.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character counted from the source position. On failure
+	 *         neither position moves and dst may hold part of the output.
+	 */
+	public static int playfairEncryption(CharBuffer src, CharBuffer dst, PlayfairKey key) {
+		return playfair(src, dst, key, true);
 	}
 
 	/**
 	 * Playfair Decryption
-	 *
+	 * 
 	 * Reverses the Playfair encryption rules using the same 8x8 matrix.
-	 *
+	 * 
 	 * @param encryptedText The encrypted string.
 	 * @param key           The keyword used to construct the Playfair matrix.
-	 *
-	 * @return The decrypted (original) plaintext string.
+	 * 
+	 * @return The decrypted (original) plaintext string, or an error message if the
+	 *         text or key is out of bounds or the text has odd length.
 	 */
 	public static String playfairDecryption(String encryptedText, String key) {
-		if (!isStringInBounds(encryptedText)) {
-			return "The selected string is not in bounds, Try again.";
+		// Same matrix as encryption, from the key cache
+		PlayfairKey compiled = playfairKey(key);
+		if (compiled == null) {
+			return NOT_IN_BOUNDS;
+		}
+		return playfairDecryption(encryptedText, compiled);
+	}
+
+	/**
+	 * Playfair Decryption with a precompiled key.
+	 * 
+	 * @param encryptedText The encrypted string.
+	 * @param key           The compiled Playfair key.
+	 * 
+	 * @return The decrypted (original) plaintext string.
+	 */
+	public static String playfairDecryption(String encryptedText, PlayfairKey key) {
+		char[] text = encryptedText.toCharArray();
+
+		if (playfairDecryption(text, 0, text.length, text, 0, key) < 0) {
+			return NOT_IN_BOUNDS;
+		}
+		return new String(text);
+	}
+
+	/**
+	 * Playfair Decryption of a string.
+	 * 
+	 * Unlike the String overload, a failure is reported apart from the text, so it
+	 * can never be taken for plaintext.
+	 * 
+	 * @param encryptedText The string to be decrypted.
+	 * @param key           The keyword used to construct the Playfair matrix.
+	 * @param validation    Whether a failure is returned or thrown.
+	 * 
+	 * @return The decrypted string, or a failed result with the offset of the first
+	 *         out-of-bounds character (the last one if the length is odd, none for
+	 *         an invalid key).
+	 * 
+	 * @throws CipherException on failure, in {@link Validation#FAIL_FAST} mode.
+	 */
+	public static CipherResult playfairDecryption(String encryptedText, String key, Validation validation) {
+		PlayfairKey compiled = playfairKey(key);
+		if (compiled == null) {
+			return check(CipherResult.invalidKey(), validation);
+		}
+		char[] text = encryptedText.toCharArray();
+		if ((text.length & 1) != 0) {
+			return check(CipherResult.oddLength(text.length), validation);
+		}
+		return result(text, playfairDecryption(text, 0, text.length, text, 0, compiled), validation);
+	}
+
+	/**
+	 * Playfair Decryption of a range of characters.
+	 * 
+	 * Ciphertext always comes in whole pairs, so an odd length is rejected like an
+	 * out-of-bounds character. The source and destination may be the same array to
+	 * decrypt in place.
+	 * 
+	 * @param src       The characters to be decrypted.
+	 * @param srcOffset The index of the first character to decrypt.
+	 * @param length    The number of characters to decrypt.
+	 * @param dst       The array receiving the decrypted characters.
+	 * @param dstOffset The index in dst where the first decrypted character goes.
+	 * @param key       The compiled Playfair key.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character (or the unpaired last character of an
+	 *         odd-length range). On failure dst holds the output up to that
+	 *         character.
+	 */
+	public static int playfairDecryption(char[] src, int srcOffset, int length, char[] dst, int dstOffset,
+			PlayfairKey key) {
+		Objects.checkFromIndexSize(srcOffset, length, src.length);
+		Objects.checkFromIndexSize(dstOffset, length, dst.length);
+		long start = CryptoMetrics.start();
+		if ((length & 1) != 0) {
+			// The unpaired last character is the offending one
+			return CryptoMetrics.PLAYFAIR.record(start, length, -length);
+		}
+
+		// Process encrypted text in pairs, checking bounds as we go
+		for (int i = 0; i < length; i += 2) {
+			char a = src[srcOffset + i];
+			char b = src[srcOffset + i + 1];
+			if (key.indexOf(a) < 0) {
+				return CryptoMetrics.PLAYFAIR.record(start, length, -(i + 1));
+			}
+			if (key.indexOf(b) < 0) {
+				return CryptoMetrics.PLAYFAIR.record(start, length, -(i + 2));
+			}
+			int pair = decryptPair(a, b, key);
+			dst[dstOffset + i] = (char) (pair >>> 16);
+			dst[dstOffset + i + 1] = (char) pair;
+		}
+		return CryptoMetrics.PLAYFAIR.record(start, length, length);
+	}
+
+	/**
+	 * Playfair Decryption of the remaining characters of a buffer.
+	 * 
+	 * @param src The characters to be decrypted, from position to limit.
+	 * @param dst The buffer receiving the decrypted characters.
+	 * @param key The compiled Playfair key.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character counted from the source position (or the
+	 *         unpaired last character of an odd-length input). On failure neither
+	 *         position moves and dst may hold part of the output.
+	 */
+	public static int playfairDecryption(CharBuffer src, CharBuffer dst, PlayfairKey key) {
+		return playfair(src, dst, key, false);
+	}
+
+	// BUFFER HELPERS
+
+	/**
+	 * Wraps the outcome of a char[] transform done in place.
+	 * 
+	 * @param text       The transformed characters.
+	 * @param written    The value returned by the transform.
+	 * @param validation Whether a failure is returned or thrown.
+	 * 
+	 * @return The result.
+	 */
+	private static CipherResult result(char[] text, int written, Validation validation) {
+		if (written >= 0) {
+			return CipherResult.success(new String(text, 0, written));
+		}
+		return check(CipherResult.outOfBounds(-written - 1), validation);
+	}
+
+	/**
+	 * Throws a failed result in fail-fast mode.
+	 * 
+	 * @param result     The result.
+	 * @param validation Whether a failure is returned or thrown.
+	 * 
+	 * @return The result, if it is returned.
+	 */
+	private static CipherResult check(CipherResult result, Validation validation) {
+		if (!result.isSuccess() && validation == Validation.FAIL_FAST) {
+			throw new CipherException(result);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the key schedule for a Vigenere keyword.
+	 * 
+	 * @param key     The keyword used for the cipher.
+	 * @param encrypt true for the encryption schedule, false for the decryption
+	 *                schedule.
+	 * 
+	 * @return The schedule, or null if the key is empty or out of bounds.
+	 */
+	private static ShiftSchedule vigenereSchedule(String key, boolean encrypt) {
+		if (key.length() == 0 || !isStringInBounds(key)) {
+			return null;
+		}
+		VigenereKey compiled = VIGENERE_KEYS.get(key);
+		return encrypt ? compiled.encryptSchedule() : compiled.decryptSchedule();
+	}
+
+	/**
+	 * Returns the compiled form of a Playfair keyword.
+	 * 
+	 * @param key The keyword used to construct the Playfair matrix.
+	 * 
+	 * @return The compiled key, or null if the key is out of bounds.
+	 */
+	private static PlayfairKey playfairKey(String key) {
+		return isStringInBounds(key) ? PLAYFAIR_KEYS.get(key) : null;
+	}
+
+	/**
+	 * Applies a key schedule to a string.
+	 * 
+	 * @param text     The string to be shifted.
+	 * @param schedule The key schedule, or null for an invalid key.
+	 * 
+	 * @return The shifted string, or an error message if out of bounds.
+	 */
+	private static String shift(String text, ShiftSchedule schedule) {
+		char[] chars = text.toCharArray();
+
+		// Shift in place; the copy above is the only allocation besides the result
+		if (shift(chars, 0, chars.length, chars, 0, schedule) < 0) {
+			return NOT_IN_BOUNDS;
 		}
+		return new String(chars);
+	}
 
-		// Build matrix again using the same key
-		char[][] matrix = buildPlayfairMatrix(key);
+	/**
+	 * Applies a key schedule to a range of characters, from the first key position.
+	 * 
+	 * @param src       The characters to be shifted.
+	 * @param srcOffset The index of the first character.
+	 * @param length    The number of characters.
+	 * @param dst       The array receiving the shifted characters.
+	 * @param dstOffset The index in dst where the first shifted character goes.
+	 * @param schedule  The key schedule, or null for an invalid key.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character (-1 for a null schedule).
+	 */
+	private static int shift(char[] src, int srcOffset, int length, char[] dst, int dstOffset,
+			ShiftSchedule schedule) {
+		return shift(src, srcOffset, length, dst, dstOffset, schedule, 0);
+	}
 
-		StringBuilder result = new StringBuilder();
+	/**
+	 * Applies a key schedule to a range of characters, starting at any key position
+	 * so that a long text can be processed in chunks. Caesar keys have a single
+	 * row; Vigenere keys have one row per key position, walked with a counter
+	 * instead of a modulo per character.
+	 * 
+	 * @param src       The characters to be shifted.
+	 * @param srcOffset The index of the first character.
+	 * @param length    The number of characters.
+	 * @param dst       The array receiving the shifted characters.
+	 * @param dstOffset The index in dst where the first shifted character goes.
+	 * @param schedule  The key schedule, or null for an invalid key.
+	 * @param phase     The key position applied to the first character.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character (-1 for a null schedule).
+	 */
+	static int shift(char[] src, int srcOffset, int length, char[] dst, int dstOffset, ShiftSchedule schedule,
+			int phase) {
+		Objects.checkFromIndexSize(srcOffset, length, src.length);
+		Objects.checkFromIndexSize(dstOffset, length, dst.length);
+		if (schedule == null) {
+			return -1;
+		}
+		long start = CryptoMetrics.start();
+		return schedule.metrics.record(start, length,
+				ShiftEngine.SELECTED.shift(src, srcOffset, length, dst, dstOffset, schedule, phase));
+	}
 
-		// Process encrypted text in pairs
-		for (int i = 0; i < encryptedText.length(); i += 2) {
-			char a = encryptedText.charAt(i);
-			char b = encryptedText.charAt(i + 1);
-			result.append(decryptPair(a, b, matrix));
+	/**
+	 * Applies a key schedule to the remaining characters of a buffer.
+	 * 
+	 * @param src      The characters to be shifted, from position to limit.
+	 * @param dst      The buffer receiving the shifted characters.
+	 * @param schedule The key schedule, or null for an invalid key.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character (-1 for a null schedule).
+	 */
+	private static int shift(CharBuffer src, CharBuffer dst, ShiftSchedule schedule) {
+		int length = src.remaining();
+		if (dst.remaining() < length) {
+			throw new BufferOverflowException();
+		}
+		if (schedule == null) {
+			return -1;
 		}
 
-		return result.toString();
+		long start = CryptoMetrics.start();
+		int in = src.position(), out = dst.position();
+		char[][] rows = schedule.rows;
+		short[] indexes = schedule.indexes;
+		int keyIndex = 0;
+		for (int i = 0; i < length; i++) {
+			char c = src.get(in + i);
+			int index = c < indexes.length ? indexes[c] : -1;
+			if (index < 0) {
+				return schedule.metrics.record(start, length, -(i + 1));
+			}
+			dst.put(out + i, rows[keyIndex][index]);
+
+			if (++keyIndex == rows.length) {
+				keyIndex = 0;
+			}
+		}
+		src.position(in + length);
+		dst.position(out + length);
+		return schedule.metrics.record(start, length, length);
+	}
+
+	/**
+	 * Runs Playfair over the remaining characters of a buffer, in either direction.
+	 * 
+	 * @param src     The characters to be processed, from position to limit.
+	 * @param dst     The buffer receiving the result.
+	 * @param key     The compiled Playfair key.
+	 * @param encrypt true to encrypt (padding odd input), false to decrypt.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds or unpaired character.
+	 */
+	private static int playfair(CharBuffer src, CharBuffer dst, PlayfairKey key, boolean encrypt) {
+		int length = src.remaining();
+		int written = length + (length & 1);
+		long start = CryptoMetrics.start();
+		// Checked before the room in dst, which an odd ciphertext would never need
+		if (!encrypt && written != length) {
+			// The unpaired last character is the offending one
+			return CryptoMetrics.PLAYFAIR.record(start, length, -length);
+		}
+		if (dst.remaining() < written) {
+			throw new BufferOverflowException();
+		}
+
+		int in = src.position(), out = dst.position();
+		for (int i = 0; i < written; i += 2) {
+			char a = src.get(in + i);
+			char b = i + 1 < length ? src.get(in + i + 1) : ' ';
+			if (key.indexOf(a) < 0) {
+				return CryptoMetrics.PLAYFAIR.record(start, length, -(i + 1));
+			}
+			if (key.indexOf(b) < 0) {
+				return CryptoMetrics.PLAYFAIR.record(start, length, -(i + 2));
+			}
+			int pair = encrypt ? encryptPair(a, b, key) : decryptPair(a, b, key);
+			dst.put(out + i, (char) (pair >>> 16));
+			dst.put(out + i + 1, (char) pair);
+		}
+		src.position(in + length);
+		dst.position(out + written);
+		return CryptoMetrics.PLAYFAIR.record(start, length, written);
+	}
+
+
+	// ASCII BYTE HELPERS
+
+	/**
+	 * Applies a key schedule to a range of ASCII bytes, in place, with the selected
+	 * {@link ShiftEngine} (by default eight bytes at a time).
+	 * 
+	 * @param text     The bytes to be shifted.
+	 * @param offset   The index of the first byte.
+	 * @param length   The number of bytes.
+	 * @param schedule The key schedule, or null for an invalid key.
+	 * 
+	 * @return The number of bytes shifted, or -(offset + 1) for the first
+	 *         out-of-bounds byte (-1 for a null schedule).
+	 */
+	private static int shift(byte[] text, int offset, int length, ShiftSchedule schedule) {
+		Objects.checkFromIndexSize(offset, length, text.length);
+		if (schedule == null) {
+			return -1;
+		}
+		long start = CryptoMetrics.start();
+		return schedule.metrics.record(start, length, ShiftEngine.SELECTED.shift(text, offset, length, schedule));
+	}
+
+	/**
+	 * Applies a key schedule to the remaining bytes of a buffer, in place.
+	 * 
+	 * Heap buffers are handed to the array form; direct buffers are processed with
+	 * absolute reads and writes so no copy is made.
+	 * 
+	 * @param text     The bytes to be shifted, from position to limit.
+	 * @param schedule The key schedule, or null for an invalid key.
+	 * 
+	 * @return The number of bytes shifted, or -(offset + 1) for the first
+	 *         out-of-bounds byte (-1 for a null schedule).
+	 */
+	private static int shift(ByteBuffer text, ShiftSchedule schedule) {
+		int start = text.position(), length = text.remaining();
+		int result;
+
+		if (text.hasArray()) {
+			result = shift(text.array(), text.arrayOffset() + start, length, schedule);
+		} else {
+			if (text.isReadOnly()) {
+				throw new ReadOnlyBufferException();
+			}
+			if (schedule == null) {
+				return -1;
+			}
+			long started = CryptoMetrics.start();
+			result = schedule.metrics.record(started, length,
+					ShiftEngine.SELECTED.shift(text, text, start, start + length, schedule));
+		}
+
+		if (result >= 0) {
+			text.position(start + length);
+		}
+		return result;
 	}
 
 	// PLAYFAIR HELPERS
 
 	/**
 	 * Builds an 8x8 Playfair matrix based on the given key.
-	 *
+	 * 
 	 * 1. Inserts unique characters of the key in order
 	 * 
 	 * 2. Fills remaining spaces with characters from ALPHABET64.
@@ -264,8 +1465,14 @@ public class CryptoManager {
 	 * @param key The key used to populate the beginning of the matrix.
 	 * 
 	 * @return An 8x8 Playfair cipher matrix.
+	 * 
+	 * @throws IllegalArgumentException if the key is out of bounds.
 	 */
-	private static char[][] buildPlayfairMatrix(String key) {
+	static char[][] buildPlayfairMatrix(String key) {
+		// Only in-bounds characters belong in the matrix (and fit the used table)
+		if (!isStringInBounds(key)) {
+			throw new IllegalArgumentException("The selected key is not in bounds, Try again.");
+		}
 		boolean[] used = new boolean[128]; // Tracks if a character has been added
 		char[][] matrix = new char[8][8];
 		int r = 0, c = 0;
@@ -303,115 +1510,34 @@ public class CryptoManager {
 		return matrix;
 	}
 
-	/**
-	 * Finds the row and column of a character inside the 8x8 Playfair matrix.
-	 *
-	 * @param matrix The 8x8 Playfair matrix.
-	 * @param ch     The character to locate.
-	 * 
-	 * @return A 2-element array: [row, column].
-	 */
-	private static int[] findPosition(char[][] matrix, char ch) {
-		int[] pos = new int[2];
-		for (int r = 0; r < 8; r++) {
-			for (int c = 0; c < 8; c++) {
-				if (matrix[r][c] == ch) {
-					pos[0] = r;
-					pos[1] = c;
-					return pos;
-				}
-			}
-		}
-		return null; // Should never happen because ALPHABET64 contains all allowed characters
-	}
-
-	/**
-	 * Prepares text for Playfair by ensuring it has an even number of characters.
-	 * 
-	 * We do NOT change the contents — we only pad with a space if needed.
-	 *
-	 * @param text The original plaintext.
-	 * 
-	 * @return The text padded to even length.
-	 */
-	private static String preparePlayfairText(String text) {
-		if (text.length() % 2 != 0) {
-			text = text + " "; // Padding with a space (safe, reversible)
-		}
-		return text;
-	}
-
 	/**
 	 * Encrypts a pair of characters using Playfair rules: - Same row: shift right -
 	 * Same column: shift down - Rectangle: swap columns
-	 *
-	 * @param a      First character of the pair.
-	 * @param b      Second character of the pair.
-	 * @param matrix The Playfair matrix.
 	 * 
-	 * @return The encrypted 2-character string.
+	 * The rules are applied when the key is compiled; here the pair is looked up in
+	 * its digraph table.
+	 * 
+	 * @param a   First character of the pair, in bounds.
+	 * @param b   Second character of the pair, in bounds.
+	 * @param key The compiled Playfair key.
+	 * 
+	 * @return The encrypted pair, first character in the high 16 bits.
 	 */
-	private static String encryptPair(char a, char b, char[][] matrix) {
-		int[] p1 = findPosition(matrix, a);
-		int[] p2 = findPosition(matrix, b);
-
-		int r1 = p1[0], c1 = p1[1];
-		int r2 = p2[0], c2 = p2[1];
-
-		// Same row --> shift right
-		if (r1 == r2) {
-			c1 = (c1 + 1) % 8;
-			c2 = (c2 + 1) % 8;
-		}
-		// Same column --> shift down
-		else if (c1 == c2) {
-			r1 = (r1 + 1) % 8;
-			r2 = (r2 + 1) % 8;
-		}
-		// Rectangle rule --> swap columns
-		else {
-			int temp = c1;
-			c1 = c2;
-			c2 = temp;
-		}
-
-		return "" + matrix[r1][c1] + matrix[r2][c2];
+	static int encryptPair(char a, char b, PlayfairKey key) {
+		return key.encrypt(a, b);
 	}
 
 	/**
 	 * Decrypts a pair of characters using Playfair rules (reverse of encryption): -
 	 * Same row: shift left - Same column: shift up - Rectangle: swap columns
-	 *
-	 * @param a      First encrypted character.
-	 * @param b      Second encrypted character.
-	 * @param matrix The Playfair matrix.
 	 * 
-	 * @return The decrypted 2-character string.
+	 * @param a   First encrypted character, in bounds.
+	 * @param b   Second encrypted character, in bounds.
+	 * @param key The compiled Playfair key.
+	 * 
+	 * @return The decrypted pair, first character in the high 16 bits.
 	 */
-	private static String decryptPair(char a, char b, char[][] matrix) {
-		int[] p1 = findPosition(matrix, a);
-		int[] p2 = findPosition(matrix, b);
-
-		int r1 = p1[0], c1 = p1[1];
-		int r2 = p2[0], c2 = p2[1];
-
-		// Same row --> shift left
-		if (r1 == r2) {
-			c1 = (c1 + 7) % 8;
-			c2 = (c2 + 7) % 8;
-		}
-		// Same column --> shift up
-		else if (c1 == c2) {
-			r1 = (r1 + 7) % 8;
-			r2 = (r2 + 7) % 8;
-		}
-		// Rectangle --> swap columns
-		else {
-			int temp = c1;
-			c1 = c2;
-			c2 = temp;
-		}
-
-		return "" + matrix[r1][c1] + matrix[r2][c2];
+	static int decryptPair(char a, char b, PlayfairKey key) {
+		return key.decrypt(a, b);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,299 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters and latency histograms for the cipher hot paths, one set per cipher.
+ * 
+ * Metrics are off unless the JVM is started with -Dcrypto.metrics=true, and the
+ * switch is read once, into a static final field. The hot paths test that field
+ * before reading the clock, so when metrics are off the JIT drops the test and
+ * everything behind it, and the cost is nothing. When they are on, each call
+ * reads the clock twice and bumps a few {@link LongAdder}s, which spread
+ * concurrent updates over separate cells instead of contending for one.
+ * 
+ * The latency histogram is log-linear, in the style of HdrHistogram: every
+ * power of two is split into eight buckets, so a bucket spans at most 1/8 of
+ * its value and a few hundred buckets cover a nanosecond to several minutes.
+ * 
+ * When enabled, the three cipher instances are registered with the platform
+ * MBean server, where JConsole or any JMX client can read them.
+ */
+public final class CryptoMetrics implements CryptoMetricsMBean {
+
+	/** true if the JVM was started with -Dcrypto.metrics=true. */
+	public static final boolean ENABLED = Boolean.getBoolean("crypto.metrics");
+
+	// Each power of two from 8 up is split into 2^SUB_BITS buckets
+	private static final int SUB_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	// Latencies of 2^MAX_EXPONENT ns (about 9 minutes) and over share the last bucket
+	private static final int MAX_EXPONENT = 39;
+	private static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS;
+
+	static final CryptoMetrics CAESAR = new CryptoMetrics("Caesar");
+	static final CryptoMetrics VIGENERE = new CryptoMetrics("Vigenere");
+	static final CryptoMetrics PLAYFAIR = new CryptoMetrics("Playfair");
+
+	static {
+		if (ENABLED) {
+			register(ManagementFactory.getPlatformMBeanServer());
+		}
+	}
+
+	private final String name;
+	private final LongAdder calls = new LongAdder();
+	private final LongAdder characters = new LongAdder();
+	private final LongAdder rejections = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+	private final LongAdder[] histogram = new LongAdder[BUCKETS];
+	private final LongAdder keyBuilds = new LongAdder();
+	private final LongAdder keyBuildNanos = new LongAdder();
+
+	/**
+	 * Creates an empty set of metrics.
+	 * 
+	 * @param name The cipher name.
+	 */
+	CryptoMetrics(String name) {
+		this.name = name;
+		for (int i = 0; i < BUCKETS; i++) {
+			histogram[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Returns the metrics of a cipher.
+	 * 
+	 * @param cipher "Caesar", "Vigenere" or "Playfair", ignoring case.
+	 * 
+	 * @return The metrics.
+	 * 
+	 * @throws IllegalArgumentException for any other name.
+	 */
+	public static CryptoMetricsMBean of(String cipher) {
+		for (CryptoMetrics metrics : new CryptoMetrics[] { CAESAR, VIGENERE, PLAYFAIR }) {
+			if (metrics.name.equalsIgnoreCase(cipher)) {
+				return metrics;
+			}
+		}
+		throw new IllegalArgumentException("Unknown cipher: " + cipher);
+	}
+
+	/**
+	 * Registers the metrics of every cipher with an MBean server.
+	 * 
+	 * @param server The MBean server.
+	 * 
+	 * @throws IllegalStateException if the names are already registered.
+	 */
+	static void register(MBeanServer server) {
+		try {
+			for (CryptoMetrics metrics : new CryptoMetrics[] { CAESAR, VIGENERE, PLAYFAIR }) {
+				server.registerMBean(metrics, metrics.objectName());
+			}
+		} catch (JMException e) {
+			throw new IllegalStateException("Cannot register the cipher metrics", e);
+		}
+	}
+
+	/**
+	 * Returns the JMX name of these metrics.
+	 * 
+	 * @return The object name.
+	 * 
+	 * @throws JMException if the name is malformed.
+	 */
+	ObjectName objectName() throws JMException {
+		return new ObjectName("CryptoManager:type=Metrics,cipher=" + name);
+	}
+
+	/**
+	 * Starts timing a call.
+	 * 
+	 * @return The current time, or 0 when metrics are off.
+	 */
+	static long start() {
+		return ENABLED ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Records a finished call, when metrics are on.
+	 * 
+	 * @param start  The value returned by {@link #start()}.
+	 * @param length The number of characters or bytes in the input.
+	 * @param result The value the call returns: the number written, or negative for
+	 *               a rejected input.
+	 * 
+	 * @return result, so a call site can record and return in one statement.
+	 */
+	int record(long start, int length, int result) {
+		if (ENABLED) {
+			recordCall(System.nanoTime() - start, length, result >= 0);
+		}
+		return result;
+	}
+
+	/**
+	 * Records a finished call.
+	 * 
+	 * @param nanos    The time the call took.
+	 * @param length   The number of characters or bytes in the input.
+	 * @param accepted false if the input was rejected.
+	 */
+	void recordCall(long nanos, int length, boolean accepted) {
+		calls.increment();
+		if (accepted) {
+			characters.add(length);
+		} else {
+			rejections.increment();
+		}
+		totalNanos.add(nanos);
+		maxNanos.accumulate(nanos);
+		histogram[bucket(nanos)].increment();
+	}
+
+	/**
+	 * Records a compiled key, when metrics are on.
+	 * 
+	 * @param start The value returned by {@link #start()} before compiling.
+	 */
+	void recordKeyBuild(long start) {
+		if (ENABLED) {
+			keyBuilds.increment();
+			keyBuildNanos.add(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Returns the histogram bucket of a latency.
+	 * 
+	 * @param nanos The latency.
+	 * 
+	 * @return The bucket index.
+	 */
+	static int bucket(long nanos) {
+		if (nanos < SUB_BUCKETS) {
+			return (int) Math.max(nanos, 0);
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		if (exponent > MAX_EXPONENT) {
+			return BUCKETS - 1;
+		}
+		// The bits below the leading one pick the sub-bucket
+		int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+	}
+
+	/**
+	 * Returns the largest latency that falls in a bucket.
+	 * 
+	 * @param bucket The bucket index.
+	 * 
+	 * @return The upper bound in nanoseconds.
+	 */
+	static long upperBound(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+		long width = 1L << (exponent - SUB_BITS);
+		return (SUB_BUCKETS + bucket % SUB_BUCKETS + 1) * width - 1;
+	}
+
+	/**
+	 * Returns a latency percentile from the histogram.
+	 * 
+	 * @param percentile The percentile, between 0 and 100.
+	 * 
+	 * @return The upper bound of the bucket holding that percentile, in
+	 *         nanoseconds, or 0 before the first call.
+	 */
+	long getLatencyPercentileNanos(double percentile) {
+		long[] counts = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = histogram[i].sum();
+			total += counts[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+
+		long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(upperBound(i), getMaxLatencyNanos());
+			}
+		}
+		return getMaxLatencyNanos();
+	}
+
+	@Override
+	public long getCalls() {
+		return calls.sum();
+	}
+
+	@Override
+	public long getCharacters() {
+		return characters.sum();
+	}
+
+	@Override
+	public long getRejections() {
+		return rejections.sum();
+	}
+
+	@Override
+	public double getMeanLatencyNanos() {
+		long count = calls.sum();
+		return count == 0 ? 0 : (double) totalNanos.sum() / count;
+	}
+
+	@Override
+	public long getMedianLatencyNanos() {
+		return getLatencyPercentileNanos(50);
+	}
+
+	@Override
+	public long getLatency99thPercentileNanos() {
+		return getLatencyPercentileNanos(99);
+	}
+
+	@Override
+	public long getMaxLatencyNanos() {
+		return maxNanos.get();
+	}
+
+	@Override
+	public long getKeyBuilds() {
+		return keyBuilds.sum();
+	}
+
+	@Override
+	public double getMeanKeyBuildNanos() {
+		long count = keyBuilds.sum();
+		return count == 0 ? 0 : (double) keyBuildNanos.sum() / count;
+	}
+
+	@Override
+	public void reset() {
+		calls.reset();
+		characters.reset();
+		rejections.reset();
+		totalNanos.reset();
+		maxNanos.reset();
+		for (LongAdder bucket : histogram) {
+			bucket.reset();
+		}
+		keyBuilds.reset();
+		keyBuildNanos.reset();
+	}
+}
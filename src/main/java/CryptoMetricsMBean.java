@@ -0,0 +1,78 @@
+/**
+ * The management interface of {@link CryptoMetrics}, one instance per cipher,
+ * registered under CryptoManager:type=Metrics,cipher=NAME.
+ * 
+ * Latencies are in nanoseconds and come from a histogram whose buckets are
+ * within 1/8 of their value, so percentiles are accurate to about 12%.
+ */
+public interface CryptoMetricsMBean {
+
+	/**
+	 * Returns the number of encrypt and decrypt calls.
+	 * 
+	 * @return The call count.
+	 */
+	long getCalls();
+
+	/**
+	 * Returns the number of characters or bytes transformed by successful calls.
+	 * 
+	 * @return The character count.
+	 */
+	long getCharacters();
+
+	/**
+	 * Returns the number of calls that stopped at an out-of-bounds character or an
+	 * odd-length Playfair ciphertext.
+	 * 
+	 * @return The rejection count.
+	 */
+	long getRejections();
+
+	/**
+	 * Returns the mean call latency.
+	 * 
+	 * @return The mean in nanoseconds, or 0 before the first call.
+	 */
+	double getMeanLatencyNanos();
+
+	/**
+	 * Returns the median call latency.
+	 * 
+	 * @return The median in nanoseconds.
+	 */
+	long getMedianLatencyNanos();
+
+	/**
+	 * Returns the 99th percentile call latency.
+	 * 
+	 * @return The 99th percentile in nanoseconds.
+	 */
+	long getLatency99thPercentileNanos();
+
+	/**
+	 * Returns the longest call.
+	 * 
+	 * @return The maximum latency in nanoseconds.
+	 */
+	long getMaxLatencyNanos();
+
+	/**
+	 * Returns the number of keys compiled.
+	 * 
+	 * @return The key build count.
+	 */
+	long getKeyBuilds();
+
+	/**
+	 * Returns the mean time to compile a key.
+	 * 
+	 * @return The mean in nanoseconds, or 0 before the first key.
+	 */
+	double getMeanKeyBuildNanos();
+
+	/**
+	 * Clears every counter and the histogram.
+	 */
+	void reset();
+}
@@ -0,0 +1,425 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A small HTTP service exposing the ciphers to other processes on the same
+ * machine. It only listens on the loopback address.
+ * 
+ * <pre> POST /caesar|vigenere|playfair/encrypt|decrypt?key=KEY
+ * </pre>
+ * 
+ * The request body is the text, one byte per character. The response is 200
+ * with the result, 422 with the status and offset if the text is out of bounds
+ * or of odd length, 400 for a bad request or key, 413 for a body over the size
+ * limit, and 503 when the queue is full.
+ * 
+ * Requests are not run one by one. They wait in a bounded queue, and a
+ * dispatcher drains whatever has arrived, groups it by cipher and key, and runs
+ * each group as one {@link CryptoBatch} call, so the key is compiled once and
+ * the records are split across cores. A full queue turns new requests away
+ * instead of letting them pile up.
+ * 
+ * Handler threads only parse and queue a request; the response is sent when its
+ * result is ready, from a handler thread again, so waiting requests hold no
+ * thread, a slow client never holds up the dispatcher, and the queue, not the
+ * thread pool, is what fills up under load. A request that gets no result
+ * within {@link #RESULT_TIMEOUT_SECONDS} is answered with 503.
+ */
+public class CryptoServer implements AutoCloseable {
+
+	/** The port used by {@link #main(String[])} when none is given. */
+	public static final int DEFAULT_PORT = 8203;
+	/** The number of requests that may wait before the server answers 503. */
+	public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+	/** The largest request body accepted when no limit is given. */
+	public static final int DEFAULT_MAX_REQUEST_BYTES = 1 << 20;
+	/** The seconds a queued request may wait for its result. */
+	public static final int RESULT_TIMEOUT_SECONDS = 30;
+
+	// Upper bound on the requests taken from the queue in one pass
+	private static final int MAX_BATCH = 256;
+
+	private final HttpServer server;
+	private final ExecutorService handlers;
+	private final BlockingQueue<Job> queue;
+	private final CryptoBatch batch;
+	private final int maxRequestBytes;
+	private final Thread dispatcher = new Thread(this::dispatch, "crypto-dispatcher");
+
+	/**
+	 * Creates a server on the loopback address. Call {@link #start()} to accept
+	 * requests.
+	 * 
+	 * @param port          The port, or 0 for any free port.
+	 * @param queueCapacity The number of requests that may wait.
+	 * @param threads       The number of connection handler threads.
+	 * 
+	 * @throws IOException if the port cannot be bound.
+	 */
+	public CryptoServer(int port, int queueCapacity, int threads) throws IOException {
+		this(port, queueCapacity, threads, DEFAULT_MAX_REQUEST_BYTES);
+	}
+
+	/**
+	 * Creates a server on the loopback address with a request size limit. Call
+	 * {@link #start()} to accept requests.
+	 * 
+	 * @param port            The port, or 0 for any free port.
+	 * @param queueCapacity   The number of requests that may wait.
+	 * @param threads         The number of connection handler threads.
+	 * @param maxRequestBytes The largest request body accepted; larger ones get
+	 *                        413.
+	 * 
+	 * @throws IOException if the port cannot be bound.
+	 */
+	public CryptoServer(int port, int queueCapacity, int threads, int maxRequestBytes) throws IOException {
+		this(port, queueCapacity, threads, maxRequestBytes, new CryptoBatch());
+	}
+
+	/**
+	 * Creates a server that runs its batches on the given processor.
+	 * 
+	 * @param port            The port, or 0 for any free port.
+	 * @param queueCapacity   The number of requests that may wait.
+	 * @param threads         The number of connection handler threads.
+	 * @param maxRequestBytes The largest request body accepted.
+	 * @param batch           The batch processor; closed with the server.
+	 * 
+	 * @throws IOException              if the port cannot be bound.
+	 * @throws IllegalArgumentException if maxRequestBytes is negative or
+	 *                                  Integer.MAX_VALUE.
+	 */
+	CryptoServer(int port, int queueCapacity, int threads, int maxRequestBytes, CryptoBatch batch)
+			throws IOException {
+		if (maxRequestBytes < 0 || maxRequestBytes == Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Bad maximum request size: " + maxRequestBytes);
+		}
+		this.maxRequestBytes = maxRequestBytes;
+		this.batch = batch;
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+		this.handlers = Executors.newFixedThreadPool(threads);
+		this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		server.createContext("/", this::handle);
+		server.setExecutor(handlers);
+		dispatcher.setDaemon(true);
+	}
+
+	/**
+	 * Starts a server and runs until the process is stopped.
+	 * 
+	 * @param args An optional port number.
+	 * 
+	 * @throws IOException if the port cannot be bound.
+	 */
+	public static void main(String[] args) throws IOException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		CryptoServer server = new CryptoServer(port, DEFAULT_QUEUE_CAPACITY,
+				Runtime.getRuntime().availableProcessors() * 4);
+		server.start();
+		System.out.println("Listening on http://localhost:" + server.getPort() + "/");
+	}
+
+	/**
+	 * Starts accepting requests.
+	 */
+	public void start() {
+		dispatcher.start();
+		server.start();
+	}
+
+	/**
+	 * Returns the port the server is bound to.
+	 * 
+	 * @return The port.
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Returns the number of requests waiting for the dispatcher.
+	 * 
+	 * @return The queue length.
+	 */
+	int pending() {
+		return queue.size();
+	}
+
+	/**
+	 * Stops the server. Requests still waiting are answered with 503.
+	 */
+	@Override
+	public void close() {
+		dispatcher.interrupt();
+		List<Job> waiting = new ArrayList<>();
+		queue.drainTo(waiting);
+		for (Job job : waiting) {
+			job.result.completeExceptionally(new IllegalStateException("Server stopped"));
+		}
+		// Let the handlers send those 503s before the connections close
+		for (Job job : waiting) {
+			try {
+				job.response.get(1, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			} catch (ExecutionException | TimeoutException e) {
+				// Nothing more can be done for this client
+			}
+		}
+		server.stop(0);
+		handlers.shutdownNow();
+		batch.close();
+	}
+
+	/**
+	 * Handles one HTTP request on a handler thread: parses it and queues it. The
+	 * response is sent by {@link #complete(HttpExchange, CipherResult, Throwable)}
+	 * once the result is ready.
+	 * 
+	 * @param exchange The request and response.
+	 * 
+	 * @throws IOException if the response cannot be sent.
+	 */
+	private void handle(HttpExchange exchange) throws IOException {
+		if (!exchange.getRequestMethod().equals("POST")) {
+			try (exchange) {
+				respond(exchange, 405, "Use POST");
+			}
+			return;
+		}
+
+		// Read one byte past the limit, so a larger body is caught without storing it
+		byte[] body = exchange.getRequestBody().readNBytes(maxRequestBytes + 1);
+		if (body.length > maxRequestBytes) {
+			try (exchange) {
+				respond(exchange, 413, "The request body is over " + maxRequestBytes + " bytes");
+			}
+			return;
+		}
+
+		Job job;
+		try {
+			job = parse(exchange, body);
+		} catch (IllegalArgumentException e) {
+			try (exchange) {
+				respond(exchange, 400, e.getMessage());
+			}
+			return;
+		}
+
+		// Respond on a handler thread, never on the dispatcher or the timeout thread.
+		// Set up before the job is queued, so close() always finds it
+		job.response = job.result.orTimeout(RESULT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+				.whenCompleteAsync((result, failure) -> complete(exchange, result, failure), handlers);
+		if (!queue.offer(job)) {
+			job.result.completeExceptionally(new RejectedExecutionException("Server busy, try again"));
+		}
+	}
+
+	/**
+	 * Sends the response for a queued request and closes the exchange.
+	 * 
+	 * @param exchange The request and response.
+	 * @param result   The result, or null if the request failed.
+	 * @param failure  Why the request failed, or null.
+	 */
+	private static void complete(HttpExchange exchange, CipherResult result, Throwable failure) {
+		try (exchange) {
+			if (failure == null && result.isSuccess()) {
+				respond(exchange, 200, result.getText());
+			} else if (failure == null) {
+				respond(exchange, 422, result.toString());
+			} else if (failure instanceof TimeoutException) {
+				respond(exchange, 503, "Timed out, try again");
+			} else {
+				boolean badKey = failure instanceof IllegalArgumentException;
+				respond(exchange, badKey ? 400 : 503, failure.getMessage());
+			}
+		} catch (IOException e) {
+			// The client has gone; there is no one left to tell
+		}
+	}
+
+	/**
+	 * Builds a job from a request path, query and body.
+	 * 
+	 * @param exchange The request.
+	 * @param body     The request body, already read.
+	 * 
+	 * @return The job.
+	 * 
+	 * @throws IllegalArgumentException if the path or key is not valid.
+	 */
+	private static Job parse(HttpExchange exchange, byte[] body) {
+		String[] path = exchange.getRequestURI().getPath().split("/");
+		if (path.length != 3) {
+			throw new IllegalArgumentException("Expected /cipher/encrypt or /cipher/decrypt");
+		}
+		String cipher = path[1], mode = path[2];
+		if (!mode.equals("encrypt") && !mode.equals("decrypt")) {
+			throw new IllegalArgumentException("Unknown mode: " + mode);
+		}
+		boolean encrypt = mode.equals("encrypt");
+
+		String key = null;
+		String query = exchange.getRequestURI().getRawQuery();
+		if (query != null) {
+			for (String parameter : query.split("&")) {
+				if (parameter.startsWith("key=")) {
+					key = URLDecoder.decode(parameter.substring(4), StandardCharsets.UTF_8);
+				}
+			}
+		}
+		if (key == null) {
+			throw new IllegalArgumentException("Missing key parameter");
+		}
+		String keyword = key;
+
+		BatchOperation operation;
+		switch (cipher) {
+		case "caesar":
+			int shift = Integer.parseInt(key);
+			operation = encrypt ? (batch, texts) -> batch.caesarEncryption(texts, shift)
+					: (batch, texts) -> batch.caesarDecryption(texts, shift);
+			break;
+		case "vigenere":
+			operation = encrypt ? (batch, texts) -> batch.vigenereEncryption(texts, keyword)
+					: (batch, texts) -> batch.vigenereDecryption(texts, keyword);
+			break;
+		case "playfair":
+			operation = encrypt ? (batch, texts) -> batch.playfairEncryption(texts, keyword)
+					: (batch, texts) -> batch.playfairDecryption(texts, keyword);
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown cipher: " + cipher);
+		}
+
+		// One byte per character, so error offsets are byte offsets
+		String text = new String(body, StandardCharsets.ISO_8859_1);
+		return new Job(cipher + '/' + mode + '/' + key, operation, text);
+	}
+
+	/**
+	 * Sends a text response.
+	 * 
+	 * @param exchange The exchange.
+	 * @param status   The HTTP status code.
+	 * @param body     The response text.
+	 * 
+	 * @throws IOException if the response cannot be sent.
+	 */
+	private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.ISO_8859_1);
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=ISO-8859-1");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * Drains the queue and runs what it finds, one batch per cipher and key, until
+	 * the server is closed.
+	 */
+	private void dispatch() {
+		List<Job> jobs = new ArrayList<>();
+		while (true) {
+			try {
+				jobs.add(queue.take());
+			} catch (InterruptedException e) {
+				return;
+			}
+			queue.drainTo(jobs, MAX_BATCH - 1);
+
+			// Requests sharing a cipher and key become one batch, in arrival order
+			Map<String, List<Job>> groups = new LinkedHashMap<>();
+			for (Job job : jobs) {
+				groups.computeIfAbsent(job.batchKey, k -> new ArrayList<>()).add(job);
+			}
+			for (List<Job> group : groups.values()) {
+				run(group);
+			}
+			jobs.clear();
+		}
+	}
+
+	/**
+	 * Runs a group of jobs that share a cipher and key as one batch.
+	 * 
+	 * @param group The jobs.
+	 */
+	private void run(List<Job> group) {
+		List<String> texts = new ArrayList<>(group.size());
+		for (Job job : group) {
+			texts.add(job.text);
+		}
+
+		try {
+			List<CipherResult> results = group.get(0).operation.apply(batch, texts);
+			for (int i = 0; i < group.size(); i++) {
+				group.get(i).result.complete(results.get(i));
+			}
+		} catch (RuntimeException e) {
+			// A bad key fails every request that used it
+			for (Job job : group) {
+				job.result.completeExceptionally(e);
+			}
+		}
+	}
+
+	/**
+	 * One of the CryptoBatch methods with its key bound.
+	 */
+	@FunctionalInterface
+	private interface BatchOperation {
+
+		/**
+		 * Runs the batch.
+		 * 
+		 * @param batch The batch processor.
+		 * @param texts The request bodies.
+		 * 
+		 * @return One result per text.
+		 */
+		List<CipherResult> apply(CryptoBatch batch, List<String> texts);
+	}
+
+	/**
+	 * A queued request.
+	 */
+	private static class Job {
+
+		final String batchKey; // Cipher, mode and key; equal keys share a batch
+		final BatchOperation operation;
+		final String text;
+		final CompletableFuture<CipherResult> result = new CompletableFuture<>();
+		CompletableFuture<?> response; // Sends the result; set before the job is queued
+
+		Job(String batchKey, BatchOperation operation, String text) {
+			this.batchKey = batchKey;
+			this.operation = operation;
+			this.text = text;
+		}
+	}
+}
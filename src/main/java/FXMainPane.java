@@ -1,15 +1,41 @@
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.UnaryOperator;
+
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
+import javafx.util.Duration;
 
 public class FXMainPane extends BorderPane {
 
 	private TextField plainTextTextField, inputForEncryptionTextField, encryptedStringTextField3, decryptedTextField4;
 	private Label plainTextLabel, descriptionForInputLabel, encryptedLabel3, decryptedLabel4;
-	private RadioButton radioButton1, radioButton2, radioButton3;
-	private Button encryption, decryption, clearButton, exitButton;
+	private Button encryption, decryption, clearButton, exitButton, cancelButton;
+	private ProgressIndicator progressIndicator;
+	private ToggleGroup group;
+	private CheckBox livePreview;
+
+	// The preview is updated once typing pauses, re-encrypting only what changed
+	private final PauseTransition previewDelay = new PauseTransition(Duration.millis(150));
+	private IncrementalCipher preview; // null until built for the current cipher and key
+	private String previewText = "";
+
+	// Cipher work runs off the JavaFX Application Thread so a long text cannot
+	// freeze the window; one worker is enough since one job runs at a time
+	private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "cipher-worker");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private Task<String> currentTask;
 
 	public FXMainPane() {
 		buildUI();
@@ -31,19 +57,22 @@ public class FXMainPane extends BorderPane {
 		encryptedLabel3 = new Label("Encrypted string");
 		decryptedLabel4 = new Label("Decrypted string");
 
-		// Radio Buttons
-		radioButton1 = new RadioButton("Vigenere Cipher");
-		radioButton2 = new RadioButton("Playfair Cipher");
-		radioButton3 = new RadioButton("Caesar Cipher");
-
-		ToggleGroup group = new ToggleGroup();
-		radioButton1.setToggleGroup(group);
-		radioButton2.setToggleGroup(group);
-		radioButton3.setToggleGroup(group);
-		radioButton1.setSelected(true);
+		// Radio Buttons, one per registered cipher
+		group = new ToggleGroup();
+		HBox topBox = new HBox(20);
+		for (Cipher<?> cipher : CipherRegistry.ciphers()) {
+			RadioButton radioButton = new RadioButton(cipher.getName() + " Cipher");
+			radioButton.setUserData(cipher);
+			radioButton.setToggleGroup(group);
+			topBox.getChildren().add(radioButton);
+		}
+		group.getToggles().get(0).setSelected(true);
 
 		// Cipher Selection Box
-		HBox topBox = new HBox(20, radioButton1, radioButton2, radioButton3);
+		livePreview = new CheckBox("Live preview");
+		livePreview.setSelected(true);
+
+		topBox.getChildren().add(livePreview);
 		topBox.setAlignment(Pos.CENTER);
 		topBox.setPadding(inset);
 
@@ -61,8 +90,16 @@ public class FXMainPane extends BorderPane {
 		decryption = new Button("Decrypt");
 		clearButton = new Button("Clear");
 		exitButton = new Button("Exit");
+		cancelButton = new Button("Cancel");
+		cancelButton.setDisable(true);
+
+		// Shown only while a job is running
+		progressIndicator = new ProgressIndicator();
+		progressIndicator.setPrefSize(24, 24);
+		progressIndicator.setVisible(false);
 
-		HBox bottomBox = new HBox(20, encryption, decryption, clearButton, exitButton);
+		HBox bottomBox = new HBox(20, encryption, decryption, clearButton, exitButton, cancelButton,
+				progressIndicator);
 		bottomBox.setAlignment(Pos.CENTER);
 		bottomBox.setPadding(inset);
 
@@ -76,50 +113,163 @@ public class FXMainPane extends BorderPane {
 		exitButton.setOnAction(e -> Platform.exit());
 
 		clearButton.setOnAction(e -> {
+			cancel();
 			plainTextTextField.clear();
 			inputForEncryptionTextField.clear();
 			encryptedStringTextField3.clear();
 			decryptedTextField4.clear();
 		});
 
-		encryption.setOnAction(e -> {
+		cancelButton.setOnAction(e -> cancel());
+
+		encryption.setOnAction(e -> run(plainTextTextField, encryptedStringTextField3, true));
+
+		decryption.setOnAction(e -> run(encryptedStringTextField3, decryptedTextField4, false));
+
+		previewDelay.setOnFinished(e -> updatePreview());
+		plainTextTextField.textProperty().addListener((observable, oldText, newText) -> previewDelay.playFromStart());
+		// A new key or cipher needs a new engine
+		inputForEncryptionTextField.textProperty().addListener((observable, oldKey, newKey) -> resetPreview());
+		group.selectedToggleProperty().addListener((observable, oldToggle, newToggle) -> resetPreview());
+		livePreview.selectedProperty().addListener((observable, wasSelected, selected) -> resetPreview());
+	}
+
+	private void resetPreview() {
+		preview = null;
+		previewDelay.playFromStart();
+	}
+
+	private void updatePreview() {
+		// A running Encrypt job owns the output field
+		if (!livePreview.isSelected() || currentTask != null) {
+			return;
+		}
+
+		String text = plainTextTextField.getText();
+		if (preview == null) {
+			String key = inputForEncryptionTextField.getText();
+			if (key.isEmpty()) {
+				encryptedStringTextField3.clear();
+				return;
+			}
 			try {
-				String plain = plainTextTextField.getText().toUpperCase();
-				String key = inputForEncryptionTextField.getText().toUpperCase();
-				String result = "";
-
-				if (radioButton1.isSelected()) {
-					result = CryptoManager.vigenereEncryption(plain, key);
-				} else if (radioButton2.isSelected()) {
-					result = CryptoManager.playfairEncryption(plain, key);
-				} else {
-					int shift = Integer.parseInt(key);
-					result = CryptoManager.caesarEncryption(plain, shift);
-				}
-				encryptedStringTextField3.setText(result);
+				preview = preview(selectedCipher(), key);
 			} catch (Exception ex) {
 				encryptedStringTextField3.setText("Error: " + ex.getMessage());
+				return;
 			}
+			previewText = "";
+		}
+
+		// Everything between the common prefix and suffix is one edit
+		int prefix = 0, common = Math.min(previewText.length(), text.length());
+		while (prefix < common && previewText.charAt(prefix) == text.charAt(prefix)) {
+			prefix++;
+		}
+		int suffix = 0;
+		while (suffix < common - prefix && previewText.charAt(previewText.length() - 1 - suffix) == text
+				.charAt(text.length() - 1 - suffix)) {
+			suffix++;
+		}
+		preview.replace(prefix, previewText.length() - suffix, text.subSequence(prefix, text.length() - suffix));
+		previewText = text;
+
+		CipherResult result = preview.getResult();
+		encryptedStringTextField3.setText(result.isSuccess() ? result.getText()
+				: "Error: " + CryptoManager.NOT_IN_BOUNDS + " (" + result + ")");
+	}
+
+	private Cipher<?> selectedCipher() {
+		return (Cipher<?>) group.getSelectedToggle().getUserData();
+	}
+
+	private static <K> IncrementalCipher preview(Cipher<K> cipher, String key) {
+		return cipher.incrementalEncryption(cipher.compile(key, Alphabet.CASE_FOLDING));
+	}
+
+	private void run(TextField input, TextField output, boolean encrypt) {
+		// Lower case is folded by the cipher as it reads, with no upper-cased copy
+		String text = input.getText();
+		String key = inputForEncryptionTextField.getText();
+		UnaryOperator<Writer> cipher;
+
+		// The key is checked here, so a bad key is reported without starting a job
+		try {
+			cipher = writer(selectedCipher(), key, encrypt);
+		} catch (Exception ex) {
+			output.setText("Error: " + ex.getMessage());
+			return;
+		}
+
+		Task<String> task = new CipherTask(text, cipher);
+		task.setOnSucceeded(e -> {
+			output.setText(task.getValue());
+			finished();
+		});
+		task.setOnFailed(e -> {
+			output.setText("Error: " + task.getException().getMessage());
+			finished();
 		});
+		task.setOnCancelled(e -> finished());
 
-		decryption.setOnAction(e -> {
-			try {
-				String encrypted = encryptedStringTextField3.getText().toUpperCase();
-				String key = inputForEncryptionTextField.getText().toUpperCase();
-				String result = "";
-
-				if (radioButton1.isSelected()) {
-					result = CryptoManager.vigenereDecryption(encrypted, key);
-				} else if (radioButton2.isSelected()) {
-					result = CryptoManager.playfairDecryption(encrypted, key);
-				} else {
-					int shift = Integer.parseInt(key);
-					result = CryptoManager.caesarDecryption(encrypted, shift);
+		currentTask = task;
+		progressIndicator.progressProperty().bind(task.progressProperty());
+		setRunning(true);
+		worker.execute(task);
+	}
+
+	private static <K> UnaryOperator<Writer> writer(Cipher<K> cipher, String key, boolean encrypt) {
+		K compiled = cipher.compile(key, Alphabet.CASE_FOLDING);
+		return out -> encrypt ? cipher.encryptingWriter(out, compiled) : cipher.decryptingWriter(out, compiled);
+	}
+
+	private void cancel() {
+		if (currentTask != null) {
+			currentTask.cancel();
+		}
+	}
+
+	private void finished() {
+		currentTask = null;
+		progressIndicator.progressProperty().unbind();
+		setRunning(false);
+	}
+
+	private void setRunning(boolean running) {
+		encryption.setDisable(running);
+		decryption.setDisable(running);
+		cancelButton.setDisable(!running);
+		progressIndicator.setVisible(running);
+	}
+
+	// Runs a cipher over the text in chunks, reporting progress and stopping
+	// between chunks once cancelled
+	private static class CipherTask extends Task<String> {
+
+		private static final int CHUNK_SIZE = 64 * 1024;
+
+		private final String text;
+		private final UnaryOperator<Writer> cipher;
+
+		CipherTask(String text, UnaryOperator<Writer> cipher) {
+			this.text = text;
+			this.cipher = cipher;
+		}
+
+		@Override
+		protected String call() throws IOException {
+			StringWriter result = new StringWriter(text.length() + 1);
+			try (Writer writer = cipher.apply(result)) {
+				for (int i = 0; i < text.length(); i += CHUNK_SIZE) {
+					if (isCancelled()) {
+						return null;
+					}
+					int length = Math.min(CHUNK_SIZE, text.length() - i);
+					writer.write(text, i, length);
+					updateProgress(i + length, text.length());
 				}
-				decryptedTextField4.setText(result);
-			} catch (Exception ex) {
-				decryptedTextField4.setText("Error: " + ex.getMessage());
 			}
-		});
+			return result.toString();
+		}
 	}
 }
@@ -0,0 +1,250 @@
+import java.util.Objects;
+
+/**
+ * Keeps the encryption of an editable text up to date, re-encrypting only what
+ * an edit can change.
+ * 
+ * Caesar and Vigenere encrypt each character on its own, given its key
+ * position, so an edit re-encrypts just the inserted characters as long as the
+ * characters after it keep their key positions (a length change that is a
+ * multiple of the key length, which is always true for Caesar). Playfair
+ * encrypts aligned pairs, so an edit re-encrypts the pairs it touches as long as
+ * the length changes by an even amount. Any other edit re-encrypts from the
+ * edit to the end, which is still the least work that gives the right answer.
+ * 
+ * Out-of-bounds characters are counted rather than rejected, so the text can be
+ * edited back into bounds; {@link #getResult()} reports the first one.
+ * 
+ * Not thread safe.
+ */
+public final class IncrementalCipher {
+
+	private final ShiftSchedule schedule; // null for Playfair
+	private final PlayfairKey playfairKey;
+	// Index of each input character in the key's alphabet, -1 if out of bounds
+	private final short[] indexes;
+	// Edits whose length change is a multiple of this leave the rest in place
+	private final int period;
+
+	private char[] plainText = new char[16];
+	private char[] cipherText = new char[16];
+	private int length;
+	private int outOfBounds; // Number of out-of-bounds characters in plainText
+
+	/**
+	 * Creates an engine for a Caesar or Vigenere schedule.
+	 * 
+	 * @param schedule The encryption schedule.
+	 */
+	private IncrementalCipher(ShiftSchedule schedule) {
+		this.schedule = schedule;
+		this.playfairKey = null;
+		this.indexes = schedule.indexes;
+		this.period = schedule.length();
+	}
+
+	/**
+	 * Creates an engine for a Playfair key.
+	 * 
+	 * @param key The compiled Playfair key.
+	 */
+	private IncrementalCipher(PlayfairKey key) {
+		this.schedule = null;
+		this.playfairKey = key;
+		this.indexes = key.indexes();
+		this.period = 2;
+	}
+
+	/**
+	 * Creates an empty Caesar encryption engine.
+	 * 
+	 * @param key The integer shift value.
+	 * 
+	 * @return The engine.
+	 */
+	public static IncrementalCipher caesarEncryption(int key) {
+		return new IncrementalCipher(CaesarKey.of(key).encryptSchedule());
+	}
+
+	/**
+	 * Creates an empty Caesar encryption engine with a precompiled key.
+	 * 
+	 * @param key The compiled Caesar key.
+	 * 
+	 * @return The engine.
+	 */
+	public static IncrementalCipher caesarEncryption(CaesarKey key) {
+		return new IncrementalCipher(key.encryptSchedule());
+	}
+
+	/**
+	 * Creates an empty Vigenere encryption engine.
+	 * 
+	 * @param key The compiled Vigenere key.
+	 * 
+	 * @return The engine.
+	 */
+	public static IncrementalCipher vigenereEncryption(VigenereKey key) {
+		return new IncrementalCipher(key.encryptSchedule());
+	}
+
+	/**
+	 * Creates an empty Playfair encryption engine.
+	 * 
+	 * @param key The compiled Playfair key.
+	 * 
+	 * @return The engine.
+	 */
+	public static IncrementalCipher playfairEncryption(PlayfairKey key) {
+		return new IncrementalCipher(key);
+	}
+
+	/**
+	 * Replaces a range of the plaintext and updates the ciphertext.
+	 * 
+	 * @param start The index of the first character replaced.
+	 * @param end   The index after the last character replaced.
+	 * @param text  The replacement text (empty to delete).
+	 * 
+	 * @throws IndexOutOfBoundsException if the range is not within the text.
+	 */
+	public void replace(int start, int end, CharSequence text) {
+		Objects.checkFromToIndex(start, end, length);
+		int inserted = text.length();
+		int delta = inserted - (end - start);
+		int newLength = length + delta;
+
+		for (int i = start; i < end; i++) {
+			if (!isInBounds(plainText[i])) {
+				outOfBounds--;
+			}
+		}
+
+		if (newLength + 1 > plainText.length) {
+			int capacity = Math.max(newLength + 1, plainText.length * 2);
+			char[] plain = new char[capacity];
+			char[] cipher = new char[capacity];
+			System.arraycopy(plainText, 0, plain, 0, length);
+			System.arraycopy(cipherText, 0, cipher, 0, length + (length & 1));
+			plainText = plain;
+			cipherText = cipher;
+		}
+
+		// Move the text after the edit; its ciphertext moves with it
+		System.arraycopy(plainText, end, plainText, start + inserted, length - end);
+		System.arraycopy(cipherText, end, cipherText, start + inserted, length - end + (length & 1));
+		for (int i = 0; i < inserted; i++) {
+			char ch = text.charAt(i);
+			plainText[start + i] = ch;
+			if (!isInBounds(ch)) {
+				outOfBounds++;
+			}
+		}
+		length = newLength;
+
+		// Playfair pairs start on even indexes
+		int from = schedule == null ? start & ~1 : start;
+		int to = start + inserted;
+		if (schedule == null) {
+			to += to & 1;
+		}
+		if (delta % period != 0 || to > length) {
+			// Key positions or pairs after the edit have moved
+			to = length;
+		}
+		encrypt(from, to);
+	}
+
+	/**
+	 * Replaces the whole plaintext.
+	 * 
+	 * @param text The new plaintext.
+	 */
+	public void setText(CharSequence text) {
+		replace(0, length, text);
+	}
+
+	/**
+	 * Returns the number of plaintext characters.
+	 * 
+	 * @return The plaintext length.
+	 */
+	public int length() {
+		return length;
+	}
+
+	/**
+	 * Returns the current plaintext.
+	 * 
+	 * @return The plaintext.
+	 */
+	public String getPlainText() {
+		return new String(plainText, 0, length);
+	}
+
+	/**
+	 * Returns the current ciphertext, or the first out-of-bounds character.
+	 * 
+	 * @return The result; on success the same text the one-shot String method
+	 *         would return.
+	 */
+	public CipherResult getResult() {
+		if (outOfBounds > 0) {
+			for (int i = 0; i < length; i++) {
+				if (!isInBounds(plainText[i])) {
+					return CipherResult.outOfBounds(i);
+				}
+			}
+		}
+		int cipherLength = schedule == null ? length + (length & 1) : length;
+		return CipherResult.success(new String(cipherText, 0, cipherLength));
+	}
+
+	/**
+	 * Re-encrypts a range of the plaintext. Out-of-bounds characters are copied
+	 * through unchanged; they are reported by {@link #getResult()}.
+	 * 
+	 * @param from The index of the first character (even for Playfair).
+	 * @param to   The index after the last character.
+	 */
+	private void encrypt(int from, int to) {
+		if (schedule != null) {
+			char[][] rows = schedule.rows;
+			int keyIndex = from % rows.length;
+			for (int i = from; i < to; i++) {
+				char ch = plainText[i];
+				int index = ch < indexes.length ? indexes[ch] : -1;
+				cipherText[i] = index >= 0 ? rows[keyIndex][index] : ch;
+				if (++keyIndex == rows.length) {
+					keyIndex = 0;
+				}
+			}
+			return;
+		}
+
+		for (int i = from; i < to; i += 2) {
+			char a = plainText[i];
+			// An odd last character is padded with a space
+			char b = i + 1 < length ? plainText[i + 1] : ' ';
+			if (isInBounds(a) && isInBounds(b)) {
+				int pair = CryptoManager.encryptPair(a, b, playfairKey);
+				cipherText[i] = (char) (pair >>> 16);
+				cipherText[i + 1] = (char) pair;
+			} else {
+				cipherText[i] = a;
+				cipherText[i + 1] = b;
+			}
+		}
+	}
+
+	/**
+	 * Checks if a single character is in the key's alphabet, after folding.
+	 * 
+	 * @param ch The character to check.
+	 * 
+	 * @return true if the character can be encrypted, false otherwise.
+	 */
+	private boolean isInBounds(char ch) {
+		return ch < indexes.length && indexes[ch] >= 0;
+	}
+}
@@ -0,0 +1,178 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A bounded, least-recently-used cache of compiled keys, looked up by the key
+ * string.
+ * 
+ * The String-key methods of {@link CryptoManager} go through one of these, so a
+ * key that is used again skips compiling its Playfair matrix or Vigenere
+ * schedule. When the cache is full, the key used least recently is dropped.
+ * 
+ * All methods are thread safe. Lookups take a lock on the cache, but a key is
+ * compiled outside it, so two threads missing on the same key may both compile
+ * it; the first result is kept. The counters can be read at any time without
+ * the lock.
+ * 
+ * @param <V> The compiled key type.
+ */
+public final class KeyCache<V> {
+
+	/** The maximum size each cache starts with. */
+	public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+	private final Function<String, V> compiler;
+	private final Map<String, V> entries;
+	private int maximumSize; // Guarded by this
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * Creates an empty cache.
+	 * 
+	 * @param compiler    Compiles a key on a miss; may throw for an invalid key,
+	 *                    which is then not cached.
+	 * @param maximumSize The maximum number of keys kept.
+	 */
+	KeyCache(Function<String, V> compiler, int maximumSize) {
+		checkSize(maximumSize);
+		this.compiler = compiler;
+		this.maximumSize = maximumSize;
+		// Access order: every get moves the entry to the most recently used end
+		this.entries = new LinkedHashMap<String, V>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+				if (size() > KeyCache.this.maximumSize) {
+					evictions.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Returns the compiled form of a key, compiling and caching it on a miss.
+	 * 
+	 * @param key The key string.
+	 * 
+	 * @return The compiled key.
+	 */
+	public V get(String key) {
+		synchronized (this) {
+			V compiled = entries.get(key);
+			if (compiled != null) {
+				hits.increment();
+				return compiled;
+			}
+		}
+
+		// Compile without the lock, so a slow key does not stall lookups of others
+		misses.increment();
+		V compiled = compiler.apply(key);
+		synchronized (this) {
+			// Another thread may have compiled the same key meanwhile; keep the first
+			V existing = entries.putIfAbsent(key, compiled);
+			return existing != null ? existing : compiled;
+		}
+	}
+
+	/**
+	 * Returns the maximum number of keys kept.
+	 * 
+	 * @return The maximum size.
+	 */
+	public synchronized int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * Changes the maximum number of keys kept. Shrinking the cache evicts the least
+	 * recently used keys right away.
+	 * 
+	 * @param maximumSize The new maximum size.
+	 * 
+	 * @throws IllegalArgumentException if maximumSize is not positive.
+	 */
+	public synchronized void setMaximumSize(int maximumSize) {
+		checkSize(maximumSize);
+		this.maximumSize = maximumSize;
+
+		int excess = entries.size() - maximumSize;
+		Iterator<String> eldest = entries.keySet().iterator();
+		for (; excess > 0; excess--) {
+			eldest.next();
+			eldest.remove();
+			evictions.increment();
+		}
+	}
+
+	/**
+	 * Returns the number of keys in the cache.
+	 * 
+	 * @return The current size.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Removes every key. The counters are not reset.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Returns the number of lookups that found their key in the cache.
+	 * 
+	 * @return The hit count.
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * Returns the number of lookups that had to compile their key.
+	 * 
+	 * @return The miss count.
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * Returns the number of keys dropped to stay within the maximum size.
+	 * 
+	 * @return The eviction count.
+	 */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "KeyCache[size=" + size() + ", hits=" + getHitCount() + ", misses=" + getMissCount() + ", evictions="
+				+ getEvictionCount() + "]";
+	}
+
+	/**
+	 * Validates a maximum size.
+	 * 
+	 * @param maximumSize The maximum size.
+	 * 
+	 * @throws IllegalArgumentException if maximumSize is not positive.
+	 */
+	private static void checkSize(int maximumSize) {
+		if (maximumSize <= 0) {
+			throw new IllegalArgumentException("The maximum size must be positive: " + maximumSize);
+		}
+	}
+}
@@ -0,0 +1,374 @@
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Recovers Caesar shifts and Vigenere keys from ciphertext alone, assuming the
+ * plaintext is upper-case English over the 64-character alphabet.
+ * 
+ * 1. The ciphertext is counted into one 64-bin histogram per key position, for
+ * every key length up to the maximum, in a single pass split across a fork-join
+ * pool. This is the only work proportional to the text.
+ * 
+ * 2. The key length is the one that best explains both the index of coincidence
+ * (each column of the right length looks like a shifted English histogram) and
+ * the Kasiski examination (distances between repeated trigrams are multiples of
+ * it). A divisor of the key length scores low on the first; a multiple scores
+ * low on the second.
+ * 
+ * 3. Each key position is solved on its own, as a Caesar shift: every one of
+ * the 64 shifts is scored by the log-likelihood of the histogram under an
+ * English character model, and the best one wins.
+ * 
+ * Scoring works on the int[64] histograms alone and allocates nothing per
+ * candidate, so once the text is counted the rest takes microseconds.
+ */
+public class KeyRecovery implements AutoCloseable {
+
+	/** The longest Vigenere key tried when none is given. */
+	public static final int DEFAULT_MAX_KEY_LENGTH = 32;
+
+	// Natural log of the probability of each character in upper-case English text
+	private static final double[] LOG_PROBABILITY = new double[CryptoManager.RANGE];
+	// Index of coincidence of English text and of uniformly random text
+	private static final double ENGLISH_IOC;
+	private static final double RANDOM_IOC = 1.0 / CryptoManager.RANGE;
+
+	// Texts are split until pieces are about this long
+	private static final int LEAF_SIZE = 1 << 16;
+	// Kasiski looks at trigrams, 64^3 of them
+	private static final int TRIGRAMS = CryptoManager.RANGE * CryptoManager.RANGE * CryptoManager.RANGE;
+
+	static {
+		// Letter frequencies in percent, with space and common punctuation
+		double[] weights = new double[CryptoManager.RANGE];
+		double[] letters = { 8.17, 1.49, 2.78, 4.25, 12.70, 2.23, 2.02, 6.09, 6.97, 0.15, 0.77, 4.03, 2.41, 6.75, 7.51,
+				1.93, 0.10, 5.99, 6.33, 9.06, 2.76, 0.98, 2.36, 0.15, 1.97, 0.07 };
+		for (int i = 0; i < letters.length; i++) {
+			weights['A' + i - CryptoManager.LOWER_RANGE] = letters[i];
+		}
+		weights[' ' - CryptoManager.LOWER_RANGE] = 20;
+		for (char ch : ".,".toCharArray()) {
+			weights[ch - CryptoManager.LOWER_RANGE] = 0.6;
+		}
+		for (char ch : "'\"-".toCharArray()) {
+			weights[ch - CryptoManager.LOWER_RANGE] = 0.2;
+		}
+		for (char ch = '0'; ch <= '9'; ch++) {
+			weights[ch - CryptoManager.LOWER_RANGE] = 0.1;
+		}
+
+		double total = 0;
+		for (int i = 0; i < weights.length; i++) {
+			// Anything else is rare but possible
+			weights[i] = Math.max(weights[i], 0.01);
+			total += weights[i];
+		}
+		double ioc = 0;
+		for (int i = 0; i < weights.length; i++) {
+			double p = weights[i] / total;
+			LOG_PROBABILITY[i] = Math.log(p);
+			ioc += p * p;
+		}
+		ENGLISH_IOC = ioc;
+	}
+
+	private final ForkJoinPool pool;
+	private final int maxKeyLength;
+
+	/**
+	 * Creates a recovery engine using every available core.
+	 */
+	public KeyRecovery() {
+		this(Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_KEY_LENGTH);
+	}
+
+	/**
+	 * Creates a recovery engine.
+	 * 
+	 * @param parallelism  The number of worker threads.
+	 * @param maxKeyLength The longest Vigenere key to consider.
+	 */
+	public KeyRecovery(int parallelism, int maxKeyLength) {
+		if (maxKeyLength <= 0) {
+			throw new IllegalArgumentException("The maximum key length must be positive: " + maxKeyLength);
+		}
+		this.pool = new ForkJoinPool(parallelism);
+		this.maxKeyLength = maxKeyLength;
+	}
+
+	/**
+	 * Finds the shift that decrypts Caesar ciphertext.
+	 * 
+	 * @param ciphertext The text encrypted with {@link
+	 *                   CryptoManager#caesarEncryption(String, int)}.
+	 * 
+	 * @return The shift, between 0 and 63; decrypting with it gives the most
+	 *         English-like text.
+	 * 
+	 * @throws IllegalArgumentException if the text is out of bounds.
+	 */
+	public int recoverCaesarShift(String ciphertext) {
+		return bestShift(count(ciphertext, 1), 0);
+	}
+
+	/**
+	 * Finds the shift that decrypts Caesar ciphertext stored as ASCII bytes.
+	 * 
+	 * @param ciphertext The encrypted bytes.
+	 * 
+	 * @return The shift, between 0 and 63.
+	 * 
+	 * @throws IllegalArgumentException if the text is out of bounds.
+	 */
+	public int recoverCaesarShift(byte[] ciphertext) {
+		return recoverCaesarShift(new String(ciphertext, StandardCharsets.ISO_8859_1));
+	}
+
+	/**
+	 * Finds the key that decrypts Vigenere ciphertext.
+	 * 
+	 * @param ciphertext The text encrypted with {@link
+	 *                   CryptoManager#vigenereEncryption(String, String)}.
+	 * 
+	 * @return The key.
+	 * 
+	 * @throws IllegalArgumentException if the text is out of bounds.
+	 */
+	public String recoverVigenereKey(String ciphertext) {
+		int maxLength = Math.max(1, Math.min(maxKeyLength, ciphertext.length() / 2));
+		int[] histograms = count(ciphertext, maxLength);
+		int keyLength = keyLength(ciphertext, histograms, maxLength);
+
+		char[] key = new char[keyLength];
+		int base = offset(keyLength);
+		for (int column = 0; column < keyLength; column++) {
+			key[column] = (char) (CryptoManager.LOWER_RANGE
+					+ bestShift(histograms, base + column * CryptoManager.RANGE));
+		}
+		return new String(key);
+	}
+
+	/**
+	 * Finds the key that decrypts Vigenere ciphertext stored as ASCII bytes.
+	 * 
+	 * @param ciphertext The encrypted bytes.
+	 * 
+	 * @return The key.
+	 * 
+	 * @throws IllegalArgumentException if the text is out of bounds.
+	 */
+	public String recoverVigenereKey(byte[] ciphertext) {
+		return recoverVigenereKey(new String(ciphertext, StandardCharsets.ISO_8859_1));
+	}
+
+	/**
+	 * Estimates the length of the key that encrypted Vigenere ciphertext.
+	 * 
+	 * @param ciphertext The encrypted text.
+	 * 
+	 * @return The estimated key length, at least 1.
+	 * 
+	 * @throws IllegalArgumentException if the text is out of bounds.
+	 */
+	public int estimateKeyLength(String ciphertext) {
+		int maxLength = Math.max(1, Math.min(maxKeyLength, ciphertext.length() / 2));
+		return keyLength(ciphertext, count(ciphertext, maxLength), maxLength);
+	}
+
+	/**
+	 * Shuts the worker threads down.
+	 */
+	@Override
+	public void close() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Counts a text into histograms for every key length, in parallel.
+	 * 
+	 * @param text      The ciphertext.
+	 * @param maxLength The longest key length.
+	 * 
+	 * @return The histograms: for key length L, column c, character i, the count is
+	 *         at offset(L) + c * 64 + i.
+	 */
+	private int[] count(String text, int maxLength) {
+		return pool.invoke(new CountTask(text, 0, text.length(), maxLength));
+	}
+
+	/**
+	 * Returns where the histograms of a key length start.
+	 * 
+	 * @param keyLength The key length.
+	 * 
+	 * @return The offset of column 0.
+	 */
+	private static int offset(int keyLength) {
+		// Lengths 1 .. keyLength - 1 come first, with one histogram per column
+		return keyLength * (keyLength - 1) / 2 * CryptoManager.RANGE;
+	}
+
+	/**
+	 * Picks the key length from the index of coincidence and Kasiski counts.
+	 * 
+	 * @param text       The ciphertext.
+	 * @param histograms The histograms from {@link #count(String, int)}.
+	 * @param maxLength  The longest key length counted.
+	 * 
+	 * @return The key length.
+	 */
+	private static int keyLength(String text, int[] histograms, int maxLength) {
+		long[] kasiski = kasiski(text, maxLength);
+
+		int best = 1;
+		double bestScore = -1;
+		for (int length = 1; length <= maxLength; length++) {
+			// 0 for random-looking columns, 1 for English-looking ones
+			double ioc = (indexOfCoincidence(histograms, length) - RANDOM_IOC) / (ENGLISH_IOC - RANDOM_IOC);
+			// The share of repeat distances this length divides; 1 if no repeats
+			double share = kasiski[1] == 0 ? 1 : (double) kasiski[length] / kasiski[1];
+			double score = Math.max(ioc, 0) * share;
+			// A longer key must do clearly better, since its multiples tie with it
+			if (score > bestScore * 1.1) {
+				best = length;
+				bestScore = score;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Returns the mean index of coincidence of the columns of a key length.
+	 * 
+	 * @param histograms The histograms.
+	 * @param length     The key length.
+	 * 
+	 * @return The mean probability that two characters of a column match.
+	 */
+	private static double indexOfCoincidence(int[] histograms, int length) {
+		double sum = 0;
+		int base = offset(length);
+		for (int column = 0; column < length; column++) {
+			long pairs = 0, total = 0;
+			for (int i = 0; i < CryptoManager.RANGE; i++) {
+				long count = histograms[base + column * CryptoManager.RANGE + i];
+				pairs += count * (count - 1);
+				total += count;
+			}
+			sum += total < 2 ? RANDOM_IOC : (double) pairs / (total * (total - 1));
+		}
+		return sum / length;
+	}
+
+	/**
+	 * Runs the Kasiski examination: for every repeated trigram, counts the key
+	 * lengths that divide the distance to its previous occurrence.
+	 * 
+	 * @param text      The ciphertext.
+	 * @param maxLength The longest key length.
+	 * 
+	 * @return For each key length, the number of distances it divides; entry 1 is
+	 *         the number of repeats.
+	 */
+	private static long[] kasiski(String text, int maxLength) {
+		long[] counts = new long[maxLength + 1];
+		int[] last = new int[TRIGRAMS]; // Position + 1 of the last occurrence, 0 if none
+		int trigram = 0;
+		for (int i = 0; i < text.length(); i++) {
+			trigram = (trigram * CryptoManager.RANGE + text.charAt(i) - CryptoManager.LOWER_RANGE) % TRIGRAMS;
+			if (i < 2) {
+				continue;
+			}
+			int previous = last[trigram];
+			if (previous != 0) {
+				int distance = i + 1 - previous;
+				for (int length = 1; length <= maxLength; length++) {
+					if (distance % length == 0) {
+						counts[length]++;
+					}
+				}
+			}
+			last[trigram] = i + 1;
+		}
+		return counts;
+	}
+
+	/**
+	 * Finds the shift under which a histogram is most likely English.
+	 * 
+	 * @param histograms The histograms.
+	 * @param base       The offset of the 64 counts to score.
+	 * 
+	 * @return The shift, between 0 and 63.
+	 */
+	private static int bestShift(int[] histograms, int base) {
+		int best = 0;
+		double bestScore = Double.NEGATIVE_INFINITY;
+		for (int shift = 0; shift < CryptoManager.RANGE; shift++) {
+			// Ciphertext character i came from plaintext character i - shift
+			double score = 0;
+			for (int i = 0; i < CryptoManager.RANGE; i++) {
+				score += histograms[base + i] * LOG_PROBABILITY[i - shift & CryptoManager.RANGE - 1];
+			}
+			if (score > bestScore) {
+				best = shift;
+				bestScore = score;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Counts a range of the text, splitting it while it is long.
+	 */
+	private static class CountTask extends RecursiveTask<int[]> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String text;
+		private final int from, to, maxLength;
+
+		CountTask(String text, int from, int to, int maxLength) {
+			this.text = text;
+			this.from = from;
+			this.to = to;
+			this.maxLength = maxLength;
+		}
+
+		@Override
+		protected int[] compute() {
+			if (to - from > LEAF_SIZE) {
+				int middle = (from + to) >>> 1;
+				CountTask right = new CountTask(text, middle, to, maxLength);
+				right.fork();
+				int[] counts = new CountTask(text, from, middle, maxLength).compute();
+				int[] other = right.join();
+				for (int i = 0; i < counts.length; i++) {
+					counts[i] += other[i];
+				}
+				return counts;
+			}
+
+			int[] counts = new int[offset(maxLength + 1)];
+			// The key position of this piece's first character, for each key length
+			int[] columns = new int[maxLength + 1];
+			for (int length = 1; length <= maxLength; length++) {
+				columns[length] = from % length;
+			}
+			for (int i = from; i < to; i++) {
+				int index = text.charAt(i) - CryptoManager.LOWER_RANGE;
+				if (index < 0 || index >= CryptoManager.RANGE) {
+					throw new IllegalArgumentException(CryptoManager.NOT_IN_BOUNDS + " (offset " + i + ")");
+				}
+				for (int length = 1; length <= maxLength; length++) {
+					counts[offset(length) + columns[length] * CryptoManager.RANGE + index]++;
+					if (++columns[length] == length) {
+						columns[length] = 0;
+					}
+				}
+			}
+			return counts;
+		}
+	}
+}
@@ -0,0 +1,122 @@
+/**
+ * A compiled change of key for Caesar or Vigenere ciphertext.
+ * 
+ * Decrypting with the old key and encrypting with the new one are both shifts
+ * mod 64, so the two compose into a single shift per position: the new key's
+ * shift minus the old key's. The combined schedule repeats every lcm(m, n)
+ * positions for key lengths m and n, and is applied in one pass by the same
+ * loops as the ciphers themselves, with no intermediate plaintext. A Caesar key
+ * is a key of length one, so Caesar to Vigenere migration is the same
+ * operation.
+ * 
+ * Instances are immutable and can be shared freely between threads.
+ */
+public final class KeyRotation {
+
+	/** The longest combined period; the schedule holds a row per position. */
+	public static final int MAX_PERIOD = 1 << 16;
+
+	private final ShiftSchedule schedule;
+
+	/**
+	 * Combines two encryption schedules.
+	 * 
+	 * @param from    The schedule the text is encrypted with now.
+	 * @param to      The schedule to encrypt it with instead.
+	 * @param metrics The metrics of the target cipher.
+	 * 
+	 * @throws IllegalArgumentException if the combined period exceeds {@link
+	 *                                  #MAX_PERIOD}.
+	 */
+	private KeyRotation(ShiftSchedule from, ShiftSchedule to, CryptoMetrics metrics) {
+		int m = from.length(), n = to.length();
+		long period = (long) m / gcd(m, n) * n;
+		if (period > MAX_PERIOD) {
+			throw new IllegalArgumentException("The combined key period " + period + " is too long");
+		}
+
+		int[] shifts = new int[(int) period];
+		for (int p = 0; p < shifts.length; p++) {
+			shifts[p] = (to.shifts[p % n] - from.shifts[p % m] + CryptoManager.RANGE) % CryptoManager.RANGE;
+		}
+		this.schedule = new ShiftSchedule(shifts, metrics);
+	}
+
+	/**
+	 * Compiles a change from one Vigenere key to another.
+	 * 
+	 * @param from The key the text is encrypted with now.
+	 * @param to   The key to encrypt it with instead.
+	 * 
+	 * @return The rotation.
+	 * 
+	 * @throws IllegalArgumentException if the combined period exceeds {@link
+	 *                                  #MAX_PERIOD}.
+	 */
+	public static KeyRotation of(VigenereKey from, VigenereKey to) {
+		return new KeyRotation(from.encryptSchedule(), to.encryptSchedule(), CryptoMetrics.VIGENERE);
+	}
+
+	/**
+	 * Compiles a migration from a Caesar key to a Vigenere key.
+	 * 
+	 * @param from The key the text is encrypted with now.
+	 * @param to   The key to encrypt it with instead.
+	 * 
+	 * @return The rotation.
+	 */
+	public static KeyRotation of(CaesarKey from, VigenereKey to) {
+		return new KeyRotation(from.encryptSchedule(), to.encryptSchedule(), CryptoMetrics.VIGENERE);
+	}
+
+	/**
+	 * Compiles a migration from a Vigenere key to a Caesar key.
+	 * 
+	 * @param from The key the text is encrypted with now.
+	 * @param to   The key to encrypt it with instead.
+	 * 
+	 * @return The rotation.
+	 */
+	public static KeyRotation of(VigenereKey from, CaesarKey to) {
+		return new KeyRotation(from.encryptSchedule(), to.encryptSchedule(), CryptoMetrics.CAESAR);
+	}
+
+	/**
+	 * Compiles a change from one Caesar key to another.
+	 * 
+	 * @param from The key the text is encrypted with now.
+	 * @param to   The key to encrypt it with instead.
+	 * 
+	 * @return The rotation.
+	 */
+	public static KeyRotation of(CaesarKey from, CaesarKey to) {
+		return new KeyRotation(from.encryptSchedule(), to.encryptSchedule(), CryptoMetrics.CAESAR);
+	}
+
+	/**
+	 * Returns the number of positions after which the combined shifts repeat.
+	 * 
+	 * @return The period, lcm of the two key lengths.
+	 */
+	public int getPeriod() {
+		return schedule.length();
+	}
+
+	/**
+	 * Returns the combined schedule.
+	 * 
+	 * @return The schedule.
+	 */
+	ShiftSchedule schedule() {
+		return schedule;
+	}
+
+	private static int gcd(int a, int b) {
+		while (b != 0) {
+			int t = a % b;
+			a = b;
+			b = t;
+		}
+		return a;
+	}
+}
@@ -0,0 +1,309 @@
+import java.io.CharConversionException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.LongStream;
+
+/**
+ * File-to-file encryption of ASCII text using memory-mapped I/O.
+ * 
+ * The input is split into chunks that are mapped and processed in parallel on
+ * the common fork-join pool, so a bulk job uses every core. Caesar and Vigenere
+ * have no chaining between positions, so chunks only need to start on a
+ * multiple of the key length (each chunk then starts at key position 0).
+ * Playfair chunks start on even offsets so no pair is split.
+ * 
+ * The output file is created or truncated. Bounds are checked as each chunk is
+ * transformed; the first out-of-bounds byte found fails the job with a {@link
+ * CharConversionException} naming its offset, and the output is incomplete.
+ * 
+ * With -Dcrypto.metrics=true each chunk is counted and timed as one call in
+ * {@link CryptoMetrics}.
+ */
+public final class MappedFileCipher {
+
+	// Target chunk size; rounded down to the alignment each cipher needs
+	private static final int CHUNK_SIZE = 8 << 20;
+
+	private MappedFileCipher() {
+	}
+
+	/**
+	 * Encrypts a file using the Caesar cipher.
+	 * 
+	 * @param input  The plaintext file.
+	 * @param output The ciphertext file to write.
+	 * @param key    The integer shift value.
+	 * 
+	 * @return The number of bytes written.
+	 * 
+	 * @throws IOException if a file cannot be read or written, or the input is out
+	 *                     of bounds.
+	 */
+	public static long caesarEncryption(Path input, Path output, int key) throws IOException {
+		return shift(input, output, CaesarKey.of(key).encryptSchedule());
+	}
+
+	/**
+	 * Decrypts a file using the Caesar cipher.
+	 * 
+	 * @param input  The ciphertext file.
+	 * @param output The plaintext file to write.
+	 * @param key    The integer shift value.
+	 * 
+	 * @return The number of bytes written.
+	 * 
+	 * @throws IOException if a file cannot be read or written, or the input is out
+	 *                     of bounds.
+	 */
+	public static long caesarDecryption(Path input, Path output, int key) throws IOException {
+		return shift(input, output, CaesarKey.of(key).decryptSchedule());
+	}
+
+	/**
+	 * Encrypts a file using the Vigenere cipher.
+	 * 
+	 * @param input  The plaintext file.
+	 * @param output The ciphertext file to write.
+	 * @param key    The compiled Vigenere key.
+	 * 
+	 * @return The number of bytes written.
+	 * 
+	 * @throws IOException if a file cannot be read or written, or the input is out
+	 *                     of bounds.
+	 */
+	public static long vigenereEncryption(Path input, Path output, VigenereKey key) throws IOException {
+		return shift(input, output, key.encryptSchedule());
+	}
+
+	/**
+	 * Decrypts a file using the Vigenere cipher.
+	 * 
+	 * @param input  The ciphertext file.
+	 * @param output The plaintext file to write.
+	 * @param key    The compiled Vigenere key.
+	 * 
+	 * @return The number of bytes written.
+	 * 
+	 * @throws IOException if a file cannot be read or written, or the input is out
+	 *                     of bounds.
+	 */
+	public static long vigenereDecryption(Path input, Path output, VigenereKey key) throws IOException {
+		return shift(input, output, key.decryptSchedule());
+	}
+
+	/**
+	 * Re-encrypts a Caesar or Vigenere ciphertext file under a new key in a single
+	 * pass, without writing the plaintext anywhere.
+	 * 
+	 * @param input    The file encrypted with the old key.
+	 * @param output   The file to write, encrypted with the new key.
+	 * @param rotation The compiled change of key.
+	 * 
+	 * @return The number of bytes written.
+	 * 
+	 * @throws IOException if a file cannot be read or written, or the input is out
+	 *                     of bounds.
+	 */
+	public static long rekey(Path input, Path output, KeyRotation rotation) throws IOException {
+		return shift(input, output, rotation.schedule());
+	}
+
+	/**
+	 * Encrypts a file using the Playfair cipher. An odd-length file is padded with
+	 * a space, so the output is one byte longer.
+	 * 
+	 * @param input  The plaintext file.
+	 * @param output The ciphertext file to write.
+	 * @param key    The compiled Playfair key.
+	 * 
+	 * @return The number of bytes written.
+	 * 
+	 * @throws IOException if a file cannot be read or written, or the input is out
+	 *                     of bounds.
+	 */
+	public static long playfairEncryption(Path input, Path output, PlayfairKey key) throws IOException {
+		return playfair(input, output, key, true);
+	}
+
+	/**
+	 * Decrypts a file using the Playfair cipher.
+	 * 
+	 * @param input  The ciphertext file (of even length).
+	 * @param output The plaintext file to write.
+	 * @param key    The compiled Playfair key.
+	 * 
+	 * @return The number of bytes written.
+	 * 
+	 * @throws IOException if a file cannot be read or written, or the input is out
+	 *                     of bounds or of odd length.
+	 */
+	public static long playfairDecryption(Path input, Path output, PlayfairKey key) throws IOException {
+		return playfair(input, output, key, false);
+	}
+
+	/**
+	 * Runs a Caesar or Vigenere schedule over a file.
+	 * 
+	 * @param input    The file to read.
+	 * @param output   The file to write.
+	 * @param schedule The key schedule.
+	 * 
+	 * @return The number of bytes written.
+	 * 
+	 * @throws IOException if a file cannot be read or written, or the input is out
+	 *                     of bounds.
+	 */
+	private static long shift(Path input, Path output, ShiftSchedule schedule) throws IOException {
+		// A whole number of key periods (and of eight-byte words) per chunk
+		int alignment = schedule.length() * 8;
+		int chunkSize = Math.max(alignment, CHUNK_SIZE / alignment * alignment);
+
+		// Read from the input mapping and write to the output in the same pass
+		return run(input, output, chunkSize, false, schedule.metrics,
+				(in, out, length) -> ShiftEngine.SELECTED.shift(in, out, 0, length, schedule));
+	}
+
+	/**
+	 * Runs Playfair over a file, pair by pair.
+	 * 
+	 * @param input   The file to read.
+	 * @param output  The file to write.
+	 * @param key     The compiled Playfair key.
+	 * @param encrypt true to encrypt, false to decrypt.
+	 * 
+	 * @return The number of bytes written.
+	 * 
+	 * @throws IOException if a file cannot be read or written, or the input is out
+	 *                     of bounds or odd-length ciphertext.
+	 */
+	private static long playfair(Path input, Path output, PlayfairKey key, boolean encrypt) throws IOException {
+		long start = CryptoMetrics.start();
+		long size = Files.size(input);
+		if (!encrypt && (size & 1) != 0) {
+			// Not an out-of-bounds byte: ciphertext must be whole pairs
+			CryptoMetrics.PLAYFAIR.record(start, (int) Math.min(size, Integer.MAX_VALUE), -1);
+			throw new CharConversionException(CipherException.ODD_LENGTH + " (unpaired byte at offset " + (size - 1) + ")");
+		}
+		return run(input, output, CHUNK_SIZE, encrypt, CryptoMetrics.PLAYFAIR, (in, out, length) -> {
+			// Only if the file grew after its size was checked
+			if (!encrypt && (length & 1) != 0) {
+				return -length;
+			}
+			for (int i = 0; i < length; i += 2) {
+				char a = (char) (in.get(i) & 0xFF);
+				char b = i + 1 < length ? (char) (in.get(i + 1) & 0xFF) : ' '; // Padding with a space
+				if (key.indexOf(a) < 0) {
+					return -(i + 1);
+				}
+				if (key.indexOf(b) < 0) {
+					return -(i + 2);
+				}
+				int pair = encrypt ? CryptoManager.encryptPair(a, b, key) : CryptoManager.decryptPair(a, b, key);
+				out.put(i, (byte) (pair >>> 16));
+				out.put(i + 1, (byte) pair);
+			}
+			return length;
+		});
+	}
+
+	/**
+	 * Maps the input chunk by chunk and processes the chunks in parallel.
+	 * 
+	 * @param input     The file to read.
+	 * @param output    The file to write.
+	 * @param chunkSize The chunk size, a multiple of what the cipher needs.
+	 * @param pad       true to make the output one byte longer for an odd-length
+	 *                  input (Playfair encryption padding).
+	 * @param metrics   The metrics each chunk is recorded in, as one call.
+	 * @param task      The per-chunk transform.
+	 * 
+	 * @return The number of bytes written.
+	 * 
+	 * @throws IOException if a file cannot be read or written, input and output are
+	 *                     the same file, or a chunk is out of bounds.
+	 */
+	private static long run(Path input, Path output, int chunkSize, boolean pad, CryptoMetrics metrics,
+			ChunkTask task) throws IOException {
+		// Truncating the output would destroy the input before it is read
+		if (Files.exists(output) && Files.isSameFile(input, output)) {
+			throw new IOException("The input and output are the same file: " + input);
+		}
+		try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+			long size = in.size();
+			try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				return run(in, out, size, chunkSize, pad, metrics, task);
+			}
+		}
+	}
+
+	/**
+	 * Processes the chunks of an open input in parallel.
+	 * 
+	 * @param in        The input channel.
+	 * @param out       The output channel, truncated.
+	 * @param size      The input size, read before the output was opened.
+	 * @param chunkSize The chunk size, a multiple of what the cipher needs.
+	 * @param pad       true to make the output one byte longer for an odd-length
+	 *                  input.
+	 * @param metrics   The metrics each chunk is recorded in, as one call.
+	 * @param task      The per-chunk transform.
+	 * 
+	 * @return The number of bytes written.
+	 * 
+	 * @throws IOException if a chunk cannot be mapped, or is out of bounds.
+	 */
+	private static long run(FileChannel in, FileChannel out, long size, int chunkSize, boolean pad,
+			CryptoMetrics metrics, ChunkTask task) throws IOException {
+		long outputSize = pad ? size + (size & 1) : size;
+		long chunks = (size + chunkSize - 1) / chunkSize;
+
+		try {
+			LongStream.range(0, chunks).parallel().forEach(chunk -> {
+				long position = chunk * chunkSize;
+				int length = (int) Math.min(chunkSize, size - position);
+				int outputLength = (int) Math.min(chunkSize, outputSize - position);
+				try {
+					MappedByteBuffer source = in.map(MapMode.READ_ONLY, position, length);
+					MappedByteBuffer target = out.map(MapMode.READ_WRITE, position, outputLength);
+					long start = CryptoMetrics.start();
+					int processed = metrics.record(start, length, task.process(source, target, length));
+					if (processed < 0) {
+						throw new CharConversionException(
+								CryptoManager.NOT_IN_BOUNDS + " (byte at offset " + (position - processed - 1) + ")");
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		return outputSize;
+	}
+
+	/**
+	 * One chunk of a mapped-file job.
+	 */
+	@FunctionalInterface
+	private interface ChunkTask {
+
+		/**
+		 * Transforms one chunk.
+		 * 
+		 * @param in     The mapped input chunk.
+		 * @param out    The mapped output chunk (at least as long as the input).
+		 * @param length The number of input bytes.
+		 * 
+		 * @return The number of bytes processed, or -(i + 1) if byte i of the chunk is
+		 *         out of bounds.
+		 */
+		int process(MappedByteBuffer in, MappedByteBuffer out, int length);
+	}
+}
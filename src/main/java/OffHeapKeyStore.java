@@ -0,0 +1,534 @@
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A fixed-capacity store of compiled Vigenere or Playfair keys kept outside the
+ * Java heap, for callers that juggle millions of keys.
+ * 
+ * A {@link KeyCache} holds each compiled key as several Java objects, which
+ * adds up and keeps the garbage collector busy when there are tens of millions
+ * of them. Here every key takes one fixed-size slot in direct ByteBuffers, and
+ * the cipher methods read the key straight from its slot. The slots form an
+ * open-addressing hash table with linear probing on the hash of the keyword.
+ * 
+ * A slot holds the keyword hash, its length and its characters as bytes. That
+ * is already the compiled form of a Vigenere key: each byte is the shift at its
+ * key position, and the cipher methods pass those shifts to the shared SCALAR
+ * loop of {@link ShiftEngine}. A Playfair slot also holds the 8x8 matrix and
+ * the position of every character in it, 128 bytes in all; each pair goes
+ * through {@link PlayfairKey#digraph(int, int, int)} rather than the 16 KB
+ * digraph tables of {@link PlayfairKey}, which would not fit millions of keys.
+ * 
+ * Keywords and text are read through the store's {@link Alphabet}; with
+ * {@link Alphabet#CASE_FOLDING} a lower-case keyword names the same slot as its
+ * upper-case form, and lower-case text is accepted.
+ * 
+ * The capacity is fixed when the store is created. Only {@link #add(String)}
+ * stores a key; the cipher methods reject a key that is not stored, and adding
+ * a key to a full store throws, so remove keys that have been rotated out. All
+ * methods are thread safe; cipher calls on different keys run concurrently.
+ */
+public final class OffHeapKeyStore {
+
+	// Slot layout: hash (int), keyword length (short, 0 = empty), keyword bytes,
+	// then for Playfair the matrix and the position table
+	private static final int HASH = 0;
+	private static final int LENGTH = 4;
+	private static final int KEY = 6;
+	private static final int MATRIX_SIZE = 64;
+
+	// Slots per buffer, at most; fewer when long slots would pass 2 GB per buffer
+	private static final int MAX_SEGMENT_BITS = 16;
+
+	private final boolean playfair;
+	private final Alphabet alphabet;
+	private final int capacity;
+	private final int maxKeyLength;
+	private final int slotSize;
+	private final int matrixOffset; // Playfair only; positions follow the matrix
+	private final int mask; // Table length - 1
+	private final int segmentBits; // log2 of the slots per buffer
+	private final int segmentMask;
+	private final ByteBuffer[] segments;
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private int size; // Guarded by the write lock
+
+	/**
+	 * Allocates an empty store.
+	 * 
+	 * @param playfair     true for Playfair keys, false for Vigenere keys.
+	 * @param capacity     The maximum number of keys.
+	 * @param maxKeyLength The longest keyword that can be stored.
+	 * @param alphabet     The alphabet of the keywords and text.
+	 */
+	private OffHeapKeyStore(boolean playfair, int capacity, int maxKeyLength, Alphabet alphabet) {
+		if (capacity <= 0 || capacity > 1 << 29) {
+			throw new IllegalArgumentException("The capacity must be between 1 and 2^29: " + capacity);
+		}
+		if (maxKeyLength <= 0 || maxKeyLength >= Short.MAX_VALUE) {
+			throw new IllegalArgumentException(
+					"The maximum key length must be between 1 and " + (Short.MAX_VALUE - 1) + ": " + maxKeyLength);
+		}
+		this.playfair = playfair;
+		this.alphabet = Objects.requireNonNull(alphabet);
+		this.capacity = capacity;
+		this.maxKeyLength = maxKeyLength;
+		this.matrixOffset = KEY + maxKeyLength;
+		this.slotSize = matrixOffset + (playfair ? 2 * MATRIX_SIZE : 0);
+
+		// At most three quarters of the slots are in use, so probes stay short
+		int slots = Integer.highestOneBit(Math.max(capacity + capacity / 3, 1) * 2 - 1);
+		this.mask = slots - 1;
+		this.segmentBits = Math.min(MAX_SEGMENT_BITS, 31 - Integer.numberOfLeadingZeros(Integer.MAX_VALUE / slotSize));
+		this.segmentMask = (1 << segmentBits) - 1;
+		this.segments = new ByteBuffer[(slots + segmentMask) >>> segmentBits];
+		for (int i = 0; i < segments.length; i++) {
+			int segmentSlots = Math.min(slots - (i << segmentBits), 1 << segmentBits);
+			segments[i] = ByteBuffer.allocateDirect(segmentSlots * slotSize);
+		}
+	}
+
+	/**
+	 * Allocates an empty store of Vigenere keys.
+	 * 
+	 * @param capacity     The maximum number of keys.
+	 * @param maxKeyLength The longest keyword that can be stored.
+	 * 
+	 * @return The store.
+	 */
+	public static OffHeapKeyStore vigenere(int capacity, int maxKeyLength) {
+		return vigenere(capacity, maxKeyLength, Alphabet.DEFAULT);
+	}
+
+	/**
+	 * Allocates an empty store of Vigenere keys that reads keywords and text
+	 * through an alphabet.
+	 * 
+	 * @param capacity     The maximum number of keys.
+	 * @param maxKeyLength The longest keyword that can be stored.
+	 * @param alphabet     The alphabet.
+	 * 
+	 * @return The store.
+	 */
+	public static OffHeapKeyStore vigenere(int capacity, int maxKeyLength, Alphabet alphabet) {
+		return new OffHeapKeyStore(false, capacity, maxKeyLength, alphabet);
+	}
+
+	/**
+	 * Allocates an empty store of Playfair keys.
+	 * 
+	 * @param capacity     The maximum number of keys.
+	 * @param maxKeyLength The longest keyword that can be stored.
+	 * 
+	 * @return The store.
+	 */
+	public static OffHeapKeyStore playfair(int capacity, int maxKeyLength) {
+		return playfair(capacity, maxKeyLength, Alphabet.DEFAULT);
+	}
+
+	/**
+	 * Allocates an empty store of Playfair keys that reads keywords and text
+	 * through an alphabet.
+	 * 
+	 * @param capacity     The maximum number of keys.
+	 * @param maxKeyLength The longest keyword that can be stored.
+	 * @param alphabet     The alphabet.
+	 * 
+	 * @return The store.
+	 */
+	public static OffHeapKeyStore playfair(int capacity, int maxKeyLength, Alphabet alphabet) {
+		return new OffHeapKeyStore(true, capacity, maxKeyLength, alphabet);
+	}
+
+	/**
+	 * Returns the maximum number of keys.
+	 * 
+	 * @return The capacity.
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns the number of keys stored.
+	 * 
+	 * @return The size.
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return size;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the off-heap memory allocated for the slots.
+	 * 
+	 * @return The number of bytes.
+	 */
+	public long memoryUsed() {
+		return (long) (mask + 1) * slotSize;
+	}
+
+	/**
+	 * Checks if a keyword is stored.
+	 * 
+	 * @param key The keyword.
+	 * 
+	 * @return true if it is stored.
+	 */
+	public boolean contains(String key) {
+		key = PlayfairKey.fold(key, alphabet);
+		lock.readLock().lock();
+		try {
+			return find(key, hash(key)) >= 0;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Compiles a keyword into a slot, unless it is already stored.
+	 * 
+	 * @param key The keyword.
+	 * 
+	 * @return true if the key was added, false if it was already stored.
+	 * 
+	 * @throws IllegalArgumentException if the key is not in the alphabet, too
+	 *                                  long, or empty for Vigenere.
+	 * @throws IllegalStateException    if the store is full.
+	 */
+	public boolean add(String key) {
+		// Folding leaves characters outside the alphabet as they are, to be rejected here
+		key = PlayfairKey.fold(key, alphabet);
+		if (!CryptoManager.isStringInBounds(key) || key.length() > maxKeyLength
+				|| (!playfair && key.isEmpty())) {
+			throw new IllegalArgumentException("The selected key is not in bounds, Try again.");
+		}
+		int hash = hash(key);
+
+		lock.writeLock().lock();
+		try {
+			int slot = find(key, hash);
+			if (slot >= 0) {
+				return false;
+			}
+			if (size == capacity) {
+				throw new IllegalStateException("The key store is full (" + capacity + " keys)");
+			}
+			write(-slot - 1, key, hash);
+			size++;
+			return true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes a keyword, freeing its slot.
+	 * 
+	 * @param key The keyword.
+	 * 
+	 * @return true if it was stored.
+	 */
+	public boolean remove(String key) {
+		key = PlayfairKey.fold(key, alphabet);
+		lock.writeLock().lock();
+		try {
+			int slot = find(key, hash(key));
+			if (slot < 0) {
+				return false;
+			}
+			delete(slot);
+			size--;
+			return true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Encrypts a range of characters with a stored key.
+	 * 
+	 * Playfair pads an odd-length range with a space, as {@link
+	 * CryptoManager#playfairEncryption(char[], int, int, char[], int, PlayfairKey)}
+	 * does.
+	 * 
+	 * @param key       The keyword.
+	 * @param src       The characters to be encrypted.
+	 * @param srcOffset The index of the first character to encrypt.
+	 * @param length    The number of characters to encrypt.
+	 * @param dst       The array receiving the encrypted characters.
+	 * @param dstOffset The index in dst where the first encrypted character goes.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character.
+	 * 
+	 * @throws IllegalArgumentException if the key is not stored.
+	 */
+	public int encrypt(String key, char[] src, int srcOffset, int length, char[] dst, int dstOffset) {
+		return transform(key, src, srcOffset, length, dst, dstOffset, true);
+	}
+
+	/**
+	 * Decrypts a range of characters with a stored key.
+	 * 
+	 * @param key       The keyword.
+	 * @param src       The characters to be decrypted.
+	 * @param srcOffset The index of the first character to decrypt.
+	 * @param length    The number of characters to decrypt.
+	 * @param dst       The array receiving the decrypted characters.
+	 * @param dstOffset The index in dst where the first decrypted character goes.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character (or the unpaired last character of an
+	 *         odd-length Playfair range).
+	 * 
+	 * @throws IllegalArgumentException if the key is not stored.
+	 */
+	public int decrypt(String key, char[] src, int srcOffset, int length, char[] dst, int dstOffset) {
+		return transform(key, src, srcOffset, length, dst, dstOffset, false);
+	}
+
+	/**
+	 * Runs the cipher with a stored key, in either direction, under the read lock
+	 * so the slot cannot move while it is read.
+	 * 
+	 * @param key       The keyword.
+	 * @param src       The characters to be processed.
+	 * @param srcOffset The index of the first character.
+	 * @param length    The number of characters.
+	 * @param dst       The array receiving the result.
+	 * @param dstOffset The index in dst where the first character goes.
+	 * @param encrypt   true to encrypt, false to decrypt.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         character that cannot be processed.
+	 * 
+	 * @throws IllegalArgumentException if the key is not stored.
+	 */
+	private int transform(String key, char[] src, int srcOffset, int length, char[] dst, int dstOffset,
+			boolean encrypt) {
+		int written = playfair && encrypt ? length + (length & 1) : length;
+		Objects.checkFromIndexSize(srcOffset, length, src.length);
+		Objects.checkFromIndexSize(dstOffset, written, dst.length);
+		String folded = PlayfairKey.fold(key, alphabet);
+		int hash = hash(folded);
+
+		lock.readLock().lock();
+		try {
+			int slot = find(folded, hash);
+			if (slot < 0) {
+				throw new IllegalArgumentException("The key is not in the store: " + key);
+			}
+			ByteBuffer segment = segments[slot >>> segmentBits];
+			int base = (slot & segmentMask) * slotSize;
+			long start = CryptoMetrics.start();
+			if (playfair) {
+				return CryptoMetrics.PLAYFAIR.record(start, length,
+						playfair(segment, base, src, srcOffset, length, dst, dstOffset, encrypt));
+			}
+			return CryptoMetrics.VIGENERE.record(start, length,
+					vigenere(segment, base, src, srcOffset, length, dst, dstOffset, encrypt));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Applies a stored Vigenere key to a range of characters, through the shared
+	 * shift loop.
+	 * 
+	 * @param segment   The buffer holding the slot.
+	 * @param base      The index of the slot in the buffer.
+	 * @param src       The characters to be shifted.
+	 * @param srcOffset The index of the first character.
+	 * @param length    The number of characters.
+	 * @param dst       The array receiving the shifted characters.
+	 * @param dstOffset The index in dst where the first character goes.
+	 * @param encrypt   true to encrypt, false to decrypt.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds character.
+	 */
+	private int vigenere(ByteBuffer segment, int base, char[] src, int srcOffset, int length, char[] dst,
+			int dstOffset, boolean encrypt) {
+		int[] shifts = new int[segment.getShort(base + LENGTH) - 1];
+		for (int i = 0; i < shifts.length; i++) {
+			int shift = segment.get(base + KEY + i);
+			shifts[i] = encrypt ? shift : (CryptoManager.RANGE - shift) % CryptoManager.RANGE;
+		}
+		return ShiftEngine.shift(src, srcOffset, length, dst, dstOffset, shifts, alphabet.indexes(), 0);
+	}
+
+	/**
+	 * Applies a stored Playfair key to a range of characters.
+	 * 
+	 * @param segment   The buffer holding the slot.
+	 * @param base      The index of the slot in the buffer.
+	 * @param src       The characters to be processed.
+	 * @param srcOffset The index of the first character.
+	 * @param length    The number of characters.
+	 * @param dst       The array receiving the result.
+	 * @param dstOffset The index in dst where the first character goes.
+	 * @param encrypt   true to encrypt (padding odd input), false to decrypt.
+	 * 
+	 * @return The number of characters written, or -(offset + 1) for the first
+	 *         out-of-bounds or unpaired character.
+	 */
+	private int playfair(ByteBuffer segment, int base, char[] src, int srcOffset, int length, char[] dst,
+			int dstOffset, boolean encrypt) {
+		int written = length + (length & 1);
+		if (!encrypt && written != length) {
+			// The unpaired last character is the offending one
+			return -length;
+		}
+
+		int matrix = base + matrixOffset, positions = matrix + MATRIX_SIZE;
+		int step = encrypt ? 1 : 7;
+		short[] indexes = alphabet.indexes();
+		for (int i = 0; i < written; i += 2) {
+			char c1 = src[srcOffset + i];
+			char c2 = i + 1 < length ? src[srcOffset + i + 1] : ' ';
+			int a = c1 < indexes.length ? indexes[c1] : -1;
+			int b = c2 < indexes.length ? indexes[c2] : -1;
+			if (a < 0) {
+				return -(i + 1);
+			}
+			if (b < 0) {
+				return -(i + 2);
+			}
+
+			int pair = PlayfairKey.digraph(segment.get(positions + a), segment.get(positions + b), step);
+			dst[dstOffset + i] = (char) (segment.get(matrix + (pair >>> 6)) + CryptoManager.LOWER_RANGE);
+			dst[dstOffset + i + 1] = (char) (segment.get(matrix + (pair & 63)) + CryptoManager.LOWER_RANGE);
+		}
+		return written;
+	}
+
+	/**
+	 * Spreads the bits of a keyword's hash so that similar keywords land far apart.
+	 * 
+	 * @param key The keyword.
+	 * 
+	 * @return The hash.
+	 */
+	private static int hash(String key) {
+		int h = key.hashCode() * 0x9E3779B9;
+		return h ^ h >>> 16;
+	}
+
+	/**
+	 * Finds the slot of a keyword, or where it would go. Call with a lock held.
+	 * 
+	 * @param key  The keyword.
+	 * @param hash Its hash.
+	 * 
+	 * @return The slot holding the keyword, or -(slot + 1) for the empty slot that
+	 *         ends its probe sequence.
+	 */
+	private int find(String key, int hash) {
+		for (int slot = hash & mask;; slot = slot + 1 & mask) {
+			ByteBuffer segment = segments[slot >>> segmentBits];
+			int base = (slot & segmentMask) * slotSize;
+			int stored = segment.getShort(base + LENGTH);
+			if (stored == 0) {
+				return -(slot + 1);
+			}
+			if (stored == key.length() + 1 && segment.getInt(base + HASH) == hash
+					&& matches(segment, base, key)) {
+				return slot;
+			}
+		}
+	}
+
+	/**
+	 * Compares a stored keyword with a string.
+	 * 
+	 * @param segment The buffer holding the slot.
+	 * @param base    The index of the slot in the buffer.
+	 * @param key     The keyword, of the stored length.
+	 * 
+	 * @return true if they are the same.
+	 */
+	private static boolean matches(ByteBuffer segment, int base, String key) {
+		for (int i = 0; i < key.length(); i++) {
+			if (segment.get(base + KEY + i) != key.charAt(i) - CryptoManager.LOWER_RANGE) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Compiles a keyword into an empty slot. Call with the write lock held.
+	 * 
+	 * @param slot The slot.
+	 * @param key  The keyword.
+	 * @param hash Its hash.
+	 */
+	private void write(int slot, String key, int hash) {
+		long start = CryptoMetrics.start();
+		ByteBuffer segment = segments[slot >>> segmentBits];
+		int base = (slot & segmentMask) * slotSize;
+		segment.putInt(base + HASH, hash);
+		// The keyword bytes are also the Vigenere shifts
+		for (int i = 0; i < key.length(); i++) {
+			segment.put(base + KEY + i, (byte) (key.charAt(i) - CryptoManager.LOWER_RANGE));
+		}
+
+		if (playfair) {
+			char[][] matrix = CryptoManager.buildPlayfairMatrix(key);
+			int positions = base + matrixOffset + MATRIX_SIZE;
+			for (int r = 0; r < 8; r++) {
+				for (int c = 0; c < 8; c++) {
+					int index = matrix[r][c] - CryptoManager.LOWER_RANGE;
+					segment.put(base + matrixOffset + (r << 3 | c), (byte) index);
+					segment.put(positions + index, (byte) (r << 3 | c));
+				}
+			}
+		}
+		// Written last: length + 1, so even an empty Playfair keyword marks the slot used
+		segment.putShort(base + LENGTH, (short) (key.length() + 1));
+		(playfair ? CryptoMetrics.PLAYFAIR : CryptoMetrics.VIGENERE).recordKeyBuild(start);
+	}
+
+	/**
+	 * Empties a slot, moving later keys of the same probe run back so that every
+	 * key stays reachable from its home slot. Call with the write lock held.
+	 * 
+	 * @param slot The slot to empty.
+	 */
+	private void delete(int slot) {
+		int hole = slot;
+		for (int next = hole + 1 & mask;; next = next + 1 & mask) {
+			ByteBuffer segment = segments[next >>> segmentBits];
+			int base = (next & segmentMask) * slotSize;
+			if (segment.getShort(base + LENGTH) == 0) {
+				break;
+			}
+			// A key can fill the hole if its home slot is not between the hole and it
+			int home = segment.getInt(base + HASH) & mask;
+			if ((next - home & mask) >= (next - hole & mask)) {
+				copy(next, hole);
+				hole = next;
+			}
+		}
+		segments[hole >>> segmentBits].putShort((hole & segmentMask) * slotSize + LENGTH, (short) 0);
+	}
+
+	/**
+	 * Copies the contents of one slot into another.
+	 * 
+	 * @param from The source slot.
+	 * @param to   The destination slot.
+	 */
+	private void copy(int from, int to) {
+		segments[to >>> segmentBits].put((to & segmentMask) * slotSize, segments[from >>> segmentBits],
+				(from & segmentMask) * slotSize, slotSize);
+	}
+}
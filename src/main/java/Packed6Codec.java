@@ -0,0 +1,541 @@
+import java.io.CharConversionException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StreamCorruptedException;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Packs text of the 64 allowed characters into 6 bits per character, four
+ * characters to every three bytes, for storage and transfer. Packed text is a
+ * quarter smaller than ASCII and five eighths smaller than 16-bit chars.
+ * 
+ * Each group of four characters becomes one 24-bit big-endian number, the first
+ * character in the top six bits. A final group of k < 4 characters is written
+ * left-aligned in its first k bytes, so n characters always take {@link
+ * #packedLength(int)} bytes. The packed bytes do not record n; bulk callers
+ * keep it alongside, and the streaming form appends it as a trailer.
+ * 
+ * Ciphertext can be packed as it is produced: the encrypt methods here run the
+ * cipher and the packing in a single pass, and {@link #writer(OutputStream)}
+ * can be wrapped in a {@link CipherWriter}.
+ */
+public final class Packed6Codec {
+
+	private static final int BITS = 6;
+	private static final int MASK = (1 << BITS) - 1;
+	// Characters per group, and bytes per full group
+	private static final int GROUP = 4;
+	private static final int GROUP_BYTES = 3;
+	// Packs characters unchanged, without recording metrics
+	private static final ShiftSchedule IDENTITY = new ShiftSchedule(new int[] { 0 }, null);
+
+	private Packed6Codec() {
+	}
+
+	/**
+	 * Returns the number of bytes taken by packed text.
+	 * 
+	 * @param length The number of characters.
+	 * 
+	 * @return The packed size in bytes.
+	 */
+	public static int packedLength(int length) {
+		return (int) (((long) length * BITS + 7) / 8);
+	}
+
+	/**
+	 * Packs a range of characters into a buffer.
+	 * 
+	 * @param src       The characters to be packed.
+	 * @param srcOffset The index of the first character.
+	 * @param length    The number of characters.
+	 * @param dst       The buffer receiving the packed bytes at its position.
+	 * 
+	 * @return The number of bytes written, or -(offset + 1) for the first
+	 *         out-of-bounds character. On success the position of dst is advanced
+	 *         past the bytes written; on failure it does not move.
+	 * 
+	 * @throws BufferOverflowException if dst has fewer than {@link
+	 *                                 #packedLength(int)} bytes remaining.
+	 */
+	public static int encode(char[] src, int srcOffset, int length, ByteBuffer dst) {
+		return pack(src, srcOffset, length, dst, IDENTITY);
+	}
+
+	/**
+	 * Packs a string.
+	 * 
+	 * @param text The string to be packed.
+	 * 
+	 * @return The packed bytes.
+	 * 
+	 * @throws IllegalArgumentException if the string is out of bounds.
+	 */
+	public static byte[] encode(String text) {
+		byte[] packed = new byte[packedLength(text.length())];
+		if (encode(text.toCharArray(), 0, text.length(), ByteBuffer.wrap(packed)) < 0) {
+			throw new IllegalArgumentException(CryptoManager.NOT_IN_BOUNDS);
+		}
+		return packed;
+	}
+
+	/**
+	 * Unpacks characters from a buffer. Every 6-bit value is an allowed character,
+	 * so unpacking cannot fail.
+	 * 
+	 * @param src       The packed bytes, from its position.
+	 * @param length    The number of characters that were packed.
+	 * @param dst       The array receiving the characters.
+	 * @param dstOffset The index in dst where the first character goes.
+	 * 
+	 * @return The number of characters written. The position of src is advanced
+	 *         past the bytes read.
+	 * 
+	 * @throws BufferUnderflowException if src has fewer than {@link
+	 *                                  #packedLength(int)} bytes remaining.
+	 */
+	public static int decode(ByteBuffer src, int length, char[] dst, int dstOffset) {
+		Objects.checkFromIndexSize(dstOffset, length, dst.length);
+		if (src.remaining() < packedLength(length)) {
+			throw new BufferUnderflowException();
+		}
+		int in = src.position();
+		int full = length & -GROUP;
+		for (int i = 0; i < full; i += GROUP) {
+			int group = (src.get(in) & 0xFF) << 16 | (src.get(in + 1) & 0xFF) << 8 | src.get(in + 2) & 0xFF;
+			in += GROUP_BYTES;
+			int d = dstOffset + i;
+			dst[d] = (char) ((group >>> 18) + CryptoManager.LOWER_RANGE);
+			dst[d + 1] = (char) ((group >>> 12 & MASK) + CryptoManager.LOWER_RANGE);
+			dst[d + 2] = (char) ((group >>> 6 & MASK) + CryptoManager.LOWER_RANGE);
+			dst[d + 3] = (char) ((group & MASK) + CryptoManager.LOWER_RANGE);
+		}
+
+		// A final group of k characters sits in the top of its first k bytes
+		int rest = length - full;
+		if (rest > 0) {
+			int group = 0;
+			for (int b = 0; b < rest; b++) {
+				group |= (src.get(in++) & 0xFF) << (16 - 8 * b);
+			}
+			for (int c = 0; c < rest; c++) {
+				dst[dstOffset + full + c] = (char) ((group >>> (18 - BITS * c) & MASK) + CryptoManager.LOWER_RANGE);
+			}
+		}
+		src.position(in);
+		return length;
+	}
+
+	/**
+	 * Unpacks a string.
+	 * 
+	 * @param packed The packed bytes.
+	 * @param length The number of characters that were packed.
+	 * 
+	 * @return The string.
+	 * 
+	 * @throws BufferUnderflowException if there are too few bytes for the length.
+	 */
+	public static String decode(byte[] packed, int length) {
+		char[] text = new char[length];
+		decode(ByteBuffer.wrap(packed), length, text, 0);
+		return new String(text);
+	}
+
+	/**
+	 * Caesar-encrypts a range of characters straight into packed form.
+	 * 
+	 * @param src       The characters to be encrypted.
+	 * @param srcOffset The index of the first character.
+	 * @param length    The number of characters.
+	 * @param dst       The buffer receiving the packed ciphertext at its position.
+	 * @param key       The compiled Caesar key.
+	 * 
+	 * @return The number of bytes written, or -(offset + 1) for the first
+	 *         out-of-bounds character; positions as for {@link #encode(char[], int,
+	 *         int, ByteBuffer)}.
+	 */
+	public static int caesarEncryption(char[] src, int srcOffset, int length, ByteBuffer dst, CaesarKey key) {
+		return pack(src, srcOffset, length, dst, key.encryptSchedule());
+	}
+
+	/**
+	 * Vigenere-encrypts a range of characters straight into packed form.
+	 * 
+	 * @param src       The characters to be encrypted.
+	 * @param srcOffset The index of the first character.
+	 * @param length    The number of characters.
+	 * @param dst       The buffer receiving the packed ciphertext at its position.
+	 * @param key       The compiled Vigenere key.
+	 * 
+	 * @return The number of bytes written, or -(offset + 1) for the first
+	 *         out-of-bounds character; positions as for {@link #encode(char[], int,
+	 *         int, ByteBuffer)}.
+	 */
+	public static int vigenereEncryption(char[] src, int srcOffset, int length, ByteBuffer dst, VigenereKey key) {
+		return pack(src, srcOffset, length, dst, key.encryptSchedule());
+	}
+
+	/**
+	 * Playfair-encrypts a range of characters straight into packed form. An odd
+	 * range is padded with a space, so the packed ciphertext holds length + 1
+	 * characters in that case.
+	 * 
+	 * @param src       The characters to be encrypted.
+	 * @param srcOffset The index of the first character.
+	 * @param length    The number of characters.
+	 * @param dst       The buffer receiving the packed ciphertext at its position.
+	 * @param key       The compiled Playfair key.
+	 * 
+	 * @return The number of bytes written, or -(offset + 1) for the first
+	 *         out-of-bounds character; positions as for {@link #encode(char[], int,
+	 *         int, ByteBuffer)}.
+	 */
+	public static int playfairEncryption(char[] src, int srcOffset, int length, ByteBuffer dst, PlayfairKey key) {
+		int written = length + (length & 1);
+		Objects.checkFromIndexSize(srcOffset, length, src.length);
+		int bytes = packedLength(written);
+		if (dst.remaining() < bytes) {
+			throw new BufferOverflowException();
+		}
+		long start = CryptoMetrics.start();
+
+		int out = dst.position();
+		int group = 0;
+		for (int i = 0; i < written; i += 2) {
+			char a = src[srcOffset + i];
+			char b = i + 1 < length ? src[srcOffset + i + 1] : ' ';
+			if (key.indexOf(a) < 0) {
+				return CryptoMetrics.PLAYFAIR.record(start, length, -(i + 1));
+			}
+			if (key.indexOf(b) < 0) {
+				return CryptoMetrics.PLAYFAIR.record(start, length, -(i + 2));
+			}
+			int pair = key.encrypt(a, b);
+			group = group << (2 * BITS) | ((pair >>> 16) - CryptoManager.LOWER_RANGE) << BITS
+					| (pair & 0xFFFF) - CryptoManager.LOWER_RANGE;
+			// Two pairs fill a group
+			if ((i & 2) != 0) {
+				out = putGroup(dst, out, group);
+				group = 0;
+			}
+		}
+		putRest(dst, out, group, written & (GROUP - 1));
+		dst.position(dst.position() + bytes);
+		return CryptoMetrics.PLAYFAIR.record(start, length, bytes);
+	}
+
+	/**
+	 * Returns a writer that packs the characters written to it onto a stream.
+	 * 
+	 * Closing the writer writes the final partial group followed by a trailer byte
+	 * holding the number of characters in it (0 to 3), then closes the stream.
+	 * Out-of-bounds input fails the write with a {@link CharConversionException}.
+	 * Wrap the writer in a {@link CipherWriter} to pack ciphertext as it is
+	 * produced.
+	 * 
+	 * @param out The stream receiving the packed bytes.
+	 * 
+	 * @return The packing writer.
+	 */
+	public static Writer writer(OutputStream out) {
+		return new PackingWriter(out);
+	}
+
+	/**
+	 * Returns a reader that unpacks a stream written by {@link
+	 * #writer(OutputStream)}.
+	 * 
+	 * A stream without its trailer fails with an {@link EOFException}, and a
+	 * malformed one with a {@link StreamCorruptedException}.
+	 * 
+	 * @param in The stream of packed bytes.
+	 * 
+	 * @return The unpacking reader.
+	 */
+	public static Reader reader(InputStream in) {
+		return new UnpackingReader(in);
+	}
+
+	/**
+	 * Shifts and packs a range of characters in one pass, checking the bounds as it
+	 * goes.
+	 * 
+	 * @param src       The characters to be packed.
+	 * @param srcOffset The index of the first character.
+	 * @param length    The number of characters.
+	 * @param dst       The buffer receiving the packed bytes at its position.
+	 * @param schedule  The key schedule; {@link #IDENTITY} to pack plain text.
+	 * 
+	 * @return The number of bytes written, or -(offset + 1) for the first
+	 *         out-of-bounds character.
+	 */
+	private static int pack(char[] src, int srcOffset, int length, ByteBuffer dst, ShiftSchedule schedule) {
+		Objects.checkFromIndexSize(srcOffset, length, src.length);
+		int bytes = packedLength(length);
+		if (dst.remaining() < bytes) {
+			throw new BufferOverflowException();
+		}
+		CryptoMetrics metrics = schedule.metrics;
+		long start = metrics == null ? 0 : CryptoMetrics.start();
+
+		char[][] rows = schedule.rows;
+		short[] indexes = schedule.indexes;
+		int keyIndex = 0;
+		int out = dst.position();
+		int group = 0;
+		for (int i = 0; i < length; i++) {
+			char c = src[srcOffset + i];
+			int index = c < indexes.length ? indexes[c] : -1;
+			if (index < 0) {
+				return metrics == null ? -(i + 1) : metrics.record(start, length, -(i + 1));
+			}
+			group = group << BITS | rows[keyIndex][index] - CryptoManager.LOWER_RANGE;
+			if (++keyIndex == rows.length) {
+				keyIndex = 0;
+			}
+			if ((i & (GROUP - 1)) == GROUP - 1) {
+				out = putGroup(dst, out, group);
+				group = 0;
+			}
+		}
+		putRest(dst, out, group, length & (GROUP - 1));
+		dst.position(dst.position() + bytes);
+		return metrics == null ? bytes : metrics.record(start, length, bytes);
+	}
+
+	/**
+	 * Writes a full group of four characters.
+	 * 
+	 * @param dst   The buffer.
+	 * @param out   The index of the first byte.
+	 * @param group The four 6-bit character indexes, first in the top bits.
+	 * 
+	 * @return The index after the group.
+	 */
+	private static int putGroup(ByteBuffer dst, int out, int group) {
+		dst.put(out, (byte) (group >>> 16));
+		dst.put(out + 1, (byte) (group >>> 8));
+		dst.put(out + 2, (byte) group);
+		return out + GROUP_BYTES;
+	}
+
+	/**
+	 * Writes a final partial group, left-aligned in its first bytes.
+	 * 
+	 * @param dst   The buffer.
+	 * @param out   The index of the first byte.
+	 * @param group The character indexes, last in the low bits.
+	 * @param count The number of characters in the group, 0 to 3.
+	 */
+	private static void putRest(ByteBuffer dst, int out, int group, int count) {
+		group <<= BITS * (GROUP - count);
+		for (int b = 0; b < count; b++) {
+			dst.put(out + b, (byte) (group >>> (16 - 8 * b)));
+		}
+	}
+
+	private static boolean inBounds(char ch) {
+		return ch >= CryptoManager.LOWER_RANGE && ch <= CryptoManager.UPPER_RANGE;
+	}
+
+	/**
+	 * Packs characters into a buffer and writes them out a block at a time.
+	 */
+	private static final class PackingWriter extends Writer {
+
+		private final OutputStream out;
+		// A whole number of groups, so only the last block has a partial group
+		private final char[] chars = new char[GROUP * 1024];
+		private final byte[] bytes = new byte[GROUP_BYTES * 1024];
+		private int count;
+		private boolean closed;
+
+		PackingWriter(OutputStream out) {
+			this.out = out;
+		}
+
+		@Override
+		public void write(int c) throws IOException {
+			write(new char[] { (char) c }, 0, 1);
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) throws IOException {
+			Objects.checkFromIndexSize(off, len, cbuf.length);
+			ensureOpen();
+			for (int i = 0; i < len; i++) {
+				char c = cbuf[off + i];
+				if (!inBounds(c)) {
+					throw new CharConversionException(CryptoManager.NOT_IN_BOUNDS);
+				}
+				chars[count++] = c;
+				if (count == chars.length) {
+					drain();
+				}
+			}
+		}
+
+		@Override
+		public void write(String str, int off, int len) throws IOException {
+			write(str.toCharArray(), off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			ensureOpen();
+			// A partial group stays buffered until more arrives or the writer closes
+			int whole = count & -GROUP;
+			if (whole > 0) {
+				int rest = count - whole;
+				count = whole;
+				drain();
+				System.arraycopy(chars, whole, chars, 0, rest);
+				count = rest;
+			}
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed) {
+				return;
+			}
+			int rest = count & (GROUP - 1);
+			drain();
+			out.write(rest);
+			closed = true;
+			out.close();
+		}
+
+		/**
+		 * Packs and writes out every buffered character.
+		 * 
+		 * @throws IOException if writing fails.
+		 */
+		private void drain() throws IOException {
+			ByteBuffer packed = ByteBuffer.wrap(bytes);
+			encode(chars, 0, count, packed);
+			out.write(bytes, 0, packed.position());
+			count = 0;
+		}
+
+		private void ensureOpen() throws IOException {
+			if (closed) {
+				throw new IOException("Writer closed");
+			}
+		}
+	}
+
+	/**
+	 * Reads packed bytes a block at a time and unpacks them. The last four bytes
+	 * read are held back until the end of the stream, since they may be a partial
+	 * group and its trailer.
+	 */
+	private static final class UnpackingReader extends Reader {
+
+		// Up to three bytes of a partial group and the trailer byte
+		private static final int TAIL = GROUP_BYTES + 1;
+
+		private final InputStream in;
+		private final byte[] bytes = new byte[GROUP_BYTES * 1024 + TAIL];
+		private final char[] chars = new char[GROUP * 1024];
+		private int byteStart, byteEnd;
+		private int charStart, charEnd;
+		private boolean eof, finished;
+
+		UnpackingReader(InputStream in) {
+			this.in = in;
+		}
+
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			Objects.checkFromIndexSize(off, len, cbuf.length);
+			if (len == 0) {
+				return 0;
+			}
+			if (charStart == charEnd && !fill()) {
+				return -1;
+			}
+			int n = Math.min(len, charEnd - charStart);
+			System.arraycopy(chars, charStart, cbuf, off, n);
+			charStart += n;
+			return n;
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+
+		/**
+		 * Unpacks the next block of characters.
+		 * 
+		 * @return false at the end of the text.
+		 * 
+		 * @throws IOException if reading fails or the stream is malformed.
+		 */
+		private boolean fill() throws IOException {
+			while (!finished) {
+				int available = byteEnd - byteStart;
+				if (eof) {
+					finished = true;
+					return finish(available);
+				}
+				int groups = (available - TAIL) / GROUP_BYTES;
+				if (groups > 0) {
+					unpack(groups * GROUP_BYTES, groups * GROUP);
+					return true;
+				}
+				System.arraycopy(bytes, byteStart, bytes, 0, available);
+				byteStart = 0;
+				byteEnd = available;
+				int n = in.read(bytes, byteEnd, bytes.length - byteEnd);
+				if (n < 0) {
+					eof = true;
+				} else {
+					byteEnd += n;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Unpacks what is left once the stream has ended.
+		 * 
+		 * @param available The bytes left, including the trailer.
+		 * 
+		 * @return false if there were no characters left.
+		 * 
+		 * @throws IOException if the trailer is missing or does not match.
+		 */
+		private boolean finish(int available) throws IOException {
+			if (available == 0) {
+				throw new EOFException("Packed stream has no trailer");
+			}
+			int rest = bytes[byteEnd - 1];
+			// A partial group of k characters takes k bytes
+			int body = available - 1 - rest;
+			if (rest < 0 || rest >= GROUP || body < 0 || body % GROUP_BYTES != 0) {
+				throw new StreamCorruptedException("Packed stream trailer does not match its length");
+			}
+			int length = body / GROUP_BYTES * GROUP + rest;
+			unpack(available - 1, length);
+			return length > 0;
+		}
+
+		private void unpack(int byteCount, int length) {
+			decode(ByteBuffer.wrap(bytes, byteStart, byteCount), length, chars, 0);
+			byteStart += byteCount;
+			charStart = 0;
+			charEnd = length;
+		}
+	}
+}
@@ -0,0 +1,198 @@
+/**
+ * A compiled Playfair key.
+ * 
+ * The 8x8 matrix is built once from the key string, and from it two digraph
+ * tables: the encrypted and decrypted form of every one of the 64 x 64 possible
+ * pairs. Encrypting or decrypting a pair with a compiled key is then a single
+ * array load, with none of the same-row, same-column and rectangle branches.
+ * Each table entry packs the two output indexes into 12 bits of a char, so the
+ * two tables take 16 KB per key. Input characters find their index through the
+ * key's {@link Alphabet}, so a case-folding key accepts lower case at no extra
+ * cost.
+ * 
+ * Instances are immutable and can be shared freely between threads.
+ */
+public final class PlayfairKey {
+
+	// Bits per character index; an index pair (a << INDEX_BITS | b) selects a table entry
+	private static final int INDEX_BITS = 6;
+	private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+
+	private final String key;
+	// Index of each input character, with case folding built in
+	private final short[] indexes;
+	private final char[][] matrix;
+	private final char[] encryptTable = new char[CryptoManager.RANGE * CryptoManager.RANGE];
+	private final char[] decryptTable = new char[CryptoManager.RANGE * CryptoManager.RANGE];
+
+	/**
+	 * Compiles a Playfair key.
+	 * 
+	 * @param key The keyword used to construct the Playfair matrix.
+	 * 
+	 * @throws IllegalArgumentException if the key is out of bounds.
+	 */
+	public PlayfairKey(String key) {
+		this(key, Alphabet.DEFAULT);
+	}
+
+	/**
+	 * Compiles a Playfair key that reads the keyword and the text through an
+	 * alphabet, so that, for example, lower-case input folds to upper case.
+	 * 
+	 * @param key      The keyword used to construct the Playfair matrix.
+	 * @param alphabet The alphabet.
+	 * 
+	 * @throws IllegalArgumentException if the key is not in the alphabet.
+	 */
+	public PlayfairKey(String key, Alphabet alphabet) {
+		long start = CryptoMetrics.start();
+		this.key = key;
+		this.indexes = alphabet.indexes();
+		this.matrix = CryptoManager.buildPlayfairMatrix(fold(key, alphabet));
+
+		// Square position (row * 8 + column) of each character index
+		int[] positions = new int[CryptoManager.RANGE];
+		for (int r = 0; r < 8; r++) {
+			for (int c = 0; c < 8; c++) {
+				positions[matrix[r][c] - CryptoManager.LOWER_RANGE] = r << 3 | c;
+			}
+		}
+
+		for (int a = 0; a < CryptoManager.RANGE; a++) {
+			for (int b = 0; b < CryptoManager.RANGE; b++) {
+				int pair = a << INDEX_BITS | b;
+				encryptTable[pair] = entry(digraph(positions[a], positions[b], 1));
+				decryptTable[pair] = entry(digraph(positions[a], positions[b], 7));
+			}
+		}
+		CryptoMetrics.PLAYFAIR.recordKeyBuild(start);
+	}
+
+	/**
+	 * Applies the Playfair rules to one pair: same row, shift along the row; same
+	 * column, shift along the column; otherwise swap columns (the rectangle rule).
+	 * Shared with {@link OffHeapKeyStore}, which keeps the square but not the
+	 * tables.
+	 * 
+	 * @param first  The square position of the first character, row * 8 + column.
+	 * @param second The square position of the second character.
+	 * @param step   1 to encrypt (right or down), 7 to decrypt (left or up).
+	 * 
+	 * @return The output positions, the first in the high 6 bits.
+	 */
+	static int digraph(int first, int second, int step) {
+		int r1 = first >>> 3, c1 = first & 7, r2 = second >>> 3, c2 = second & 7;
+		if (r1 == r2) {
+			c1 = (c1 + step) & 7;
+			c2 = (c2 + step) & 7;
+		} else if (c1 == c2) {
+			r1 = (r1 + step) & 7;
+			r2 = (r2 + step) & 7;
+		} else {
+			int temp = c1;
+			c1 = c2;
+			c2 = temp;
+		}
+		return (r1 << 3 | c1) << INDEX_BITS | r2 << 3 | c2;
+	}
+
+	/**
+	 * Turns a pair of output positions into a table entry.
+	 * 
+	 * @param positions The positions, as returned by digraph.
+	 * 
+	 * @return The two packed character indexes.
+	 */
+	private char entry(int positions) {
+		int first = positions >>> INDEX_BITS, second = positions & INDEX_MASK;
+		int a = matrix[first >>> 3][first & 7] - CryptoManager.LOWER_RANGE;
+		int b = matrix[second >>> 3][second & 7] - CryptoManager.LOWER_RANGE;
+		return (char) (a << INDEX_BITS | b);
+	}
+
+	/**
+	 * Returns the keyword this key was compiled from.
+	 * 
+	 * @return The keyword.
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * Encrypts a pair of characters in the alphabet.
+	 * 
+	 * @param a The first character.
+	 * @param b The second character.
+	 * 
+	 * @return The encrypted pair, first character in the high 16 bits.
+	 */
+	int encrypt(char a, char b) {
+		return unpack(encryptTable[indexes[a] << INDEX_BITS | indexes[b]]);
+	}
+
+	/**
+	 * Decrypts a pair of characters in the alphabet.
+	 * 
+	 * @param a The first character.
+	 * @param b The second character.
+	 * 
+	 * @return The decrypted pair, first character in the high 16 bits.
+	 */
+	int decrypt(char a, char b) {
+		return unpack(decryptTable[indexes[a] << INDEX_BITS | indexes[b]]);
+	}
+
+	/**
+	 * Returns the index of an input character in this key's alphabet.
+	 * 
+	 * @param c The character.
+	 * 
+	 * @return The index, or -1 if the character cannot be encrypted.
+	 */
+	int indexOf(char c) {
+		return c < indexes.length ? indexes[c] : -1;
+	}
+
+	/**
+	 * Returns the index table of this key's alphabet.
+	 * 
+	 * @return The table; not to be modified.
+	 */
+	short[] indexes() {
+		return indexes;
+	}
+
+	/**
+	 * Spells a keyword in the characters of the alphabet, folding any others.
+	 * 
+	 * @param key      The keyword.
+	 * @param alphabet The alphabet.
+	 * 
+	 * @return The folded keyword; unchanged characters outside the alphabet are
+	 *         left for the caller to reject.
+	 */
+	static String fold(String key, Alphabet alphabet) {
+		char[] folded = key.toCharArray();
+		for (int i = 0; i < folded.length; i++) {
+			int index = alphabet.indexOf(folded[i]);
+			if (index >= 0) {
+				folded[i] = alphabet.charAt(index);
+			}
+		}
+		return new String(folded);
+	}
+
+	/**
+	 * Turns a table entry into a pair of characters.
+	 * 
+	 * @param entry The two packed character indexes.
+	 * 
+	 * @return The pair, first character in the high 16 bits.
+	 */
+	private static int unpack(char entry) {
+		return (entry >>> INDEX_BITS) + CryptoManager.LOWER_RANGE << 16
+				| (entry & INDEX_MASK) + CryptoManager.LOWER_RANGE;
+	}
+}
@@ -0,0 +1,341 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Recovers a lost 8x8 Playfair key from ciphertext by simulated annealing.
+ * 
+ * A candidate key is a matrix of the 64 characters, kept as two byte arrays:
+ * the character in each cell and the cell of each character, so a trial
+ * decryption of a pair is a few array loads and never scans the matrix. Each
+ * step changes the candidate in place by swapping two cells, two rows or two
+ * columns, and undoes the change if it is rejected.
+ * 
+ * Playfair only ever works on aligned pairs, so the ciphertext is reduced once
+ * to the distinct pairs it contains and how often each occurs. Scoring a
+ * candidate decrypts each distinct pair once and adds up the bigram
+ * log-probabilities of the results, looked up in a flat float[4096] built from
+ * sample text. A step therefore costs at most 4096 lookups, however long the
+ * ciphertext.
+ * 
+ * Independent restarts run on a thread pool, each with its own random source.
+ * The best key found so far is published through an {@link AtomicReference}, so
+ * threads never block on each other.
+ */
+public class PlayfairSolver implements AutoCloseable {
+
+	private static final int SIZE = 8;
+	private static final int CELLS = SIZE * SIZE;
+	// In units of the mean log-probability per pair; hot enough to leave a bad
+	// matrix, cool enough to keep most of a good one
+	private static final double START_TEMPERATURE = 0.1;
+
+	// Log-probability of each bigram (a << 6 | b), from the sample text
+	private final float[] bigrams = new float[CryptoManager.RANGE * CryptoManager.RANGE];
+	private final ExecutorService executor;
+	private final int threads;
+
+	/**
+	 * Creates a solver.
+	 * 
+	 * @param threads The number of restarts run at once.
+	 * @param sample  Text like the expected plaintext, a few kilobytes or more,
+	 *                used to learn which character pairs are common; out-of-bounds
+	 *                characters are skipped.
+	 */
+	public PlayfairSolver(int threads, CharSequence sample) {
+		this.threads = threads;
+		this.executor = Executors.newFixedThreadPool(threads, r -> {
+			Thread thread = new Thread(r, "playfair-solver");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		int[] counts = new int[bigrams.length];
+		long total = 0;
+		int previous = -1;
+		for (int i = 0; i < sample.length(); i++) {
+			int index = sample.charAt(i) - CryptoManager.LOWER_RANGE;
+			if (index < 0 || index >= CryptoManager.RANGE) {
+				previous = -1;
+				continue;
+			}
+			if (previous >= 0) {
+				counts[previous << 6 | index]++;
+				total++;
+			}
+			previous = index;
+		}
+		// Unseen pairs get half a count, so no trial is ruled out entirely
+		for (int i = 0; i < bigrams.length; i++) {
+			bigrams[i] = (float) Math.log((counts[i] + 0.5) / (total + 0.5 * bigrams.length));
+		}
+	}
+
+	/**
+	 * Searches for the key of a ciphertext.
+	 * 
+	 * @param ciphertext The text encrypted with {@link
+	 *                   CryptoManager#playfairEncryption(String, String)}.
+	 * @param restarts   The number of independent searches.
+	 * @param iterations The number of steps in each search.
+	 * 
+	 * @return The best key found.
+	 * 
+	 * @throws IllegalArgumentException if the ciphertext is out of bounds or of odd
+	 *                                  length.
+	 */
+	public Solution solve(String ciphertext, int restarts, int iterations) {
+		if ((ciphertext.length() & 1) != 0 || !CryptoManager.isStringInBounds(ciphertext)) {
+			throw new IllegalArgumentException(CryptoManager.NOT_IN_BOUNDS);
+		}
+
+		// Distinct ciphertext pairs and how often each occurs
+		int[] counts = new int[bigrams.length];
+		for (int i = 0; i < ciphertext.length(); i += 2) {
+			counts[(ciphertext.charAt(i) - CryptoManager.LOWER_RANGE) << 6
+					| (ciphertext.charAt(i + 1) - CryptoManager.LOWER_RANGE)]++;
+		}
+		int distinct = 0;
+		for (int count : counts) {
+			if (count > 0) {
+				distinct++;
+			}
+		}
+		short[] pairs = new short[distinct];
+		int[] weights = new int[distinct];
+		for (int i = 0, p = 0; i < counts.length; i++) {
+			if (counts[i] > 0) {
+				pairs[p] = (short) i;
+				weights[p++] = counts[i];
+			}
+		}
+		int pairCount = ciphertext.length() / 2;
+
+		AtomicReference<Solution> best = new AtomicReference<>();
+		List<Future<?>> searches = new ArrayList<>();
+		for (int r = 0; r < restarts; r++) {
+			long seed = r * 0x9E3779B97F4A7C15L;
+			searches.add(executor.submit(() -> {
+				Solution found = new Search(pairs, weights, pairCount, new SplittableRandom(seed)).run(iterations);
+				best.accumulateAndGet(found, (a, b) -> a == null || b.score > a.score ? b : a);
+			}));
+		}
+		try {
+			for (Future<?> search : searches) {
+				search.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+		return best.get();
+	}
+
+	/**
+	 * Returns the number of restarts run at once.
+	 * 
+	 * @return The thread count.
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Stops the worker threads.
+	 */
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * A key found by the solver.
+	 */
+	public static final class Solution {
+
+		private final String key;
+		private final double score;
+
+		Solution(String key, double score) {
+			this.key = key;
+			this.score = score;
+		}
+
+		/**
+		 * Returns the key: all 64 characters in matrix order, which is also a keyword
+		 * that builds the same matrix.
+		 * 
+		 * @return The key.
+		 */
+		public String getKey() {
+			return key;
+		}
+
+		/**
+		 * Returns the mean bigram log-probability of the decrypted pairs; higher is
+		 * more like the sample text.
+		 * 
+		 * @return The score.
+		 */
+		public double getScore() {
+			return score;
+		}
+	}
+
+	/**
+	 * One annealing run. Not thread safe; each thread has its own.
+	 */
+	private class Search {
+
+		private final short[] pairs;
+		private final int[] weights;
+		private final int pairCount;
+		private final SplittableRandom random;
+		// The character index in each cell, and the cell of each character index
+		private final byte[] matrix = new byte[CELLS];
+		private final byte[] cells = new byte[CELLS];
+
+		Search(short[] pairs, int[] weights, int pairCount, SplittableRandom random) {
+			this.pairs = pairs;
+			this.weights = weights;
+			this.pairCount = pairCount;
+			this.random = random;
+		}
+
+		/**
+		 * Anneals from a random matrix.
+		 * 
+		 * @param iterations The number of steps.
+		 * 
+		 * @return The best matrix seen.
+		 */
+		Solution run(int iterations) {
+			for (int i = 0; i < CELLS; i++) {
+				matrix[i] = (byte) i;
+				cells[i] = (byte) i;
+			}
+			for (int i = CELLS - 1; i > 0; i--) {
+				swapCells(i, random.nextInt(i + 1));
+			}
+
+			double score = score();
+			double bestScore = score;
+			byte[] best = matrix.clone();
+			for (int step = 0; step < iterations; step++) {
+				// The temperature falls linearly to zero: a random walk first, then a climb
+				double temperature = START_TEMPERATURE * (iterations - step) / iterations;
+
+				int kind = random.nextInt(20), a, b;
+				if (kind == 0) {
+					a = random.nextInt(SIZE);
+					b = random.nextInt(SIZE);
+					swapRows(a, b);
+				} else if (kind == 1) {
+					a = random.nextInt(SIZE);
+					b = random.nextInt(SIZE);
+					swapColumns(a, b);
+				} else {
+					a = random.nextInt(CELLS);
+					b = random.nextInt(CELLS);
+					swapCells(a, b);
+				}
+
+				double trial = score();
+				double delta = trial - score;
+				if (delta >= 0 || random.nextDouble() < Math.exp(delta / temperature)) {
+					score = trial;
+					if (score > bestScore) {
+						bestScore = score;
+						System.arraycopy(matrix, 0, best, 0, CELLS);
+					}
+				} else if (kind == 0) {
+					swapRows(a, b);
+				} else if (kind == 1) {
+					swapColumns(a, b);
+				} else {
+					swapCells(a, b);
+				}
+			}
+
+			char[] key = new char[CELLS];
+			for (int i = 0; i < CELLS; i++) {
+				key[i] = (char) (best[i] + CryptoManager.LOWER_RANGE);
+			}
+			return new Solution(new String(key), bestScore);
+		}
+
+		/**
+		 * Decrypts every distinct pair with the current matrix and scores the result.
+		 * 
+		 * @return The mean bigram log-probability per ciphertext pair.
+		 */
+		private double score() {
+			double total = 0;
+			for (int p = 0; p < pairs.length; p++) {
+				int pair = pairs[p];
+				int cell1 = cells[pair >>> 6], cell2 = cells[pair & 63];
+				int r1 = cell1 >>> 3, c1 = cell1 & 7, r2 = cell2 >>> 3, c2 = cell2 & 7;
+				// The Playfair rules, decrypting: left, up, or swap columns
+				if (r1 == r2) {
+					c1 = c1 + 7 & 7;
+					c2 = c2 + 7 & 7;
+				} else if (c1 == c2) {
+					r1 = r1 + 7 & 7;
+					r2 = r2 + 7 & 7;
+				} else {
+					int temp = c1;
+					c1 = c2;
+					c2 = temp;
+				}
+				total += weights[p] * bigrams[matrix[r1 << 3 | c1] << 6 | matrix[r2 << 3 | c2]];
+			}
+			return total / pairCount;
+		}
+
+		/**
+		 * Swaps the characters in two cells, keeping the cell table in step.
+		 * 
+		 * @param a The first cell.
+		 * @param b The second cell.
+		 */
+		private void swapCells(int a, int b) {
+			byte x = matrix[a], y = matrix[b];
+			matrix[a] = y;
+			matrix[b] = x;
+			cells[y] = (byte) a;
+			cells[x] = (byte) b;
+		}
+
+		/**
+		 * Swaps two rows of the matrix.
+		 * 
+		 * @param a The first row.
+		 * @param b The second row.
+		 */
+		private void swapRows(int a, int b) {
+			for (int c = 0; c < SIZE; c++) {
+				swapCells(a << 3 | c, b << 3 | c);
+			}
+		}
+
+		/**
+		 * Swaps two columns of the matrix.
+		 * 
+		 * @param a The first column.
+		 * @param b The second column.
+		 */
+		private void swapColumns(int a, int b) {
+			for (int r = 0; r < SIZE; r++) {
+				swapCells(r << 3 | a, r << 3 | b);
+			}
+		}
+	}
+}
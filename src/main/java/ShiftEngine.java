@@ -0,0 +1,280 @@
+import java.nio.ByteBuffer;
+import java.util.Locale;
+
+/**
+ * The loops that apply a {@link ShiftSchedule} for the Caesar and Vigenere
+ * ciphers. Every engine gives the same results, including where it stops on an
+ * out-of-bounds character; they differ only in speed.
+ * 
+ * 1. SCALAR computes each shift with an addition and a modulo, like {@link
+ * CryptoManager#shiftCharacter(char, int)}.
+ * 
+ * 2. TABLE looks each character up in the substitution row of its key position.
+ * 
+ * 3. SWAR shifts ASCII bytes eight at a time (see {@link SwarShift});
+ * characters are 16 bits wide, so char ranges use the TABLE loop, as do bytes
+ * read through a case-folding {@link Alphabet}.
+ * 
+ * One engine is picked at startup. Set the system property crypto.engine to
+ * scalar, table or swar to choose it; otherwise SWAR is used on a 64-bit JVM,
+ * where a long fits in a register, and TABLE elsewhere.
+ */
+enum ShiftEngine {
+
+	SCALAR {
+		@Override
+		int shift(char[] src, int srcOffset, int length, char[] dst, int dstOffset, ShiftSchedule schedule,
+				int phase) {
+			return shift(src, srcOffset, length, dst, dstOffset, schedule.shifts, schedule.indexes, phase);
+		}
+
+		@Override
+		int shift(byte[] text, int offset, int length, ShiftSchedule schedule) {
+			int[] shifts = schedule.shifts;
+			short[] indexes = schedule.indexes;
+			int keyIndex = 0;
+			for (int i = 0; i < length; i++) {
+				int c = text[offset + i] & 0xFF;
+				int index = c < indexes.length ? indexes[c] : -1;
+				if (index < 0) {
+					return -(i + 1);
+				}
+				text[offset + i] = (byte) ((index + shifts[keyIndex]) % CryptoManager.RANGE
+						+ CryptoManager.LOWER_RANGE);
+
+				if (++keyIndex == shifts.length) {
+					keyIndex = 0;
+				}
+			}
+			return length;
+		}
+
+		@Override
+		int shift(ByteBuffer src, ByteBuffer dst, int from, int to, ShiftSchedule schedule) {
+			int[] shifts = schedule.shifts;
+			short[] indexes = schedule.indexes;
+			int keyIndex = 0;
+			for (int i = from; i < to; i++) {
+				int c = src.get(i) & 0xFF;
+				int index = c < indexes.length ? indexes[c] : -1;
+				if (index < 0) {
+					return -(i - from + 1);
+				}
+				dst.put(i, (byte) ((index + shifts[keyIndex]) % CryptoManager.RANGE + CryptoManager.LOWER_RANGE));
+
+				if (++keyIndex == shifts.length) {
+					keyIndex = 0;
+				}
+			}
+			return to - from;
+		}
+	},
+
+	TABLE {
+		@Override
+		int shift(char[] src, int srcOffset, int length, char[] dst, int dstOffset, ShiftSchedule schedule,
+				int phase) {
+			char[][] rows = schedule.rows;
+			short[] indexes = schedule.indexes;
+			int keyIndex = phase;
+			for (int i = 0; i < length; i++) {
+				// Bounds are checked, and case folded, in the same load as the index
+				char c = src[srcOffset + i];
+				int index = c < indexes.length ? indexes[c] : -1;
+				if (index < 0) {
+					return -(i + 1);
+				}
+				dst[dstOffset + i] = rows[keyIndex][index];
+
+				if (++keyIndex == rows.length) {
+					keyIndex = 0;
+				}
+			}
+			return length;
+		}
+
+		@Override
+		int shift(byte[] text, int offset, int length, ShiftSchedule schedule) {
+			char[][] rows = schedule.rows;
+			short[] indexes = schedule.indexes;
+			int keyIndex = 0;
+			for (int i = 0; i < length; i++) {
+				int c = text[offset + i] & 0xFF;
+				int index = c < indexes.length ? indexes[c] : -1;
+				if (index < 0) {
+					return -(i + 1);
+				}
+				text[offset + i] = (byte) rows[keyIndex][index];
+
+				if (++keyIndex == rows.length) {
+					keyIndex = 0;
+				}
+			}
+			return length;
+		}
+
+		@Override
+		int shift(ByteBuffer src, ByteBuffer dst, int from, int to, ShiftSchedule schedule) {
+			char[][] rows = schedule.rows;
+			short[] indexes = schedule.indexes;
+			int keyIndex = 0;
+			for (int i = from; i < to; i++) {
+				int c = src.get(i) & 0xFF;
+				int index = c < indexes.length ? indexes[c] : -1;
+				if (index < 0) {
+					return -(i - from + 1);
+				}
+				dst.put(i, (byte) rows[keyIndex][index]);
+
+				if (++keyIndex == rows.length) {
+					keyIndex = 0;
+				}
+			}
+			return to - from;
+		}
+	},
+
+	SWAR {
+		@Override
+		int shift(char[] src, int srcOffset, int length, char[] dst, int dstOffset, ShiftSchedule schedule,
+				int phase) {
+			return TABLE.shift(src, srcOffset, length, dst, dstOffset, schedule, phase);
+		}
+
+		@Override
+		int shift(byte[] text, int offset, int length, ShiftSchedule schedule) {
+			// The word-wide range check cannot fold case
+			if (schedule.alphabet.isCaseFolding()) {
+				return TABLE.shift(text, offset, length, schedule);
+			}
+			return SwarShift.shift(text, offset, length, schedule);
+		}
+
+		@Override
+		int shift(ByteBuffer src, ByteBuffer dst, int from, int to, ShiftSchedule schedule) {
+			if (schedule.alphabet.isCaseFolding()) {
+				return TABLE.shift(src, dst, from, to, schedule);
+			}
+			return SwarShift.shift(src, dst, from, to, schedule);
+		}
+	};
+
+	/** The engine used by every cipher, chosen once at startup. */
+	static final ShiftEngine SELECTED = select();
+
+	/**
+	 * Applies a schedule to a range of characters, checking the bounds as it goes.
+	 * The ranges have already been checked against the arrays.
+	 * 
+	 * @param src       The characters to be shifted.
+	 * @param srcOffset The index of the first character.
+	 * @param length    The number of characters.
+	 * @param dst       The array receiving the shifted characters.
+	 * @param dstOffset The index in dst where the first shifted character goes.
+	 * @param schedule  The key schedule.
+	 * @param phase     The key position applied to the first character.
+	 * 
+	 * @return The number of characters written, or -(i + 1) if character i is out
+	 *         of bounds.
+	 */
+	abstract int shift(char[] src, int srcOffset, int length, char[] dst, int dstOffset, ShiftSchedule schedule,
+			int phase);
+
+	/**
+	 * Applies a schedule to a range of ASCII bytes in place, from its first key
+	 * position, checking the bounds as it goes.
+	 * 
+	 * @param text     The bytes to be shifted.
+	 * @param offset   The index of the first byte.
+	 * @param length   The number of bytes.
+	 * @param schedule The key schedule.
+	 * 
+	 * @return The number of bytes shifted, or -(i + 1) if byte i is out of bounds.
+	 */
+	abstract int shift(byte[] text, int offset, int length, ShiftSchedule schedule);
+
+	/**
+	 * Applies a schedule to a range of ASCII bytes in a buffer, from its first key
+	 * position, checking the bounds as it goes. Positions are not changed.
+	 * 
+	 * @param src      The bytes to be shifted.
+	 * @param dst      The buffer receiving each shifted byte at the same index; may
+	 *                 be src.
+	 * @param from     The index of the first byte.
+	 * @param to       The index after the last byte.
+	 * @param schedule The key schedule.
+	 * 
+	 * @return The number of bytes shifted, or -(i + 1) if byte from + i is out of
+	 *         bounds.
+	 */
+	abstract int shift(ByteBuffer src, ByteBuffer dst, int from, int to, ShiftSchedule schedule);
+
+	/**
+	 * Applies plain shifts to a range of characters, checking the bounds as it
+	 * goes. This is the SCALAR loop, for callers that hold the shifts of a key but
+	 * no compiled schedule, such as {@link OffHeapKeyStore}.
+	 * 
+	 * @param src       The characters to be shifted.
+	 * @param srcOffset The index of the first character.
+	 * @param length    The number of characters.
+	 * @param dst       The array receiving the shifted characters.
+	 * @param dstOffset The index in dst where the first shifted character goes.
+	 * @param shifts    The shift at each key position, each between 0 and RANGE - 1.
+	 * @param indexes   The index table of the input alphabet.
+	 * @param phase     The key position applied to the first character.
+	 * 
+	 * @return The number of characters written, or -(i + 1) if character i is out
+	 *         of bounds.
+	 */
+	static int shift(char[] src, int srcOffset, int length, char[] dst, int dstOffset, int[] shifts,
+			short[] indexes, int phase) {
+		int keyIndex = phase;
+		for (int i = 0; i < length; i++) {
+			char c = src[srcOffset + i];
+			int index = c < indexes.length ? indexes[c] : -1;
+			if (index < 0) {
+				return -(i + 1);
+			}
+			dst[dstOffset + i] = (char) ((index + shifts[keyIndex]) % CryptoManager.RANGE
+					+ CryptoManager.LOWER_RANGE);
+
+			if (++keyIndex == shifts.length) {
+				keyIndex = 0;
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Picks the engine from the crypto.engine property or the JVM.
+	 * 
+	 * @return The engine.
+	 */
+	private static ShiftEngine select() {
+		return select(System.getProperty("crypto.engine"), System.getProperty("sun.arch.data.model"));
+	}
+
+	/**
+	 * Picks the engine for a configured name and JVM data model. An unknown name is
+	 * logged and ignored, since throwing here would fail class initialization and
+	 * leave every cipher unusable.
+	 * 
+	 * @param configured The crypto.engine value, or null.
+	 * @param dataModel  The sun.arch.data.model value, or null.
+	 * 
+	 * @return The engine.
+	 */
+	static ShiftEngine select(String configured, String dataModel) {
+		ShiftEngine fallback = "64".equals(dataModel) ? SWAR : TABLE;
+		if (configured == null) {
+			return fallback;
+		}
+		try {
+			return valueOf(configured.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			System.getLogger(ShiftEngine.class.getName()).log(System.Logger.Level.WARNING,
+					"Unknown crypto.engine \"" + configured + "\", using " + fallback);
+			return fallback;
+		}
+	}
+}
@@ -0,0 +1,76 @@
+/**
+ * The key schedule shared by the Caesar and Vigenere ciphers: the shift applied
+ * at each key position, as plain shifts and in two precomputed forms.
+ * 
+ * 1. One substitution row per key position, for the character-at-a-time loops.
+ * 
+ * 2. One packed word per key position holding the shifts of the next eight
+ * positions, for the eight-bytes-at-a-time ASCII loops in {@link SwarShift}.
+ * 
+ * A Caesar key is simply a schedule of length one. Each schedule also carries
+ * the {@link CryptoMetrics} of its cipher, so the shared loops can record
+ * against the right one, and the index table of its {@link Alphabet}, so the
+ * loops fold case in the same load that checks the bounds.
+ */
+final class ShiftSchedule {
+
+	// Fields are read directly by the cipher loops
+	final int[] shifts;
+	final char[][] rows;
+	final long[] words;
+	final int[] nextPhase;
+	final CryptoMetrics metrics;
+	// Index of each input character, with case folding built in
+	final Alphabet alphabet;
+	final short[] indexes;
+
+	/**
+	 * Builds a schedule from per-position shifts.
+	 * 
+	 * @param shifts  The shift at each key position, each between 0 and RANGE - 1.
+	 * @param metrics The metrics of the cipher using the schedule.
+	 */
+	ShiftSchedule(int[] shifts, CryptoMetrics metrics) {
+		this(shifts, metrics, Alphabet.DEFAULT);
+	}
+
+	/**
+	 * Builds a schedule from per-position shifts, reading input through an
+	 * alphabet.
+	 * 
+	 * @param shifts   The shift at each key position, each between 0 and RANGE - 1.
+	 * @param metrics  The metrics of the cipher using the schedule.
+	 * @param alphabet The alphabet of the input; one the ciphers accept.
+	 */
+	ShiftSchedule(int[] shifts, CryptoMetrics metrics, Alphabet alphabet) {
+		int length = shifts.length;
+		this.metrics = metrics;
+		this.alphabet = alphabet;
+		this.indexes = alphabet.indexes();
+		this.shifts = shifts.clone();
+		rows = new char[length][];
+		words = new long[length];
+		nextPhase = new int[length];
+
+		for (int p = 0; p < length; p++) {
+			rows[p] = CaesarKey.row(shifts[p]);
+
+			// Byte b of the word is the shift at position p + b
+			long word = 0;
+			for (int b = 0; b < 8; b++) {
+				word |= (long) shifts[(p + b) % length] << (8 * b);
+			}
+			words[p] = word;
+			nextPhase[p] = (p + 8) % length;
+		}
+	}
+
+	/**
+	 * Returns the number of key positions.
+	 * 
+	 * @return The schedule length.
+	 */
+	int length() {
+		return rows.length;
+	}
+}
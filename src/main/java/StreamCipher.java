@@ -0,0 +1,159 @@
+import java.io.CharConversionException;
+
+/**
+ * The state a cipher needs to process an unbounded text in chunks: the next
+ * Vigenere key position, and the odd trailing Playfair character waiting for
+ * its partner. Shared by {@link CipherReader} and {@link CipherWriter}.
+ * 
+ * Not thread safe; each stream owns its own instance.
+ */
+final class StreamCipher {
+
+	static final int BUFFER_SIZE = 8192;
+
+	private final ShiftSchedule schedule; // null for Playfair
+	private final PlayfairKey playfairKey;
+	private final boolean encrypt;
+
+	private int phase; // Key position of the next character
+	private boolean hasPending; // An odd Playfair character is waiting
+	private char pending;
+	private long offset; // Characters consumed so far, for error messages
+
+	/**
+	 * Creates the state for a Caesar or Vigenere stream.
+	 * 
+	 * @param schedule The encryption or decryption key schedule.
+	 */
+	StreamCipher(ShiftSchedule schedule) {
+		this.schedule = schedule;
+		this.playfairKey = null;
+		this.encrypt = true;
+	}
+
+	/**
+	 * Creates the state for a Playfair stream.
+	 * 
+	 * @param key     The compiled Playfair key.
+	 * @param encrypt true to encrypt, false to decrypt.
+	 */
+	StreamCipher(PlayfairKey key, boolean encrypt) {
+		this.schedule = null;
+		this.playfairKey = key;
+		this.encrypt = encrypt;
+	}
+
+	/**
+	 * Processes the next chunk of text.
+	 * 
+	 * Caesar and Vigenere write exactly length characters. Playfair writes whole
+	 * pairs only, so it may write one character more or one less than it reads.
+	 * 
+	 * @param src       The next characters of the text.
+	 * @param srcOffset The index of the first character.
+	 * @param length    The number of characters.
+	 * @param dst       The array receiving the result; needs room for length + 1
+	 *                  characters. May be src if dstOffset is not after srcOffset.
+	 * @param dstOffset The index in dst where the result goes.
+	 * 
+	 * @return The number of characters written.
+	 * 
+	 * @throws CharConversionException if the chunk is out of bounds.
+	 */
+	int update(char[] src, int srcOffset, int length, char[] dst, int dstOffset) throws CharConversionException {
+		int written;
+
+		if (schedule != null) {
+			written = CryptoManager.shift(src, srcOffset, length, dst, dstOffset, schedule, phase);
+			if (written < 0) {
+				throw outOfBounds(offset - written - 1);
+			}
+			phase = (int) ((phase + (long) length) % schedule.length());
+		} else {
+			int total = length + (hasPending ? 1 : 0);
+			int even = total & ~1;
+			char last = length > 0 ? src[srcOffset + length - 1] : pending;
+
+			if (even == 0) {
+				written = 0;
+			} else if (hasPending) {
+				// Shift the chunk right by one so the pending character leads
+				System.arraycopy(src, srcOffset, dst, dstOffset + 1, even - 1);
+				dst[dstOffset] = pending;
+				written = playfair(dst, dstOffset, even, dst, dstOffset, offset - 1);
+			} else {
+				written = playfair(src, srcOffset, even, dst, dstOffset, offset);
+			}
+
+			hasPending = total != even;
+			pending = last;
+		}
+
+		offset += length;
+		return written;
+	}
+
+	/**
+	 * Ends the text. A pending Playfair character is padded with a space when
+	 * encrypting; ciphertext of odd length is an error.
+	 * 
+	 * @param dst       The array receiving the last pair; needs room for two
+	 *                  characters.
+	 * @param dstOffset The index in dst where the pair goes.
+	 * 
+	 * @return The number of characters written (0 or 2).
+	 * 
+	 * @throws CharConversionException if the last character is out of bounds, or
+	 *                                 ciphertext ends in half a pair.
+	 */
+	int finish(char[] dst, int dstOffset) throws CharConversionException {
+		if (!hasPending) {
+			return 0;
+		}
+		hasPending = false;
+		if (!encrypt) {
+			throw new CharConversionException("Playfair ciphertext must have an even length");
+		}
+
+		dst[dstOffset] = pending;
+		if (CryptoManager.playfairEncryption(dst, dstOffset, 1, dst, dstOffset, playfairKey) < 0) {
+			throw outOfBounds(offset - 1);
+		}
+		return 2;
+	}
+
+	/**
+	 * Runs Playfair over whole pairs.
+	 * 
+	 * @param src       The characters to process.
+	 * @param srcOffset The index of the first character.
+	 * @param length    The number of characters (even).
+	 * @param dst       The array receiving the result.
+	 * @param dstOffset The index in dst where the result goes.
+	 * @param position  The stream offset of the first character, for errors.
+	 * 
+	 * @return The number of characters written.
+	 * 
+	 * @throws CharConversionException if the pairs are out of bounds.
+	 */
+	private int playfair(char[] src, int srcOffset, int length, char[] dst, int dstOffset, long position)
+			throws CharConversionException {
+		int written = encrypt ? CryptoManager.playfairEncryption(src, srcOffset, length, dst, dstOffset, playfairKey)
+				: CryptoManager.playfairDecryption(src, srcOffset, length, dst, dstOffset, playfairKey);
+		if (written < 0) {
+			throw outOfBounds(position - written - 1);
+		}
+		return written;
+	}
+
+	/**
+	 * Builds the error for an out-of-bounds character.
+	 * 
+	 * @param position The stream offset of the character.
+	 * 
+	 * @return The exception, naming that offset.
+	 */
+	private static CharConversionException outOfBounds(long position) {
+		return new CharConversionException(CryptoManager.NOT_IN_BOUNDS + " (character at offset " + position + ")");
+	}
+}
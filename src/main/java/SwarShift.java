@@ -0,0 +1,148 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Eight-bytes-at-a-time (SIMD within a register) engine for the ASCII byte
+ * forms of the Caesar and Vigenere ciphers.
+ * 
+ * Every allowed character is between 0x20 and 0x5F, so a byte minus 0x20 is a
+ * 6-bit index. Eight indexes are packed in a long, eight shifts are added in a
+ * single addition (no byte can carry into its neighbour because 63 + 63 fits in
+ * seven bits), and masking with 0x3F in every byte is the modulo 64. The bounds
+ * check uses the same packing to test eight bytes per comparison, on the word
+ * already loaded for the shift.
+ * 
+ * Ranges shorter than a word, and the tail of longer ones, go through the
+ * scalar table loop.
+ */
+final class SwarShift {
+
+	private static final VarHandle ARRAY_LONGS = MethodHandles.byteArrayViewVarHandle(long[].class,
+			ByteOrder.LITTLE_ENDIAN);
+	private static final VarHandle BUFFER_LONGS = MethodHandles.byteBufferViewVarHandle(long[].class,
+			ByteOrder.LITTLE_ENDIAN);
+
+	// LOWER_RANGE (and 127 - UPPER_RANGE, which is the same value) in every byte
+	private static final long LOWS = 0x2020202020202020L;
+	private static final long SIX_BITS = 0x3F3F3F3F3F3F3F3FL;
+	private static final long HIGH_BITS = 0x8080808080808080L;
+
+	private SwarShift() {
+	}
+
+	/**
+	 * Applies a key schedule to a range of ASCII bytes in place, checking the
+	 * bounds in the same pass.
+	 * 
+	 * A word with an out-of-bounds byte drops to the scalar loop, which shifts the
+	 * bytes before the bad one and stops there.
+	 * 
+	 * @param text     The bytes to be shifted.
+	 * @param offset   The index of the first byte.
+	 * @param length   The number of bytes.
+	 * @param schedule The key schedule, applied from its first position.
+	 * 
+	 * @return The number of bytes shifted, or -(i + 1) if the byte at offset + i is
+	 *         out of bounds.
+	 */
+	static int shift(byte[] text, int offset, int length, ShiftSchedule schedule) {
+		long[] words = schedule.words;
+		int[] nextPhase = schedule.nextPhase;
+		int i = offset, end = offset + length, phase = 0;
+
+		for (; i + 8 <= end; i += 8) {
+			long word = (long) ARRAY_LONGS.get(text, i);
+			if (outOfBounds(word)) {
+				break;
+			}
+			ARRAY_LONGS.set(text, i, shift(word, words[phase]));
+			phase = nextPhase[phase];
+		}
+
+		char[][] rows = schedule.rows;
+		for (; i < end; i++) {
+			int index = (text[i] & 0xFF) - CryptoManager.LOWER_RANGE;
+			if (index < 0 || index >= CryptoManager.RANGE) {
+				return -(i - offset + 1);
+			}
+			text[i] = (byte) rows[phase][index];
+			if (++phase == rows.length) {
+				phase = 0;
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Applies a key schedule to a range of ASCII bytes in a buffer, checking the
+	 * bounds in the same pass. Uses absolute reads and writes, so no position is
+	 * changed.
+	 * 
+	 * @param src      The bytes to be shifted.
+	 * @param dst      The buffer receiving each shifted byte at the same index; may
+	 *                 be src.
+	 * @param from     The index of the first byte.
+	 * @param to       The index after the last byte.
+	 * @param schedule The key schedule, applied from its first position.
+	 * 
+	 * @return The number of bytes shifted, or -(i + 1) if the byte at from + i is
+	 *         out of bounds.
+	 */
+	static int shift(ByteBuffer src, ByteBuffer dst, int from, int to, ShiftSchedule schedule) {
+		long[] words = schedule.words;
+		int[] nextPhase = schedule.nextPhase;
+		int i = from, phase = 0;
+
+		for (; i + 8 <= to; i += 8) {
+			long word = (long) BUFFER_LONGS.get(src, i);
+			if (outOfBounds(word)) {
+				break;
+			}
+			BUFFER_LONGS.set(dst, i, shift(word, words[phase]));
+			phase = nextPhase[phase];
+		}
+
+		char[][] rows = schedule.rows;
+		for (; i < to; i++) {
+			int index = (src.get(i) & 0xFF) - CryptoManager.LOWER_RANGE;
+			if (index < 0 || index >= CryptoManager.RANGE) {
+				return -(i - from + 1);
+			}
+			dst.put(i, (byte) rows[phase][index]);
+			if (++phase == rows.length) {
+				phase = 0;
+			}
+		}
+		return to - from;
+	}
+
+	/**
+	 * Tests eight packed bytes against the bounds.
+	 * 
+	 * A byte below 0x20 borrows when 0x20 is subtracted, a byte above 0x5F carries
+	 * into bit 7 when 0x20 is added, and a byte of 0x80 or more already has bit 7
+	 * set. A borrow or carry can only cross into the next byte from a byte that was
+	 * already caught, so the test is exact.
+	 * 
+	 * @param word Eight bytes.
+	 * 
+	 * @return true if any byte is out of bounds.
+	 */
+	private static boolean outOfBounds(long word) {
+		return ((((word - LOWS) & ~word) | (word + LOWS) | word) & HIGH_BITS) != 0;
+	}
+
+	/**
+	 * Shifts eight packed in-bounds bytes.
+	 * 
+	 * @param word   Eight bytes, each between 0x20 and 0x5F.
+	 * @param shifts Eight shifts, each between 0 and 63.
+	 * 
+	 * @return The eight shifted bytes.
+	 */
+	private static long shift(long word, long shifts) {
+		return (((word - LOWS) + shifts) & SIX_BITS) + LOWS;
+	}
+}
@@ -0,0 +1,87 @@
+/**
+ * A compiled Vigenere key.
+ * 
+ * The key schedule is one substitution row per key position, taken from the
+ * shared Caesar shift table (see {@link ShiftSchedule}). The cipher loops then
+ * walk the schedule with a counter and do one table load per character, instead
+ * of recomputing the key shift and a modulo for every character.
+ * 
+ * Instances are immutable and can be shared freely between threads.
+ */
+public final class VigenereKey {
+
+	private final String key;
+	private final ShiftSchedule encryptSchedule;
+	private final ShiftSchedule decryptSchedule;
+
+	/**
+	 * Compiles a Vigenere key.
+	 * 
+	 * @param key The keyword used for the cipher.
+	 * 
+	 * @throws IllegalArgumentException if the key is empty or out of bounds.
+	 */
+	public VigenereKey(String key) {
+		this(key, Alphabet.DEFAULT);
+	}
+
+	/**
+	 * Compiles a Vigenere key that reads the keyword and the text through an
+	 * alphabet, so that, for example, lower-case input folds to upper case.
+	 * 
+	 * @param key      The keyword used for the cipher.
+	 * @param alphabet The alphabet.
+	 * 
+	 * @throws IllegalArgumentException if the key is empty or not in the alphabet.
+	 */
+	public VigenereKey(String key, Alphabet alphabet) {
+		if (key.length() == 0) {
+			throw new IllegalArgumentException("The selected key is not in bounds, Try again.");
+		}
+
+		long start = CryptoMetrics.start();
+		this.key = key;
+
+		int[] encryptShifts = new int[key.length()];
+		int[] decryptShifts = new int[key.length()];
+		for (int i = 0; i < key.length(); i++) {
+			// Calculate the shift value from the key character (0-based)
+			int keyShift = alphabet.indexOf(key.charAt(i));
+			if (keyShift < 0) {
+				throw new IllegalArgumentException("The selected key is not in bounds, Try again.");
+			}
+			encryptShifts[i] = keyShift;
+			decryptShifts[i] = (CryptoManager.RANGE - keyShift) % CryptoManager.RANGE;
+		}
+		this.encryptSchedule = new ShiftSchedule(encryptShifts, CryptoMetrics.VIGENERE, alphabet);
+		this.decryptSchedule = new ShiftSchedule(decryptShifts, CryptoMetrics.VIGENERE, alphabet);
+		CryptoMetrics.VIGENERE.recordKeyBuild(start);
+	}
+
+	/**
+	 * Returns the keyword this key was compiled from.
+	 * 
+	 * @return The keyword.
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * Returns the encryption schedule, one shift per key position.
+	 * 
+	 * @return The encryption schedule.
+	 */
+	ShiftSchedule encryptSchedule() {
+		return encryptSchedule;
+	}
+
+	/**
+	 * Returns the decryption schedule, one shift per key position.
+	 * 
+	 * @return The decryption schedule.
+	 */
+	ShiftSchedule decryptSchedule() {
+		return decryptSchedule;
+	}
+}
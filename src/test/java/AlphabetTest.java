@@ -0,0 +1,97 @@
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests compiled alphabets, and that keys compiled with case folding accept
+ * lower-case input everywhere the upper-cased input would be accepted.
+ */
+public class AlphabetTest extends TestCase {
+
+	private static final String TEXT = "The quick brown fox jumps over the lazy dog!";
+	private static final String UPPER = TEXT.toUpperCase(Locale.ROOT);
+
+	public void testIndexTable() {
+		Alphabet alphabet = Alphabet.DEFAULT;
+		assertEquals(64, alphabet.size());
+		assertEquals(0, alphabet.indexOf(' '));
+		assertEquals(63, alphabet.indexOf('_'));
+		assertEquals(-1, alphabet.indexOf('a'));
+		assertEquals(-1, alphabet.indexOf('\u00E9'));
+		assertEquals('A', alphabet.charAt(alphabet.indexOf('A')));
+
+		Alphabet folding = Alphabet.CASE_FOLDING;
+		assertEquals(folding.indexOf('Q'), folding.indexOf('q'));
+		assertEquals(-1, folding.indexOf('{'));
+		assertEquals(-1, folding.indexOf('`'));
+	}
+
+	public void testFoldingKeys() {
+		Alphabet folding = Alphabet.CASE_FOLDING;
+		char[] src = TEXT.toCharArray();
+		char[] dst = new char[src.length + 1];
+
+		assertEquals(src.length, CryptoManager.caesarEncryption(src, 0, src.length, dst, 0, new CaesarKey(5, folding)));
+		assertEquals(CryptoManager.caesarEncryption(UPPER, 5), new String(dst, 0, src.length));
+
+		VigenereKey vigenere = new VigenereKey("cmsc203", folding);
+		assertEquals(src.length, CryptoManager.vigenereEncryption(src, 0, src.length, dst, 0, vigenere));
+		assertEquals(CryptoManager.vigenereEncryption(UPPER, "CMSC203"), new String(dst, 0, src.length));
+
+		PlayfairKey playfair = new PlayfairKey("teacher", folding);
+		assertEquals(src.length, CryptoManager.playfairEncryption(src, 0, src.length, dst, 0, playfair));
+		assertEquals(CryptoManager.playfairEncryption(UPPER, "TEACHER"), new String(dst, 0, src.length));
+
+		// The default alphabet still rejects lower case
+		assertEquals(-2, CryptoManager.vigenereEncryption(src, 0, src.length, dst, 0, new VigenereKey("CMSC203")));
+		assertEquals(CryptoManager.NOT_IN_BOUNDS, CryptoManager.caesarEncryption(TEXT, 5));
+	}
+
+	public void testFoldingBytes() {
+		VigenereKey key = new VigenereKey("Key", Alphabet.CASE_FOLDING);
+		String expected = CryptoManager.vigenereEncryption(UPPER, "KEY");
+
+		byte[] bytes = TEXT.getBytes(StandardCharsets.US_ASCII);
+		assertEquals(bytes.length, CryptoManager.vigenereEncryption(bytes, 0, bytes.length, key));
+		assertEquals(expected, new String(bytes, StandardCharsets.US_ASCII));
+
+		ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+		direct.put(TEXT.getBytes(StandardCharsets.US_ASCII)).flip();
+		assertEquals(bytes.length, CryptoManager.vigenereEncryption(direct, key));
+		direct.flip();
+		direct.get(bytes);
+		assertEquals(expected, new String(bytes, StandardCharsets.US_ASCII));
+	}
+
+	public void testRegisteredCiphers() throws IOException {
+		for (Cipher<?> cipher : CipherRegistry.ciphers()) {
+			String key = cipher.getName().equals("Caesar") ? "7" : "secret";
+			assertEquals(encrypt(cipher, key.toUpperCase(Locale.ROOT), UPPER, Alphabet.DEFAULT),
+					encrypt(cipher, key, TEXT, Alphabet.CASE_FOLDING));
+			// Folding keys are cached like the default ones
+			assertSame(cipher.compile(key, Alphabet.CASE_FOLDING), cipher.compile(key, Alphabet.CASE_FOLDING));
+		}
+	}
+
+	private static <K> String encrypt(Cipher<K> cipher, String key, String text, Alphabet alphabet)
+			throws IOException {
+		K compiled = cipher.compile(key, alphabet);
+		String oneShot = cipher.encrypt(text, compiled).getText();
+
+		IncrementalCipher preview = cipher.incrementalEncryption(compiled);
+		preview.setText(text);
+		assertEquals(oneShot, preview.getResult().getText());
+
+		StringWriter out = new StringWriter();
+		try (Writer writer = cipher.encryptingWriter(out, compiled)) {
+			writer.write(text);
+		}
+		assertEquals(oneShot, out.toString());
+		return oneShot;
+	}
+}
@@ -0,0 +1,74 @@
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the cipher registry: lookup by name, and that each registered cipher
+ * gives the same results as the CryptoManager methods it wraps.
+ */
+public class CipherRegistryTest extends TestCase {
+
+	private static final String TEXT = "THE QUICK BROWN FOX JUMPS OVER THE LAZY DOG!";
+
+	public void testLookup() {
+		assertEquals(3, CipherRegistry.ciphers().size());
+		assertEquals("Vigenere", CipherRegistry.ciphers().get(0).getName());
+		assertSame(CipherRegistry.get("Playfair"), CipherRegistry.get("PLAYFAIR"));
+
+		try {
+			CipherRegistry.get("enigma");
+			fail("An unknown cipher should be rejected");
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+
+	public void testMatchesCryptoManager() throws IOException {
+		assertRoundTrip(CipherRegistry.get("vigenere"), "CMSC203",
+				CryptoManager.vigenereEncryption(TEXT, "CMSC203"));
+		assertRoundTrip(CipherRegistry.get("playfair"), "CMSC203",
+				CryptoManager.playfairEncryption(TEXT, "CMSC203"));
+		assertRoundTrip(CipherRegistry.get("caesar"), "3", CryptoManager.caesarEncryption(TEXT, 3));
+	}
+
+	public void testOutOfBounds() {
+		for (Cipher<?> cipher : CipherRegistry.ciphers()) {
+			CipherResult result = encrypt(cipher, cipher.getName().equals("Caesar") ? "5" : "KEY", "ABC{DE");
+			assertEquals(cipher.getName(), CipherResult.Status.OUT_OF_BOUNDS, result.getStatus());
+			assertEquals(cipher.getName(), 3, result.getErrorOffset());
+		}
+	}
+
+	public void testOddLength() {
+		CipherResult result = decrypt(CipherRegistry.get("playfair"), "KEY", "ODD");
+		assertEquals(CipherResult.Status.ODD_LENGTH, result.getStatus());
+		assertEquals(2, result.getErrorOffset());
+		assertTrue(decrypt(CipherRegistry.get("vigenere"), "KEY", "ODD").isSuccess());
+	}
+
+	private static <K> CipherResult decrypt(Cipher<K> cipher, String key, String text) {
+		return cipher.decrypt(text, cipher.compile(key));
+	}
+
+	private static <K> CipherResult encrypt(Cipher<K> cipher, String key, String text) {
+		return cipher.encrypt(text, cipher.compile(key));
+	}
+
+	private static <K> void assertRoundTrip(Cipher<K> cipher, String key, String expected) throws IOException {
+		K compiled = cipher.compile(key);
+		CipherResult encrypted = cipher.encrypt(TEXT, compiled);
+		assertEquals(cipher.getName(), expected, encrypted.getText());
+		assertEquals(cipher.getName(), TEXT, cipher.decrypt(expected, compiled).getText().trim());
+
+		StringWriter out = new StringWriter();
+		try (Writer writer = cipher.encryptingWriter(out, compiled)) {
+			writer.write(TEXT);
+		}
+		assertEquals(cipher.getName(), expected, out.toString());
+
+		IncrementalCipher preview = cipher.incrementalEncryption(compiled);
+		preview.setText(TEXT);
+		assertEquals(cipher.getName(), expected, preview.getResult().getText());
+	}
+}
@@ -0,0 +1,99 @@
+import java.io.CharConversionException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Locale;
+
+import junit.framework.TestCase;
+
+/**
+ * This class tests the streaming CipherReader and CipherWriter adapters against
+ * the String methods of CryptoManager.
+ */
+public class CipherStreamTest extends TestCase {
+
+	private String plainText = "STREAMING TEST 2025! THE QUICK BROWN FOX JUMPS OVER THE LAZY DOG.";
+	private String vigenereKey = "CMSC";
+	private String playfairKey = "TEACHER";
+
+	protected void setUp() throws Exception {
+		super.setUp();
+	}
+
+	protected void tearDown() throws Exception {
+		super.tearDown();
+	}
+
+	public void testVigenereWriterAcrossChunks() throws IOException {
+		// Odd-sized writes must keep the key position between calls
+		StringWriter result = new StringWriter();
+		try (CipherWriter writer = CipherWriter.vigenereEncryption(result, new VigenereKey(vigenereKey))) {
+			for (int i = 0; i < plainText.length(); i += 3) {
+				writer.write(plainText, i, Math.min(3, plainText.length() - i));
+			}
+		}
+		assertEquals(CryptoManager.vigenereEncryption(plainText, vigenereKey), result.toString());
+	}
+
+	public void testPlayfairWriterPadsOddText() throws IOException {
+		String odd = plainText.substring(1);
+		StringWriter result = new StringWriter();
+		try (CipherWriter writer = CipherWriter.playfairEncryption(result, new PlayfairKey(playfairKey))) {
+			for (int i = 0; i < odd.length(); i++) {
+				writer.write(odd.charAt(i));
+			}
+		}
+		assertEquals(CryptoManager.playfairEncryption(odd, playfairKey), result.toString());
+	}
+
+	public void testPlayfairReaderRoundTrip() throws IOException {
+		PlayfairKey key = new PlayfairKey(playfairKey);
+		String encrypted = read(CipherReader.playfairEncryption(new StringReader(plainText), key), 5);
+		assertEquals(CryptoManager.playfairEncryption(plainText, key), encrypted);
+
+		// The odd-length text was padded with a space
+		String decrypted = read(CipherReader.playfairDecryption(new StringReader(encrypted), key), 7);
+		assertEquals(plainText + " ", decrypted);
+	}
+
+	public void testCaesarReader() throws IOException {
+		String encrypted = read(CipherReader.caesarEncryption(new StringReader(plainText), 7), 4);
+		assertEquals(CryptoManager.caesarEncryption(plainText, 7), encrypted);
+
+		// A folding key reads lower case as upper case
+		CaesarKey key = new CaesarKey(7, Alphabet.CASE_FOLDING);
+		assertEquals(encrypted, read(CipherReader.caesarEncryption(new StringReader(plainText.toLowerCase(Locale.ROOT)), key), 5));
+		assertEquals(plainText, read(CipherReader.caesarDecryption(new StringReader(encrypted), key), 3));
+	}
+
+	public void testOutOfBoundsInput() throws IOException {
+		StringWriter result = new StringWriter();
+		CipherWriter writer = CipherWriter.caesarEncryption(result, 3);
+		try {
+			writer.write("UPPER lowercase");
+			fail("Out-of-bounds input should fail the write");
+		} catch (CharConversionException expected) {
+			// The offset of the first bad character is reported
+			assertTrue(expected.getMessage(), expected.getMessage().endsWith("offset 6)"));
+		}
+
+		Reader reader = CipherReader.playfairDecryption(new StringReader("ODD"), new PlayfairKey(playfairKey));
+		try {
+			read(reader, 8);
+			fail("Odd-length Playfair ciphertext should fail");
+		} catch (CharConversionException expected) {
+		}
+	}
+
+	private static String read(Reader reader, int chunk) throws IOException {
+		StringBuilder text = new StringBuilder();
+		char[] buffer = new char[chunk];
+		int count;
+		while ((count = reader.read(buffer, 0, chunk)) != -1) {
+			text.append(buffer, 0, count);
+		}
+		reader.close();
+		return text.toString();
+	}
+}
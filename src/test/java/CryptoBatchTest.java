@@ -0,0 +1,59 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * This class tests the parallel CryptoBatch processor against the String
+ * methods of CryptoManager.
+ */
+public class CryptoBatchTest extends TestCase {
+
+	private CryptoBatch batch;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		batch = new CryptoBatch(4);
+	}
+
+	protected void tearDown() throws Exception {
+		batch.close();
+		super.tearDown();
+	}
+
+	public void testResultsKeepInputOrder() {
+		List<String> records = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			records.add("RECORD #" + i);
+		}
+
+		List<CipherResult> results = batch.vigenereEncryption(records, "CMSC");
+		assertEquals(records.size(), results.size());
+		for (int i = 0; i < records.size(); i++) {
+			assertEquals(CryptoManager.vigenereEncryption(records.get(i), "CMSC"), results.get(i).getText());
+		}
+	}
+
+	public void testPerRecordStatus() {
+		List<CipherResult> results = batch.caesarEncryption(Arrays.asList("GOOD", "BAd", ""), 3);
+
+		assertTrue(results.get(0).isSuccess());
+		assertEquals(CipherResult.Status.OUT_OF_BOUNDS, results.get(1).getStatus());
+		assertEquals(2, results.get(1).getErrorOffset());
+		assertEquals("", results.get(2).getText());
+
+		try {
+			results.get(1).getText();
+			fail("A failed result has no text");
+		} catch (IllegalStateException expected) {
+		}
+	}
+
+	public void testPlayfairOddCiphertext() {
+		List<CipherResult> results = batch.playfairDecryption(Arrays.asList("ODD", "EVEN"), "TEACHER");
+
+		assertEquals(CipherResult.Status.ODD_LENGTH, results.get(0).getStatus());
+		assertEquals(CryptoManager.playfairDecryption("EVEN", "TEACHER"), results.get(1).getText());
+	}
+}
@@ -0,0 +1,77 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import junit.framework.TestCase;
+
+/**
+ * This class tests the command-line driver on a small directory tree.
+ */
+public class CryptoCLITest extends TestCase {
+
+	private Path directory;
+	private ByteArrayOutputStream out = new ByteArrayOutputStream();
+	private ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		directory = Files.createTempDirectory("cli");
+	}
+
+	protected void tearDown() throws Exception {
+		try (Stream<Path> files = Files.walk(directory)) {
+			files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+		}
+		super.tearDown();
+	}
+
+	public void testDirectoryRoundTrip() throws IOException {
+		Path plain = directory.resolve("plain");
+		Files.createDirectories(plain.resolve("nested"));
+		Files.write(plain.resolve("a.txt"), "HELLO WORLD".getBytes(StandardCharsets.US_ASCII));
+		Files.write(plain.resolve("nested/b.txt"), "CMSC 203!".getBytes(StandardCharsets.US_ASCII));
+
+		assertEquals(0, run("encrypt", "vigenere", "KEY", plain.toString(), directory.resolve("enc").toString(),
+				"--threads", "2"));
+		assertEquals(CryptoManager.vigenereEncryption("CMSC 203!", "KEY"),
+				Files.readString(directory.resolve("enc/nested/b.txt"), StandardCharsets.US_ASCII));
+		assertTrue(out.toString().startsWith("2 files, 20 bytes"));
+
+		assertEquals(0, run("decrypt", "vigenere", "KEY", directory.resolve("enc").toString(),
+				directory.resolve("dec").toString()));
+		assertEquals("HELLO WORLD", Files.readString(directory.resolve("dec/a.txt"), StandardCharsets.US_ASCII));
+	}
+
+	public void testFailures() throws IOException {
+		Path bad = Files.write(directory.resolve("bad.txt"), "lower".getBytes(StandardCharsets.US_ASCII));
+
+		assertEquals(1, run("encrypt", "caesar", "3", bad.toString(), directory.resolve("out.txt").toString()));
+		assertTrue(err.toString().contains("offset 0"));
+		assertEquals(2, run("encrypt", "enigma", "3", bad.toString(), directory.resolve("out.txt").toString()));
+	}
+
+	public void testOutputOverlappingInput() throws IOException {
+		Path plain = directory.resolve("plain");
+		Files.createDirectories(plain);
+		Path file = Files.write(plain.resolve("a.txt"), "KEEP ME".getBytes(StandardCharsets.US_ASCII));
+
+		assertEquals(2, run("encrypt", "caesar", "3", file.toString(), file.toString()));
+		assertEquals(2, run("encrypt", "caesar", "3", file.toString(), plain.resolve("../plain/a.txt").toString()));
+		assertEquals(2, run("encrypt", "caesar", "3", plain.toString(), plain.toString()));
+		assertEquals(2, run("encrypt", "caesar", "3", plain.toString(), plain.resolve("enc/deeper").toString()));
+		assertEquals("KEEP ME", Files.readString(file, StandardCharsets.US_ASCII));
+		assertFalse(Files.exists(plain.resolve("enc")));
+
+		// A sibling whose name starts with the input's is not inside it
+		assertEquals(0, run("encrypt", "caesar", "3", plain.toString(), directory.resolve("plain2").toString()));
+	}
+
+	private int run(String... args) {
+		return CryptoCLI.run(args, new PrintStream(out, true), new PrintStream(err, true));
+	}
+}
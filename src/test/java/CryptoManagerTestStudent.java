@@ -1,3 +1,7 @@
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+
 import junit.framework.TestCase;
 
 /**
@@ -112,4 +116,204 @@ public class CryptoManagerTestStudent extends TestCase {
 
 		assertEquals("Playfair decryption should return the original text", plainText, decrypted);
 	}
-}
\ No newline at end of file
+
+	public void testPlayfairCompiledKey() {
+		// A compiled key must give the same result as the String key and be reusable
+		PlayfairKey key = new PlayfairKey(playfairKey);
+		String encrypted = CryptoManager.playfairEncryption(plainText, key);
+
+		assertEquals(CryptoManager.playfairEncryption(plainText, playfairKey), encrypted);
+		assertEquals(plainText, CryptoManager.playfairDecryption(encrypted, key));
+		assertEquals("The selected string is not in bounds, Try again.",
+				CryptoManager.playfairEncryption(invalidText, key));
+	}
+
+	public void testPlayfairInvalidInput() {
+		// Odd-length ciphertext and out-of-bounds keys are rejected, not thrown
+		assertEquals("The selected string is not in bounds, Try again.",
+				CryptoManager.playfairDecryption("ODD", playfairKey));
+		assertEquals("The selected string is not in bounds, Try again.",
+				CryptoManager.playfairEncryption(plainText, "teacher"));
+		assertEquals("The selected string is not in bounds, Try again.",
+				CryptoManager.playfairEncryption(plainText, "\u00e9T\u00c9"));
+		try {
+			new PlayfairKey("\u00e9");
+			fail("An out-of-bounds key should be rejected");
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+
+	public void testPlayfairDigraphTable() {
+		// Every pair decrypts back to itself, and no two pairs encrypt alike
+		PlayfairKey key = new PlayfairKey(playfairKey);
+		boolean[] seen = new boolean[64 * 64];
+		for (char a = ' '; a <= '_'; a++) {
+			for (char b = ' '; b <= '_'; b++) {
+				int pair = CryptoManager.encryptPair(a, b, key);
+				char c = (char) (pair >>> 16), d = (char) pair;
+				assertTrue(c >= ' ' && c <= '_' && d >= ' ' && d <= '_');
+				assertEquals(a << 16 | b, CryptoManager.decryptPair(c, d, key));
+				assertFalse(seen[(c - ' ') << 6 | (d - ' ')]);
+				seen[(c - ' ') << 6 | (d - ' ')] = true;
+			}
+		}
+	}
+
+	// BUFFER TESTS
+
+	public void testCharArrayEncryption() {
+		// Encrypt into the middle of a larger destination array
+		char[] src = plainText.toCharArray();
+		char[] dst = new char[src.length + 4];
+		int written = CryptoManager.vigenereEncryption(src, 0, src.length, dst, 2, vigenereKey);
+
+		assertEquals(src.length, written);
+		assertEquals(CryptoManager.vigenereEncryption(plainText, vigenereKey), new String(dst, 2, written));
+
+		// Decrypt in place
+		CryptoManager.vigenereDecryption(dst, 2, written, dst, 2, vigenereKey);
+		assertEquals(plainText, new String(dst, 2, written));
+
+		assertEquals(-1, CryptoManager.caesarEncryption(invalidText.toCharArray(), 0, invalidText.length(), dst, 0, 5));
+	}
+
+	public void testCharBufferEncryption() {
+		// Odd-length Playfair input is padded with a space
+		PlayfairKey key = new PlayfairKey(playfairKey);
+		CharBuffer src = CharBuffer.wrap("ODD");
+		CharBuffer dst = CharBuffer.allocate(4);
+
+		assertEquals(4, CryptoManager.playfairEncryption(src, dst, key));
+		assertFalse(src.hasRemaining());
+		dst.flip();
+		assertEquals(CryptoManager.playfairEncryption("ODD", key), dst.toString());
+
+		// Odd-length ciphertext is rejected even when dst has no room for a padded pair
+		CharBuffer odd = CharBuffer.wrap("ODD");
+		assertEquals(-3, CryptoManager.playfairDecryption(odd, CharBuffer.allocate(3), key));
+		assertEquals(0, odd.position());
+
+		CharBuffer caesar = CharBuffer.allocate(plainText.length());
+		CryptoManager.caesarEncryption(CharBuffer.wrap(plainText), caesar, Integer.parseInt(caesarKey));
+		caesar.flip();
+		assertEquals(expectedCaesarEncrypt, caesar.toString());
+	}
+
+	public void testAsciiByteEncryption() {
+		byte[] bytes = plainText.getBytes(StandardCharsets.US_ASCII);
+		assertEquals(bytes.length, CryptoManager.caesarEncryption(bytes, 0, bytes.length, Integer.parseInt(caesarKey)));
+		assertEquals(expectedCaesarEncrypt, new String(bytes, StandardCharsets.US_ASCII));
+
+		// Direct buffers are encrypted in place without a heap copy
+		ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+		direct.put(plainText.getBytes(StandardCharsets.US_ASCII)).flip();
+		CryptoManager.vigenereEncryption(direct, vigenereKey);
+		assertFalse(direct.hasRemaining());
+
+		direct.flip();
+		CryptoManager.vigenereDecryption(direct, vigenereKey);
+		direct.flip();
+		assertEquals(plainText, StandardCharsets.US_ASCII.decode(direct).toString());
+
+		byte[] invalid = invalidText.getBytes(StandardCharsets.US_ASCII);
+		ByteBuffer buffer = ByteBuffer.wrap(invalid);
+		assertEquals(-1, CryptoManager.vigenereEncryption(buffer, vigenereKey));
+		assertEquals(0, buffer.position());
+	}
+
+	public void testCompiledShiftKeys() {
+		// Compiled keys must match the int/String keyed methods and be reusable
+		CaesarKey caesar = new CaesarKey(Integer.parseInt(caesarKey));
+		assertEquals(expectedCaesarEncrypt, CryptoManager.caesarEncryption(plainText, caesar));
+		assertEquals(plainText, CryptoManager.caesarDecryption(expectedCaesarEncrypt, caesar));
+		assertEquals(new CaesarKey(7 - 64).getShift(), caesar.getShift());
+
+		VigenereKey vigenere = new VigenereKey(vigenereKey);
+		String encrypted = CryptoManager.vigenereEncryption(plainText, vigenere);
+		assertEquals(CryptoManager.vigenereEncryption(plainText, vigenereKey), encrypted);
+		assertEquals(plainText, CryptoManager.vigenereDecryption(encrypted, vigenere));
+
+		try {
+			new VigenereKey("lowercase");
+			fail("An out-of-bounds key should be rejected");
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+
+	public void testAsciiByteEncryptionLongInput() {
+		// Long enough to run the eight-bytes-at-a-time path plus a scalar tail
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 10; i++) {
+			text.append(plainText);
+		}
+		String longText = text.toString();
+		byte[] bytes = longText.getBytes(StandardCharsets.US_ASCII);
+
+		CryptoManager.vigenereEncryption(bytes, 0, bytes.length, vigenereKey);
+		assertEquals(CryptoManager.vigenereEncryption(longText, vigenereKey), new String(bytes, StandardCharsets.US_ASCII));
+
+		// One bad byte in the middle of a word must be caught, and its offset reported
+		bytes = longText.getBytes(StandardCharsets.US_ASCII);
+		bytes[42] = 'a';
+		assertEquals(-43, CryptoManager.caesarEncryption(bytes, 0, bytes.length, 3));
+		assertEquals(CryptoManager.caesarEncryption(longText.substring(0, 42), 3),
+				new String(bytes, 0, 42, StandardCharsets.US_ASCII));
+		assertEquals('a', bytes[42]);
+	}
+
+	// RESULT TESTS
+
+	public void testResultReportsFailureApartFromText() {
+		CipherResult result = CryptoManager.caesarEncryption(plainText, 7, CryptoManager.Validation.REPORT);
+		assertTrue(result.isSuccess());
+		assertEquals(expectedCaesarEncrypt, result.getText());
+
+		// The offset of the first bad character comes back instead of an error string
+		result = CryptoManager.vigenereEncryption("ABC" + invalidText, vigenereKey, CryptoManager.Validation.REPORT);
+		assertEquals(CipherResult.Status.OUT_OF_BOUNDS, result.getStatus());
+		assertEquals(3, result.getErrorOffset());
+		try {
+			result.getText();
+			fail("A failed result has no text");
+		} catch (IllegalStateException expected) {
+		}
+
+		assertEquals(CipherResult.Status.INVALID_KEY,
+				CryptoManager.vigenereDecryption(plainText, "key", CryptoManager.Validation.REPORT).getStatus());
+		assertEquals(CipherResult.Status.ODD_LENGTH,
+				CryptoManager.playfairDecryption("ODD", playfairKey, CryptoManager.Validation.REPORT).getStatus());
+
+		String encrypted = CryptoManager.playfairEncryption(plainText, playfairKey, CryptoManager.Validation.REPORT)
+				.getText();
+		assertEquals(plainText,
+				CryptoManager.playfairDecryption(encrypted, playfairKey, CryptoManager.Validation.REPORT).getText());
+	}
+
+	public void testFailFastValidation() {
+		try {
+			CryptoManager.caesarDecryption("OK" + invalidText, 3, CryptoManager.Validation.FAIL_FAST);
+			fail("Out-of-bounds input should throw in fail-fast mode");
+		} catch (CipherException expected) {
+			assertEquals(CipherResult.Status.OUT_OF_BOUNDS, expected.getStatus());
+			assertEquals(2, expected.getErrorOffset());
+		}
+		assertEquals(plainText, CryptoManager
+				.caesarDecryption(expectedCaesarEncrypt, 7, CryptoManager.Validation.FAIL_FAST).getText());
+
+		// The message names the kind of failure
+		try {
+			CryptoManager.playfairDecryption("ODD", playfairKey, CryptoManager.Validation.FAIL_FAST);
+			fail("Odd-length ciphertext should throw in fail-fast mode");
+		} catch (CipherException expected) {
+			assertEquals(CipherResult.Status.ODD_LENGTH, expected.getStatus());
+			assertFalse(expected.getMessage(), expected.getMessage().startsWith(CryptoManager.NOT_IN_BOUNDS));
+		}
+		try {
+			CryptoManager.vigenereEncryption(plainText, "key", CryptoManager.Validation.FAIL_FAST);
+			fail("An out-of-bounds key should throw in fail-fast mode");
+		} catch (CipherException expected) {
+			assertEquals(CipherResult.Status.INVALID_KEY, expected.getStatus());
+			assertEquals("The selected key is not in bounds, Try again.", expected.getMessage());
+		}
+	}
+}
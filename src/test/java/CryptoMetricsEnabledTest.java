@@ -0,0 +1,70 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the counters the ciphers update when metrics are on. The build runs
+ * this class alone, in its own JVM started with -Dcrypto.metrics=true; the
+ * rest of the suite runs with metrics off.
+ */
+public class CryptoMetricsEnabledTest extends TestCase {
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		assertTrue("Run with -Dcrypto.metrics=true", CryptoMetrics.ENABLED);
+	}
+
+	public void testCryptoManagerCounters() {
+		CryptoMetricsMBean vigenere = CryptoMetrics.of("Vigenere");
+		CryptoMetricsMBean playfair = CryptoMetrics.of("Playfair");
+		long calls = vigenere.getCalls(), characters = vigenere.getCharacters();
+		long rejections = vigenere.getRejections(), builds = vigenere.getKeyBuilds();
+
+		new VigenereKey("METRICS TEST KEY");
+		CryptoManager.vigenereEncryption("HELLO", "METRICS");
+		CryptoManager.vigenereEncryption(ByteBuffer.allocateDirect(3).put("ABC".getBytes(StandardCharsets.US_ASCII))
+				.flip(), "METRICS");
+		CryptoManager.vigenereEncryption("hello", "METRICS");
+
+		assertEquals(calls + 3, vigenere.getCalls());
+		assertEquals(characters + 8, vigenere.getCharacters());
+		assertEquals(rejections + 1, vigenere.getRejections());
+		assertTrue(vigenere.getKeyBuilds() > builds);
+
+		long playfairRejections = playfair.getRejections();
+		char[] odd = "ODD".toCharArray();
+		assertEquals(-3, CryptoManager.playfairDecryption(odd, 0, 3, odd, 0, new PlayfairKey("METRICS")));
+		assertEquals(playfairRejections + 1, playfair.getRejections());
+	}
+
+	public void testMappedFileCounters() throws IOException {
+		CryptoMetricsMBean caesar = CryptoMetrics.of("Caesar");
+		CryptoMetricsMBean playfair = CryptoMetrics.of("Playfair");
+		Path input = Files.createTempFile("metrics", ".txt");
+		Path output = Files.createTempFile("metrics", ".out");
+		try {
+			Files.write(input, "MAPPED FILE METRICS".getBytes(StandardCharsets.US_ASCII));
+			long calls = caesar.getCalls(), characters = caesar.getCharacters();
+			MappedFileCipher.caesarEncryption(input, output, 3);
+			assertEquals(calls + 1, caesar.getCalls());
+			assertEquals(characters + 19, caesar.getCharacters());
+
+			// The odd-length file is rejected as Playfair ciphertext
+			long rejections = playfair.getRejections();
+			try {
+				MappedFileCipher.playfairDecryption(input, output, new PlayfairKey("METRICS"));
+				fail("Expected CharConversionException");
+			} catch (IOException e) {
+				// Expected
+			}
+			assertEquals(rejections + 1, playfair.getRejections());
+		} finally {
+			Files.deleteIfExists(input);
+			Files.deleteIfExists(output);
+		}
+	}
+}
@@ -0,0 +1,55 @@
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the cipher metrics: the histogram buckets and percentiles, and the JMX
+ * attributes. The counters updated by the ciphers are tested by
+ * CryptoMetricsEnabledTest, which needs metrics to be on.
+ */
+public class CryptoMetricsTest extends TestCase {
+
+	public void testBuckets() {
+		// Every latency falls in a bucket whose upper bound is within 1/8 of it
+		for (long nanos = 0; nanos < 100_000; nanos++) {
+			int bucket = CryptoMetrics.bucket(nanos);
+			assertTrue(CryptoMetrics.upperBound(bucket) >= nanos);
+			assertTrue(bucket == 0 || CryptoMetrics.upperBound(bucket - 1) < nanos);
+			assertTrue(CryptoMetrics.upperBound(bucket) - nanos <= nanos / 8);
+		}
+		assertEquals(CryptoMetrics.bucket(Long.MAX_VALUE), CryptoMetrics.bucket(1L << 50));
+	}
+
+	public void testPercentiles() {
+		CryptoMetrics metrics = new CryptoMetrics("Test");
+		assertEquals(0, metrics.getMedianLatencyNanos());
+
+		for (int i = 1; i <= 100; i++) {
+			metrics.recordCall(i * 1000, 10, i != 100);
+		}
+		assertEquals(100, metrics.getCalls());
+		assertEquals(990, metrics.getCharacters());
+		assertEquals(1, metrics.getRejections());
+		assertEquals(50_500.0, metrics.getMeanLatencyNanos(), 0.001);
+		assertEquals(100_000, metrics.getMaxLatencyNanos());
+
+		long median = metrics.getMedianLatencyNanos();
+		assertTrue("median " + median, median >= 50_000 && median <= 50_000 * 9 / 8);
+		long p99 = metrics.getLatency99thPercentileNanos();
+		assertTrue("p99 " + p99, p99 >= 99_000 && p99 <= 100_000);
+
+		metrics.reset();
+		assertEquals(0, metrics.getCalls());
+		assertEquals(0, metrics.getMaxLatencyNanos());
+	}
+
+	public void testJmxAttributes() throws Exception {
+		MBeanServer server = MBeanServerFactory.newMBeanServer();
+		CryptoMetrics.register(server);
+
+		CryptoMetrics caesar = (CryptoMetrics) CryptoMetrics.of("caesar");
+		assertEquals(caesar.getCalls(), server.getAttribute(caesar.objectName(), "Calls"));
+		assertTrue(server.isRegistered(((CryptoMetrics) CryptoMetrics.of("Playfair")).objectName()));
+	}
+}
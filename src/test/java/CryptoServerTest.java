@@ -0,0 +1,148 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import junit.framework.TestCase;
+
+/**
+ * This class tests the local encryption service with a loopback client.
+ */
+public class CryptoServerTest extends TestCase {
+
+	private CryptoServer server;
+	private HttpClient client = HttpClient.newHttpClient();
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		server = new CryptoServer(0, 64, 4);
+		server.start();
+	}
+
+	protected void tearDown() throws Exception {
+		server.close();
+		super.tearDown();
+	}
+
+	public void testEncryptAndDecrypt() throws Exception {
+		HttpResponse<String> response = post("/vigenere/encrypt?key=CMSC", "HELLO WORLD");
+		assertEquals(200, response.statusCode());
+		assertEquals(CryptoManager.vigenereEncryption("HELLO WORLD", "CMSC"), response.body());
+
+		response = post("/vigenere/decrypt?key=CMSC", response.body());
+		assertEquals("HELLO WORLD", response.body());
+	}
+
+	public void testConcurrentRequestsShareBatches() throws Exception {
+		List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+		for (int i = 0; i < 32; i++) {
+			responses.add(client.sendAsync(request("/playfair/encrypt?key=TEACHER", "RECORD " + i),
+					HttpResponse.BodyHandlers.ofString()));
+		}
+		for (int i = 0; i < responses.size(); i++) {
+			assertEquals(CryptoManager.playfairEncryption("RECORD " + i, "TEACHER"), responses.get(i).get().body());
+		}
+	}
+
+	public void testErrors() throws Exception {
+		HttpResponse<String> response = post("/caesar/encrypt?key=3", "ABCdef");
+		assertEquals(422, response.statusCode());
+		assertEquals("OUT_OF_BOUNDS at offset 3", response.body());
+
+		assertEquals(400, post("/vigenere/encrypt?key=lower", "ABC").statusCode());
+		assertEquals(400, post("/caesar/encrypt?key=three", "ABC").statusCode());
+		assertEquals(400, post("/enigma/encrypt?key=3", "ABC").statusCode());
+	}
+
+	public void testRequestSizeLimit() throws Exception {
+		try (CryptoServer small = new CryptoServer(0, 4, 2, 16)) {
+			small.start();
+			String base = "http://localhost:" + small.getPort();
+			HttpResponse<String> response = client.send(request(base, "/caesar/encrypt?key=3", "SIXTEEN CHARS!!!"),
+					HttpResponse.BodyHandlers.ofString());
+			assertEquals(200, response.statusCode());
+			response = client.send(request(base, "/caesar/encrypt?key=3", "SEVENTEEN CHARS!!"),
+					HttpResponse.BodyHandlers.ofString());
+			assertEquals(413, response.statusCode());
+		}
+	}
+
+	public void testFullQueueAnswersBusy() throws Exception {
+		CountDownLatch running = new CountDownLatch(1), release = new CountDownLatch(1);
+		CryptoBatch stalled = stalledBatch(running, release);
+
+		try (CryptoServer busy = new CryptoServer(0, 1, 2, CryptoServer.DEFAULT_MAX_REQUEST_BYTES, stalled)) {
+			busy.start();
+			String base = "http://localhost:" + busy.getPort();
+
+			// The first request holds the dispatcher, the second fills the queue
+			CompletableFuture<HttpResponse<String>> first = client.sendAsync(
+					request(base, "/vigenere/encrypt?key=KEY", "FIRST"), HttpResponse.BodyHandlers.ofString());
+			running.await();
+			CompletableFuture<HttpResponse<String>> second = client.sendAsync(
+					request(base, "/vigenere/encrypt?key=KEY", "SECOND"), HttpResponse.BodyHandlers.ofString());
+			while (busy.pending() == 0) {
+				Thread.sleep(10);
+			}
+			HttpResponse<String> third = client.send(request(base, "/vigenere/encrypt?key=KEY", "THIRD"),
+					HttpResponse.BodyHandlers.ofString());
+			assertEquals(503, third.statusCode());
+
+			release.countDown();
+			assertEquals(CryptoManager.vigenereEncryption("FIRST", "KEY"), first.get().body());
+			assertEquals(CryptoManager.vigenereEncryption("SECOND", "KEY"), second.get().body());
+		}
+	}
+
+	public void testCloseAnswersWaitingRequests() throws Exception {
+		CountDownLatch running = new CountDownLatch(1), release = new CountDownLatch(1);
+		CryptoServer closing = new CryptoServer(0, 4, 2, CryptoServer.DEFAULT_MAX_REQUEST_BYTES,
+				stalledBatch(running, release));
+		closing.start();
+		String base = "http://localhost:" + closing.getPort();
+
+		client.sendAsync(request(base, "/vigenere/encrypt?key=KEY", "FIRST"), HttpResponse.BodyHandlers.ofString());
+		running.await();
+		CompletableFuture<HttpResponse<String>> waiting = client.sendAsync(
+				request(base, "/vigenere/encrypt?key=KEY", "WAITING"), HttpResponse.BodyHandlers.ofString());
+		while (closing.pending() == 0) {
+			Thread.sleep(10);
+		}
+
+		closing.close();
+		release.countDown();
+		assertEquals(503, waiting.get().statusCode());
+	}
+
+	private static CryptoBatch stalledBatch(CountDownLatch running, CountDownLatch release) {
+		return new CryptoBatch(1) {
+			@Override
+			public List<CipherResult> vigenereEncryption(List<String> texts, String key) {
+				running.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return super.vigenereEncryption(texts, key);
+			}
+		};
+	}
+
+	private HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+		return client.send(request(path, body), HttpResponse.BodyHandlers.ofString());
+	}
+
+	private HttpRequest request(String path, String body) {
+		return request("http://localhost:" + server.getPort(), path, body);
+	}
+
+	private static HttpRequest request(String base, String path, String body) {
+		return HttpRequest.newBuilder(URI.create(base + path)).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+	}
+}
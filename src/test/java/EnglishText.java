@@ -0,0 +1,35 @@
+import java.util.Random;
+
+/**
+ * English-like test text for the cryptanalysis tests: common words, with the
+ * occasional full stop, drawn from a seeded random source.
+ */
+final class EnglishText {
+
+	private static final String[] WORDS = ("THE OF AND TO A IN IS IT YOU THAT HE WAS FOR ON ARE WITH AS I HIS THEY BE AT"
+			+ " ONE HAVE THIS FROM OR HAD BY HOT WORD BUT WHAT SOME WE CAN OUT OTHER WERE ALL THERE WHEN UP USE YOUR HOW"
+			+ " SAID AN EACH SHE WHICH DO THEIR TIME IF WILL WAY ABOUT MANY THEN THEM WRITE WOULD LIKE SO THESE HER LONG"
+			+ " MAKE THING SEE HIM TWO HAS LOOK MORE DAY COULD GO COME DID NUMBER SOUND NO MOST PEOPLE MY OVER KNOW WATER"
+			+ " THAN CALL FIRST WHO MAY DOWN SIDE BEEN NOW FIND ANY NEW WORK PART TAKE GET PLACE MADE LIVE WHERE AFTER")
+			.split(" ");
+
+	private EnglishText() {
+	}
+
+	/**
+	 * Generates text of a given length.
+	 * 
+	 * @param random The random source; the same seed gives the same text.
+	 * @param length The number of characters.
+	 * 
+	 * @return The text.
+	 */
+	static String english(Random random, int length) {
+		StringBuilder text = new StringBuilder(length + 16);
+		while (text.length() < length) {
+			text.append(WORDS[random.nextInt(WORDS.length)]);
+			text.append(random.nextInt(12) == 0 ? ". " : " ");
+		}
+		return text.substring(0, length);
+	}
+}
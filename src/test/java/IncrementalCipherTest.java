@@ -0,0 +1,59 @@
+import java.util.Random;
+import java.util.function.UnaryOperator;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests that the incremental engine always agrees with encrypting the whole
+ * text again.
+ */
+public class IncrementalCipherTest extends TestCase {
+
+	private static final String ALPHABET = " !\"#$%&'()*+,-./0123456789:;<=>?@ABCDEFGHIJKLMNOPQRSTUVWXYZ[\\]^_";
+
+	public void testTyping() {
+		IncrementalCipher cipher = IncrementalCipher.vigenereEncryption(new VigenereKey("CMSC"));
+		StringBuilder text = new StringBuilder();
+		for (char ch : "HELLO WORLD".toCharArray()) {
+			cipher.replace(text.length(), text.length(), String.valueOf(ch));
+			text.append(ch);
+			assertEquals(CryptoManager.vigenereEncryption(text.toString(), "CMSC"), cipher.getResult().getText());
+		}
+	}
+
+	public void testRandomEdits() {
+		check(IncrementalCipher.caesarEncryption(7), text -> CryptoManager.caesarEncryption(text, 7));
+		check(IncrementalCipher.vigenereEncryption(new VigenereKey("KEY")),
+				text -> CryptoManager.vigenereEncryption(text, "KEY"));
+		check(IncrementalCipher.playfairEncryption(new PlayfairKey("TEACHER")),
+				text -> CryptoManager.playfairEncryption(text, "TEACHER"));
+	}
+
+	public void testOutOfBoundsCharacter() {
+		IncrementalCipher cipher = IncrementalCipher.caesarEncryption(3);
+		cipher.setText("ABCdEF");
+		assertEquals(3, cipher.getResult().getErrorOffset());
+
+		// Editing the bad character away recovers the ciphertext
+		cipher.replace(3, 4, "D");
+		assertEquals(CryptoManager.caesarEncryption("ABCDEF", 3), cipher.getResult().getText());
+	}
+
+	private static void check(IncrementalCipher cipher, UnaryOperator<String> expected) {
+		Random random = new Random(42);
+		StringBuilder text = new StringBuilder();
+		for (int edit = 0; edit < 2000; edit++) {
+			int start = random.nextInt(text.length() + 1);
+			int end = start + random.nextInt(Math.min(5, text.length() - start) + 1);
+			StringBuilder insert = new StringBuilder();
+			for (int i = random.nextInt(6); i > 0; i--) {
+				insert.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+			}
+
+			cipher.replace(start, end, insert);
+			text.replace(start, end, insert.toString());
+			assertEquals(text.toString(), cipher.getPlainText());
+			assertEquals(expected.apply(text.toString()), cipher.getResult().getText());
+		}
+	}
+}
@@ -0,0 +1,80 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the compiled-key cache: hits, misses, least-recently-used eviction and
+ * resizing.
+ */
+public class KeyCacheTest extends TestCase {
+
+	public void testHitsAndMisses() {
+		KeyCache<VigenereKey> cache = new KeyCache<>(VigenereKey::new, 4);
+		VigenereKey first = cache.get("CMSC");
+
+		assertSame(first, cache.get("CMSC"));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+
+		// An invalid key fails to compile and is not cached
+		try {
+			cache.get("cmsc");
+			fail("An out-of-bounds key should be rejected");
+		} catch (IllegalArgumentException expected) {
+		}
+		assertEquals(1, cache.size());
+	}
+
+	public void testLeastRecentlyUsedEviction() {
+		KeyCache<PlayfairKey> cache = new KeyCache<>(PlayfairKey::new, 2);
+		PlayfairKey teacher = cache.get("TEACHER");
+		cache.get("STUDENT");
+		cache.get("TEACHER"); // STUDENT is now the least recently used
+		cache.get("CMSC203");
+
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictionCount());
+		assertSame(teacher, cache.get("TEACHER"));
+
+		cache.setMaximumSize(1);
+		assertEquals(1, cache.size());
+		assertEquals(2, cache.getEvictionCount());
+		assertSame(teacher, cache.get("TEACHER"));
+	}
+
+	public void testCompilesOutsideTheLock() throws Exception {
+		CountDownLatch compiling = new CountDownLatch(1), release = new CountDownLatch(1);
+		KeyCache<VigenereKey> cache = new KeyCache<>(key -> {
+			if (key.equals("SLOW")) {
+				compiling.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return new VigenereKey(key);
+		}, 4);
+
+		CompletableFuture<VigenereKey> slow = CompletableFuture.supplyAsync(() -> cache.get("SLOW"));
+		assertTrue(compiling.await(10, TimeUnit.SECONDS));
+
+		// Other keys are compiled and found while SLOW is still compiling
+		VigenereKey fast = cache.get("FAST");
+		assertSame(fast, cache.get("FAST"));
+		release.countDown();
+		assertSame(slow.get(), cache.get("SLOW"));
+		assertEquals(2, cache.size());
+	}
+
+	public void testStringKeyMethodsUseCache() {
+		KeyCache<PlayfairKey> cache = CryptoManager.playfairKeyCache();
+		String encrypted = CryptoManager.playfairEncryption("CACHED KEY", "KEYCACHETEST");
+		long hits = cache.getHitCount();
+
+		assertEquals("CACHED KEY", CryptoManager.playfairDecryption(encrypted, "KEYCACHETEST"));
+		assertEquals(hits + 1, cache.getHitCount());
+	}
+}
@@ -0,0 +1,45 @@
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests key recovery on English-like text encrypted with CryptoManager.
+ */
+public class KeyRecoveryTest extends TestCase {
+
+	private KeyRecovery recovery;
+
+	@Override
+	protected void setUp() {
+		recovery = new KeyRecovery(4, KeyRecovery.DEFAULT_MAX_KEY_LENGTH);
+	}
+
+	@Override
+	protected void tearDown() {
+		recovery.close();
+	}
+
+	public void testCaesar() {
+		String plainText = EnglishText.english(new Random(1), 2000);
+		for (int shift = 0; shift < CryptoManager.RANGE; shift++) {
+			assertEquals(shift, recovery.recoverCaesarShift(CryptoManager.caesarEncryption(plainText, shift)));
+		}
+	}
+
+	public void testVigenere() {
+		String plainText = EnglishText.english(new Random(2), 200_000);
+		for (String key : new String[] { "LEMON", "CMSC203", "KEY RECOVERY!", "Q" }) {
+			String encrypted = CryptoManager.vigenereEncryption(plainText, key);
+			assertEquals(key.length(), recovery.estimateKeyLength(encrypted));
+			assertEquals(key, recovery.recoverVigenereKey(encrypted));
+		}
+	}
+
+	public void testOutOfBounds() {
+		try {
+			recovery.recoverVigenereKey("ABC{");
+			fail("Out-of-bounds ciphertext should be rejected");
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+}
@@ -0,0 +1,101 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests re-keying: one pass with the combined schedule matches decrypting with
+ * the old key and encrypting with the new one.
+ */
+public class KeyRotationTest extends TestCase {
+
+	private static final String TEXT = "THE QUICK BROWN FOX JUMPS OVER THE LAZY DOG, 1234567890 TIMES!";
+
+	public void testVigenereToVigenere() {
+		String[][] pairs = { { "CMSC203", "TEACHER" }, { "KEY", "KEYS" }, { "AB", "ABCD" }, { "_", "^]\\" } };
+		for (String[] pair : pairs) {
+			KeyRotation rotation = KeyRotation.of(new VigenereKey(pair[0]), new VigenereKey(pair[1]));
+			String old = CryptoManager.vigenereEncryption(TEXT, pair[0]);
+			assertEquals(CryptoManager.vigenereEncryption(TEXT, pair[1]), CryptoManager.rekey(old, rotation));
+		}
+		assertEquals(21, KeyRotation.of(new VigenereKey("CMSC203"), new VigenereKey("KEY")).getPeriod());
+		assertEquals(4, KeyRotation.of(new VigenereKey("AB"), new VigenereKey("ABCD")).getPeriod());
+	}
+
+	public void testCaesarMigration() {
+		String old = CryptoManager.caesarEncryption(TEXT, 17);
+		assertEquals(CryptoManager.vigenereEncryption(TEXT, "NEWKEY"),
+				CryptoManager.rekey(old, KeyRotation.of(new CaesarKey(17), new VigenereKey("NEWKEY"))));
+		assertEquals(CryptoManager.caesarEncryption(TEXT, -5),
+				CryptoManager.rekey(old, KeyRotation.of(new CaesarKey(17), new CaesarKey(-5))));
+		assertEquals(CryptoManager.caesarEncryption(TEXT, 3), CryptoManager.rekey(
+				CryptoManager.vigenereEncryption(TEXT, "OLD"), KeyRotation.of(new VigenereKey("OLD"), new CaesarKey(3))));
+	}
+
+	public void testBuffersAndBatches() {
+		KeyRotation rotation = KeyRotation.of(new VigenereKey("OLDKEY"), new VigenereKey("FRESH"));
+		String expected = CryptoManager.vigenereEncryption(TEXT, "FRESH");
+		byte[] old = CryptoManager.vigenereEncryption(TEXT, "OLDKEY").getBytes(StandardCharsets.US_ASCII);
+
+		byte[] bytes = old.clone();
+		assertEquals(bytes.length, CryptoManager.rekey(bytes, 0, bytes.length, rotation));
+		assertEquals(expected, new String(bytes, StandardCharsets.US_ASCII));
+
+		ByteBuffer direct = ByteBuffer.allocateDirect(old.length);
+		direct.put(old).flip();
+		assertEquals(old.length, CryptoManager.rekey(direct, rotation));
+		byte[] back = new byte[old.length];
+		direct.flip();
+		direct.get(back);
+		assertEquals(expected, new String(back, StandardCharsets.US_ASCII));
+
+		try (CryptoBatch batch = new CryptoBatch(2)) {
+			List<CipherResult> results = batch.rekey(
+					Arrays.asList(new String(old, StandardCharsets.US_ASCII), "bad"), rotation);
+			assertEquals(expected, results.get(0).getText());
+			assertEquals(CipherResult.Status.OUT_OF_BOUNDS, results.get(1).getStatus());
+		}
+		assertEquals(CryptoManager.NOT_IN_BOUNDS, CryptoManager.rekey("lower", rotation));
+	}
+
+	public void testFile() throws IOException {
+		byte[] text = new byte[1 << 20];
+		for (int i = 0; i < text.length; i++) {
+			text[i] = (byte) (' ' + (i * 13 + i / 100) % 64);
+		}
+		Path directory = Files.createTempDirectory("rekey");
+		Path plain = Files.write(directory.resolve("plain.txt"), text);
+		Path old = directory.resolve("old.txt");
+		Path expected = directory.resolve("expected.txt");
+		Path rekeyed = directory.resolve("rekeyed.txt");
+		try {
+			MappedFileCipher.vigenereEncryption(plain, old, new VigenereKey("SEVENTEEN_CHARS!!"));
+			MappedFileCipher.vigenereEncryption(plain, expected, new VigenereKey("ELEVEN_CHAR"));
+			assertEquals(text.length, MappedFileCipher.rekey(old, rekeyed,
+					KeyRotation.of(new VigenereKey("SEVENTEEN_CHARS!!"), new VigenereKey("ELEVEN_CHAR"))));
+			assertTrue(Arrays.equals(Files.readAllBytes(expected), Files.readAllBytes(rekeyed)));
+		} finally {
+			for (Path file : new Path[] { plain, old, expected, rekeyed }) {
+				Files.deleteIfExists(file);
+			}
+			Files.delete(directory);
+		}
+	}
+
+	public void testPeriodLimit() {
+		char[] a = new char[257], b = new char[256];
+		Arrays.fill(a, 'A');
+		Arrays.fill(b, 'B');
+		try {
+			KeyRotation.of(new VigenereKey(new String(a)), new VigenereKey(new String(b)));
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+	}
+}
@@ -0,0 +1,95 @@
+import java.io.CharConversionException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * This class tests memory-mapped file encryption against the in-memory methods
+ * of CryptoManager.
+ */
+public class MappedFileCipherTest extends TestCase {
+
+	private Path directory;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		directory = Files.createTempDirectory("mapped");
+	}
+
+	protected void tearDown() throws Exception {
+		for (Path file : Files.newDirectoryStream(directory)) {
+			Files.delete(file);
+		}
+		Files.delete(directory);
+		super.tearDown();
+	}
+
+	public void testVigenereAcrossChunks() throws IOException {
+		// Larger than one chunk, with a key length that does not divide 8
+		byte[] text = new byte[9 << 20];
+		for (int i = 0; i < text.length; i++) {
+			text[i] = (byte) (' ' + (i * 7 + i / 64) % 64);
+		}
+		Path plain = Files.write(directory.resolve("plain.txt"), text);
+		Path encrypted = directory.resolve("encrypted.txt");
+		Path decrypted = directory.resolve("decrypted.txt");
+		VigenereKey key = new VigenereKey("MNT132!");
+
+		assertEquals(text.length, MappedFileCipher.vigenereEncryption(plain, encrypted, key));
+		byte[] expected = text.clone();
+		CryptoManager.vigenereEncryption(expected, 0, expected.length, key);
+		assertTrue(Arrays.equals(expected, Files.readAllBytes(encrypted)));
+
+		MappedFileCipher.vigenereDecryption(encrypted, decrypted, key);
+		assertTrue(Arrays.equals(text, Files.readAllBytes(decrypted)));
+	}
+
+	public void testPlayfairOddFile() throws IOException {
+		String text = "MONTGOMERY 2025";
+		Path plain = Files.write(directory.resolve("plain.txt"), text.getBytes(StandardCharsets.US_ASCII));
+		Path encrypted = directory.resolve("encrypted.txt");
+		PlayfairKey key = new PlayfairKey("TEACHER");
+
+		assertEquals(text.length() + 1, MappedFileCipher.playfairEncryption(plain, encrypted, key));
+		assertEquals(CryptoManager.playfairEncryption(text, key),
+				new String(Files.readAllBytes(encrypted), StandardCharsets.US_ASCII));
+
+		try {
+			MappedFileCipher.playfairDecryption(plain, directory.resolve("bad.txt"), key);
+			fail("Odd-length ciphertext should be rejected");
+		} catch (CharConversionException expected) {
+			assertEquals(CipherException.ODD_LENGTH + " (unpaired byte at offset 14)", expected.getMessage());
+		}
+	}
+
+	public void testOutOfBoundsFile() throws IOException {
+		Path plain = Files.write(directory.resolve("plain.txt"), "Montgomery".getBytes(StandardCharsets.US_ASCII));
+		try {
+			MappedFileCipher.caesarEncryption(plain, directory.resolve("out.txt"), 3);
+			fail("Out-of-bounds input should be rejected");
+		} catch (CharConversionException expected) {
+			assertTrue(expected.getMessage(), expected.getMessage().endsWith("offset 1)"));
+		}
+	}
+
+	public void testSameFileIsRejected() throws IOException {
+		byte[] text = "DO NOT TRUNCATE ME".getBytes(StandardCharsets.US_ASCII);
+		Path plain = Files.write(directory.resolve("plain.txt"), text);
+		try {
+			MappedFileCipher.caesarEncryption(plain, plain, 3);
+			fail("Encrypting a file onto itself should be rejected");
+		} catch (IOException expected) {
+		}
+		try {
+			MappedFileCipher.vigenereEncryption(plain, directory.resolve(".").resolve("plain.txt"),
+					new VigenereKey("KEY"));
+			fail("Another path to the same file should be rejected");
+		} catch (IOException expected) {
+		}
+		assertTrue(Arrays.equals(text, Files.readAllBytes(plain)));
+	}
+}
@@ -0,0 +1,123 @@
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the off-heap key store: results match the on-heap ciphers, and keys
+ * stay reachable as others are added and removed.
+ */
+public class OffHeapKeyStoreTest extends TestCase {
+
+	private static final String TEXT = "THE QUICK BROWN FOX JUMPS OVER THE LAZY DOG";
+
+	public void testMatchesCryptoManager() {
+		OffHeapKeyStore vigenere = OffHeapKeyStore.vigenere(16, 12);
+		OffHeapKeyStore playfair = OffHeapKeyStore.playfair(16, 12);
+		String[] keys = { "CMSC203", "TEACHER", "A", "_^]\\[ZYX", "" };
+
+		for (String key : keys) {
+			char[] src = TEXT.toCharArray();
+			char[] dst = new char[src.length + 1];
+
+			if (!key.isEmpty()) {
+				assertTrue(vigenere.add(key));
+				assertEquals(src.length, vigenere.encrypt(key, src, 0, src.length, dst, 0));
+				assertEquals(CryptoManager.vigenereEncryption(TEXT, key), new String(dst, 0, src.length));
+				vigenere.decrypt(key, dst, 0, src.length, dst, 0);
+				assertEquals(TEXT, new String(dst, 0, src.length));
+			}
+
+			assertTrue(playfair.add(key));
+			assertEquals(src.length + 1, playfair.encrypt(key, src, 0, src.length, dst, 0));
+			assertEquals(CryptoManager.playfairEncryption(TEXT, key), new String(dst));
+			playfair.decrypt(key, dst, 0, dst.length, dst, 0);
+			assertEquals(TEXT + " ", new String(dst));
+		}
+		assertEquals(4, vigenere.size());
+		assertEquals(5, playfair.size());
+
+		char[] odd = "ODD".toCharArray();
+		assertEquals(-3, playfair.decrypt("TEACHER", odd, 0, 3, odd, 0));
+		char[] invalid = "AB{".toCharArray();
+		assertEquals(-3, vigenere.encrypt("CMSC203", invalid, 0, 3, new char[3], 0));
+
+		// Only add stores a key
+		try {
+			vigenere.decrypt("UNKNOWN", odd, 0, 3, odd, 0);
+			fail("An unknown key should be rejected");
+		} catch (IllegalArgumentException expected) {
+		}
+		try {
+			playfair.encrypt("UNKNOWN", odd, 0, 3, new char[4], 0);
+			fail("An unknown key should be rejected");
+		} catch (IllegalArgumentException expected) {
+		}
+		assertFalse(vigenere.contains("UNKNOWN"));
+		assertEquals(5, playfair.size());
+	}
+
+	public void testCaseFolding() {
+		OffHeapKeyStore vigenere = OffHeapKeyStore.vigenere(4, 12, Alphabet.CASE_FOLDING);
+		OffHeapKeyStore playfair = OffHeapKeyStore.playfair(4, 12, Alphabet.CASE_FOLDING);
+		String text = "The quick brown fox";
+		char[] src = text.toCharArray();
+		char[] dst = new char[src.length + 1];
+
+		// A lower-case keyword names the same slot as its upper-case form
+		assertTrue(vigenere.add("teacher"));
+		assertFalse(vigenere.add("TEACHER"));
+		assertTrue(vigenere.contains("Teacher"));
+		assertEquals(src.length, vigenere.encrypt("TEACHER", src, 0, src.length, dst, 0));
+		assertEquals(CryptoManager.vigenereEncryption(text.toUpperCase(), "TEACHER"),
+				new String(dst, 0, src.length));
+
+		assertTrue(playfair.add("teacher"));
+		assertEquals(src.length + 1, playfair.encrypt("teacher", src, 0, src.length, dst, 0));
+		assertEquals(CryptoManager.playfairEncryption(text.toUpperCase(), "TEACHER"), new String(dst));
+
+		// The default alphabet still rejects lower case
+		OffHeapKeyStore strict = OffHeapKeyStore.vigenere(4, 12);
+		try {
+			strict.add("teacher");
+			fail("A lower-case key should be rejected");
+		} catch (IllegalArgumentException expected) {
+		}
+		strict.add("TEACHER");
+		assertEquals(-2, strict.encrypt("TEACHER", src, 0, src.length, dst, 0));
+		assertTrue(vigenere.remove("teacher"));
+		assertEquals(0, vigenere.size());
+	}
+
+	public void testCapacityAndRemoval() {
+		OffHeapKeyStore store = OffHeapKeyStore.vigenere(100, 10);
+		Random random = new Random(20);
+		String[] keys = new String[100];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = Integer.toString(random.nextInt(1_000_000_000));
+			store.add(keys[i]);
+		}
+		assertFalse(store.add(keys[0]));
+		try {
+			store.add("FULL");
+			fail("A full store should reject a new key");
+		} catch (IllegalStateException expected) {
+		}
+
+		// Removing every other key must leave the rest reachable
+		for (int i = 0; i < keys.length; i += 2) {
+			assertTrue(store.remove(keys[i]));
+		}
+		assertFalse(store.remove(keys[0]));
+		assertEquals(50, store.size());
+		for (int i = 0; i < keys.length; i++) {
+			assertEquals(keys[i], i % 2 == 1, store.contains(keys[i]));
+		}
+		assertTrue(store.add("FULL"));
+
+		try {
+			store.add("TOO LONG KEY");
+			fail("A key over the maximum length should be rejected");
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+}
@@ -0,0 +1,164 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.CharConversionException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StreamCorruptedException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the packed codec: bulk and streaming round trips at every length of
+ * final group, and fused encryption matching encrypt-then-pack.
+ */
+public class Packed6CodecTest extends TestCase {
+
+	private static final String TEXT = "THE QUICK BROWN FOX JUMPS OVER THE LAZY DOG";
+
+	public void testBulkRoundTrip() {
+		Random random = new Random(23);
+		for (int length = 0; length < 40; length++) {
+			char[] text = randomText(random, length);
+			ByteBuffer packed = ByteBuffer.allocateDirect(Packed6Codec.packedLength(length) + 2);
+			packed.position(1);
+			assertEquals(Packed6Codec.packedLength(length), Packed6Codec.encode(text, 0, length, packed));
+			assertEquals(1 + Packed6Codec.packedLength(length), packed.position());
+
+			packed.position(1);
+			char[] back = new char[length];
+			assertEquals(length, Packed6Codec.decode(packed, length, back, 0));
+			assertTrue(Arrays.equals(text, back));
+			assertEquals(1 + Packed6Codec.packedLength(length), packed.position());
+		}
+		assertEquals(TEXT, Packed6Codec.decode(Packed6Codec.encode(TEXT), TEXT.length()));
+	}
+
+	public void testLayout() {
+		// Four characters of index 63, 0, 63, 0 fill three bytes
+		assertEquals(3, Packed6Codec.packedLength(4));
+		assertEquals(33, Packed6Codec.packedLength(44));
+		assertTrue(Arrays.equals(new byte[] { (byte) 0xFC, 0x0F, (byte) 0xC0 }, Packed6Codec.encode("_ _ ")));
+		assertTrue(Arrays.equals(new byte[] { (byte) 0xFC }, Packed6Codec.encode("_")));
+	}
+
+	public void testOutOfBounds() {
+		ByteBuffer packed = ByteBuffer.allocate(16);
+		assertEquals(-3, Packed6Codec.encode("ABcD".toCharArray(), 0, 4, packed));
+		assertEquals(0, packed.position());
+		try {
+			Packed6Codec.encode("hello");
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+	}
+
+	public void testFusedEncryption() {
+		char[] text = TEXT.toCharArray();
+		for (int length = 0; length <= text.length; length++) {
+			String plain = TEXT.substring(0, length);
+
+			ByteBuffer packed = ByteBuffer.allocate(64);
+			Packed6Codec.caesarEncryption(text, 0, length, packed, CaesarKey.of(7));
+			assertEquals(CryptoManager.caesarEncryption(plain, 7), Packed6Codec.decode(packed.array(), length));
+
+			packed.clear();
+			Packed6Codec.vigenereEncryption(text, 0, length, packed, new VigenereKey("CMSC203"));
+			assertEquals(CryptoManager.vigenereEncryption(plain, "CMSC203"), Packed6Codec.decode(packed.array(), length));
+
+			packed.clear();
+			int written = length + (length & 1);
+			assertEquals(Packed6Codec.packedLength(written),
+					Packed6Codec.playfairEncryption(text, 0, length, packed, new PlayfairKey("TEACHER")));
+			assertEquals(CryptoManager.playfairEncryption(plain, "TEACHER"),
+					Packed6Codec.decode(packed.array(), written));
+		}
+		assertEquals(-2, Packed6Codec.playfairEncryption("Ab".toCharArray(), 0, 2, ByteBuffer.allocate(4),
+				new PlayfairKey("TEACHER")));
+	}
+
+	public void testStreamRoundTrip() throws IOException {
+		Random random = new Random(203);
+		for (int length : new int[] { 0, 1, 2, 3, 4, 5, 4095, 4096, 4097, 10001 }) {
+			char[] text = randomText(random, length);
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (Writer writer = Packed6Codec.writer(bytes)) {
+				for (int i = 0; i < length; i += 7) {
+					writer.write(text, i, Math.min(7, length - i));
+					writer.flush();
+				}
+			}
+			assertEquals(Packed6Codec.packedLength(length) + 1, bytes.size());
+
+			try (Reader reader = Packed6Codec.reader(new ByteArrayInputStream(bytes.toByteArray()))) {
+				assertEquals(new String(text), readAll(reader));
+			}
+		}
+	}
+
+	public void testStreamWithCipher() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (Writer writer = CipherWriter.vigenereEncryption(Packed6Codec.writer(bytes), new VigenereKey("KEY"))) {
+			writer.write(TEXT);
+		}
+		try (Reader reader = Packed6Codec.reader(new ByteArrayInputStream(bytes.toByteArray()))) {
+			assertEquals(CryptoManager.vigenereEncryption(TEXT, "KEY"), readAll(reader));
+		}
+		try (Reader reader = CipherReader.vigenereDecryption(
+				Packed6Codec.reader(new ByteArrayInputStream(bytes.toByteArray())), new VigenereKey("KEY"))) {
+			assertEquals(TEXT, readAll(reader));
+		}
+	}
+
+	public void testStreamErrors() throws IOException {
+		try (Writer writer = Packed6Codec.writer(new ByteArrayOutputStream())) {
+			writer.write("abc");
+			fail("Expected CharConversionException");
+		} catch (CharConversionException e) {
+			// Expected
+		}
+
+		try {
+			readAll(Packed6Codec.reader(new ByteArrayInputStream(new byte[0])));
+			fail("Expected EOFException");
+		} catch (EOFException e) {
+			// Expected
+		}
+
+		// Five characters: three bytes, one byte and a trailer of 1; drop a byte
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (Writer writer = Packed6Codec.writer(bytes)) {
+			writer.write("HELLO");
+		}
+		byte[] truncated = Arrays.copyOfRange(bytes.toByteArray(), 1, bytes.size());
+		try {
+			readAll(Packed6Codec.reader(new ByteArrayInputStream(truncated)));
+			fail("Expected StreamCorruptedException");
+		} catch (StreamCorruptedException e) {
+			// Expected
+		}
+	}
+
+	private static char[] randomText(Random random, int length) {
+		char[] text = new char[length];
+		for (int i = 0; i < length; i++) {
+			text[i] = (char) (CryptoManager.LOWER_RANGE + random.nextInt(CryptoManager.RANGE));
+		}
+		return text;
+	}
+
+	private static String readAll(Reader reader) throws IOException {
+		StringBuilder text = new StringBuilder();
+		char[] buffer = new char[1000];
+		int n;
+		while ((n = reader.read(buffer, 0, buffer.length)) >= 0) {
+			text.append(buffer, 0, n);
+		}
+		return text.toString();
+	}
+}
@@ -0,0 +1,30 @@
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the Playfair solver on English-like text encrypted with CryptoManager.
+ */
+public class PlayfairSolverTest extends TestCase {
+
+	public void testRecoversKey() {
+		String plainText = EnglishText.english(new Random(1), 5000);
+		String encrypted = CryptoManager.playfairEncryption(plainText, "SECRET KEY");
+
+		try (PlayfairSolver solver = new PlayfairSolver(2, EnglishText.english(new Random(9), 100_000))) {
+			PlayfairSolver.Solution solution = solver.solve(encrypted, 2, 1_000_000);
+
+			// A rotated matrix is an equivalent key, so compare decryptions
+			assertEquals(plainText, CryptoManager.playfairDecryption(encrypted, solution.getKey()));
+			assertEquals(64, solution.getKey().length());
+		}
+	}
+
+	public void testRejectsOddCiphertext() {
+		try (PlayfairSolver solver = new PlayfairSolver(1, "SAMPLE TEXT")) {
+			solver.solve("ODD", 1, 10);
+			fail("Odd-length ciphertext should be rejected");
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+}
@@ -0,0 +1,69 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests that every shift engine gives the same output and stops at the same
+ * offset, on random text with and without out-of-bounds characters.
+ */
+public class ShiftEngineTest extends TestCase {
+
+	public void testEnginesAgree() {
+		Random random = new Random(17);
+		for (int round = 0; round < 200; round++) {
+			ShiftSchedule schedule = new VigenereKey(randomText(random, 1 + random.nextInt(12), false))
+					.encryptSchedule();
+			String text = randomText(random, random.nextInt(100), round % 3 == 0);
+
+			char[] expectedChars = new char[text.length()];
+			int expected = ShiftEngine.SCALAR.shift(text.toCharArray(), 0, text.length(), expectedChars, 0,
+					schedule, 0);
+			byte[] expectedBytes = text.getBytes(StandardCharsets.ISO_8859_1);
+			ShiftEngine.SCALAR.shift(expectedBytes, 0, expectedBytes.length, schedule);
+
+			for (ShiftEngine engine : ShiftEngine.values()) {
+				char[] chars = new char[text.length()];
+				assertEquals(engine.name(), expected,
+						engine.shift(text.toCharArray(), 0, text.length(), chars, 0, schedule, 0));
+
+				byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+				assertEquals(engine.name(), expected, engine.shift(bytes, 0, bytes.length, schedule));
+
+				ByteBuffer src = ByteBuffer.allocateDirect(bytes.length);
+				src.put(text.getBytes(StandardCharsets.ISO_8859_1)).flip();
+				ByteBuffer dst = ByteBuffer.allocateDirect(bytes.length);
+				assertEquals(engine.name(), expected, engine.shift(src, dst, 0, bytes.length, schedule));
+
+				if (expected >= 0) {
+					assertTrue(engine.name(), Arrays.equals(expectedChars, chars));
+					assertTrue(engine.name(), Arrays.equals(expectedBytes, bytes));
+					byte[] buffered = new byte[bytes.length];
+					dst.get(buffered);
+					assertTrue(engine.name(), Arrays.equals(expectedBytes, buffered));
+				}
+			}
+		}
+	}
+
+	public void testSelect() {
+		assertEquals(ShiftEngine.SWAR, ShiftEngine.select(null, "64"));
+		assertEquals(ShiftEngine.TABLE, ShiftEngine.select(null, "32"));
+		assertEquals(ShiftEngine.SCALAR, ShiftEngine.select(" scalar ", "64"));
+		// A typo falls back to the default instead of failing class initialization
+		assertEquals(ShiftEngine.SWAR, ShiftEngine.select("SIMD", "64"));
+	}
+
+	private static String randomText(Random random, int length, boolean outOfBounds) {
+		char[] text = new char[length];
+		for (int i = 0; i < length; i++) {
+			text[i] = (char) (CryptoManager.LOWER_RANGE + random.nextInt(CryptoManager.RANGE));
+		}
+		if (outOfBounds && length > 0) {
+			text[random.nextInt(length)] = (char) ('a' + random.nextInt(26));
+		}
+		return new String(text);
+	}
+}